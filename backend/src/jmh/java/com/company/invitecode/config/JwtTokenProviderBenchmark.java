@@ -0,0 +1,65 @@
+package com.company.invitecode.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT签发与校验
+ * 缓存命中只计算令牌摘要并查表；cache.max-size为0时每次都完整解析和验签，对应首次出现的令牌。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedProvider = provider(10000);
+        uncachedProvider = provider(0);
+        token = cachedProvider.createToken("admin", Arrays.asList("ROLE_ADMIN", "ROLE_USER"));
+    }
+
+    private static JwtTokenProvider provider(int cacheMaxSize) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "secretKey", "benchmarkSecretKey");
+        ReflectionTestUtils.setField(provider, "validityInMilliseconds", TimeUnit.DAYS.toMillis(1));
+        ReflectionTestUtils.setField(provider, "cacheMaxSize", cacheMaxSize);
+        provider.init();
+        return provider;
+    }
+
+    @Benchmark
+    public String createToken() {
+        return cachedProvider.createToken("admin", Arrays.asList("ROLE_ADMIN", "ROLE_USER"));
+    }
+
+    @Benchmark
+    public Authentication authenticateCached() {
+        return cachedProvider.authenticate(token);
+    }
+
+    @Benchmark
+    public Authentication authenticateUncached() {
+        return uncachedProvider.authenticate(token);
+    }
+}
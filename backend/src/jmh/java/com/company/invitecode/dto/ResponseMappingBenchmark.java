@@ -0,0 +1,101 @@
+package com.company.invitecode.dto;
+
+import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.util.IpAddressCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO投影与响应序列化
+ * ObjectMapper由 {@link Jackson2ObjectMapperBuilder} 按Spring Boot的默认配置创建，与接口实际使用的序列化方式一致。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter writer;
+    private LocalDateTime now;
+    private byte[] ipAddress;
+    private ApiResponse<Boolean> verifyResponse;
+    private ApiResponse<List<InviteCodeDto>> codePage;
+    private ApiResponse<List<UsageRecordDto>> usagePage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        ipAddress = IpAddressCodec.encode("203.0.113.7");
+        verifyResponse = ApiResponse.success("邀请码验证成功", true);
+
+        List<InviteCodeDto> codes = new ArrayList<>();
+        List<UsageRecordDto> records = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            codes.add(inviteCodeDto(i));
+            UsageRecordDto record = usageRecordDto(i);
+            record.setInviteCode("ABCD2345EF");
+            records.add(record);
+        }
+        codePage = ApiResponse.success(codes);
+        usagePage = ApiResponse.success(records);
+    }
+
+    private InviteCodeDto inviteCodeDto(long id) {
+        return new InviteCodeDto(id, "ABCD2345EF", "batch-0001", "测试批次", now, "admin", true, 3, now, 10, 7,
+                now.plusDays(30));
+    }
+
+    private UsageRecordDto usageRecordDto(long id) {
+        return new UsageRecordDto(id, "user-" + id, ipAddress,
+                "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36", now);
+    }
+
+    @Benchmark
+    public InviteCodeDto projectInviteCode() {
+        return inviteCodeDto(1L);
+    }
+
+    @Benchmark
+    public UsageRecordDto projectUsageRecord() {
+        return usageRecordDto(1L);
+    }
+
+    @Benchmark
+    public byte[] serializeVerifyResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(verifyResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeInviteCodePage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(codePage);
+    }
+
+    @Benchmark
+    public byte[] serializeUsageRecordPage() throws JsonProcessingException {
+        return writer.writeValueAsBytes(usagePage);
+    }
+}
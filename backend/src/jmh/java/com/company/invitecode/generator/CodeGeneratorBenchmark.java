@@ -0,0 +1,54 @@
+package com.company.invitecode.generator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 邀请码生成：随机十六进制与计数器置换两种生成器的单次耗时
+ * 号段分配替换为内存计数器，结果不包含数据库往返，号段足够大使领取号段的开销可以忽略。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+
+    private RandomCodeGenerator randomCodeGenerator;
+    private PermutationCodeGenerator permutationCodeGenerator;
+
+    @Setup
+    public void setUp() {
+        randomCodeGenerator = new RandomCodeGenerator();
+        AtomicLong next = new AtomicLong();
+        CounterBlockAllocator allocator = new CounterBlockAllocator(null, null) {
+            @Override
+            public long allocate(String name, int size) {
+                return next.getAndAdd(size);
+            }
+        };
+        permutationCodeGenerator = new PermutationCodeGenerator(allocator, "benchmarkSecret", 1_000_000);
+    }
+
+    @Benchmark
+    public String randomCode() {
+        return randomCodeGenerator.nextCode();
+    }
+
+    @Benchmark
+    public String permutationCode() {
+        return permutationCodeGenerator.nextCode();
+    }
+}
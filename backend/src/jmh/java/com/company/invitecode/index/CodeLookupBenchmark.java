@@ -0,0 +1,98 @@
+package com.company.invitecode.index;
+
+import com.company.invitecode.generator.CrockfordBase32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 校验路径上的内存查找结构：邀请码编码、{@link PackedCodeTable} 和 {@link BloomFilter} 的命中与未命中
+ * 查询的邀请码每次轮换，避免单个键常驻CPU缓存使结果偏乐观。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeLookupBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param("1000000")
+    public int size;
+
+    private PackedCodeTable table;
+    private BloomFilter bloomFilter;
+    private String[] presentCodes;
+    private String[] absentCodes;
+    private long[] presentKeys;
+    private long[] absentKeys;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        table = new PackedCodeTable(size);
+        bloomFilter = BloomFilter.create(size, 0.001);
+        presentCodes = new String[PROBES];
+        presentKeys = new long[PROBES];
+        for (int i = 0; i < size; i++) {
+            String code = CrockfordBase32.encode(random.nextLong() & ((1L << 50) - 1), 10);
+            table.put(CodeVerificationIndex.pack(code), (long) i << 2 | 1);
+            bloomFilter.put(code);
+            if (i < PROBES) {
+                presentCodes[i] = code;
+                presentKeys[i] = CodeVerificationIndex.pack(code);
+            }
+        }
+        absentCodes = new String[PROBES];
+        absentKeys = new long[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            // 11位的邀请码与已插入的10位邀请码不会重复
+            absentCodes[i] = CrockfordBase32.encode(random.nextLong() & ((1L << 55) - 1), 11);
+            absentKeys[i] = CodeVerificationIndex.pack(absentCodes[i]);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (PROBES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public long packCode() {
+        return CodeVerificationIndex.pack(presentCodes[next()]);
+    }
+
+    @Benchmark
+    public long packedTableHit() {
+        return table.get(presentKeys[next()]);
+    }
+
+    @Benchmark
+    public long packedTableMiss() {
+        return table.get(absentKeys[next()]);
+    }
+
+    @Benchmark
+    public boolean bloomFilterHit() {
+        return bloomFilter.mightContain(presentCodes[next()]);
+    }
+
+    @Benchmark
+    public boolean bloomFilterMiss() {
+        return bloomFilter.mightContain(absentCodes[next()]);
+    }
+}
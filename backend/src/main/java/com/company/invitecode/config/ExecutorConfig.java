@@ -0,0 +1,62 @@
+package com.company.invitecode.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台线程池配置
+ * 所有线程池均为有界队列，队列满时直接拒绝，由调用方决定如何响应。
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * 邀请码生成任务线程池
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService generationJobExecutor(
+            @Value("${invite-code.generation.pool-size:2}") int poolSize,
+            @Value("${invite-code.generation.queue-capacity:16}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("generation-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 登录密码校验线程池
+     * BCrypt计算是CPU密集型操作，放在独立的小线程池中执行，不占用请求线程，
+     * 队列满时登录接口直接返回503，避免大量登录请求耗尽CPU。
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService loginExecutor(
+            @Value("${invite-code.login.pool-size:2}") int poolSize,
+            @Value("${invite-code.login.queue-capacity:32}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 异步校验接口的数据库查询线程池
+     * 只有需要查询数据库的校验才进入此线程池，线程数应与数据库连接池大小相当；
+     * 排队中的请求不占用Tomcat线程，因此队列可以远大于线程数，队列满时返回503。
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService verificationExecutor(
+            @Value("${invite-code.verify-async.pool-size:10}") int poolSize,
+            @Value("${invite-code.verify-async.queue-capacity:10000}") int queueCapacity) {
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("verification-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -11,10 +11,20 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
+/**
+ * JWT认证过滤器
+ * 公开接口（邀请码校验、登录）不需要认证信息，直接跳过，不读取和校验令牌。
+ */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    private static final Set<String> PUBLIC_PATHS = new HashSet<>(Arrays.asList(
+            "/invite-codes/verify", "/invite-codes/verify-async", "/auth/login"));
     
     private final JwtTokenProvider jwtTokenProvider;
 
@@ -22,21 +32,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         this.jwtTokenProvider = jwtTokenProvider;
     }
 
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PUBLIC_PATHS.contains(request.getServletPath());
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         try {
             String token = jwtTokenProvider.resolveToken(request);
-            log.debug("从请求中提取的令牌: {}", token);
-            
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                log.debug("令牌有效，正在设置认证信息");
-                Authentication auth = jwtTokenProvider.getAuthentication(token);
+            Authentication auth = token == null ? null : jwtTokenProvider.authenticate(token);
+            if (auth != null) {
                 SecurityContextHolder.getContext().setAuthentication(auth);
-                log.debug("认证信息已设置: {}", auth);
-            } else {
-                log.debug("无效的令牌或令牌不存在");
+                log.debug("认证信息已设置: {}", auth.getName());
+            } else if (token != null) {
+                log.debug("无效的令牌");
             }
         } catch (Exception ex) {
             log.error("无法设置用户认证", ex);
@@ -45,4 +57,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+}
@@ -1,7 +1,6 @@
 package com.company.invitecode.config;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -13,11 +12,26 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * JWT令牌的签发与认证
+ * 校验通过的令牌按SHA-256摘要缓存解析出的认证信息（最多 jwt.cache.max-size 个），缓存到令牌的exp时间为止。
+ * 同一令牌的后续请求只计算一次摘要，不再重复解码和校验签名；缓存中不保存令牌原文。
+ * 缓存是无锁的并发Map，命中时不加锁；已满时先清理过期的令牌（每秒最多遍历一次），仍然已满则淘汰任意的令牌。
+ */
 @Component
 public class JwtTokenProvider {
 
@@ -27,6 +41,12 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long validityInMilliseconds;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private final ConcurrentHashMap<ByteBuffer, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicLong lastPrune = new AtomicLong(Long.MIN_VALUE);
+
     @PostConstruct
     protected void init() {
         secretKey = Base64.getEncoder().encodeToString(secretKey.getBytes());
@@ -47,16 +67,41 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
-        String username = claims.getSubject();
-        List<String> roles = (List<String>) claims.get("roles");
-        
-        List<SimpleGrantedAuthority> authorities = roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+    /**
+     * 校验令牌并返回认证信息，只解析一次
+     *
+     * @param token 令牌
+     * @return 认证信息，令牌无效、已过期或没有过期时间时返回null；缓存的实例在请求间共享，调用方不得修改
+     */
+    public Authentication authenticate(String token) {
+        ByteBuffer key = ByteBuffer.wrap(digest(token));
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached.authentication;
+            }
+            verifiedTokens.remove(key, cached);
+        }
 
-        return new UsernamePasswordAuthenticationToken(username, "", authorities);
+        Claims claims;
+        try {
+            claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.getTime() <= now) {
+            return null;
+        }
+        Authentication authentication = toAuthentication(claims);
+        if (cacheMaxSize > 0) {
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                makeRoom(now);
+            }
+            verifiedTokens.put(key, new VerifiedToken(authentication, expiration.getTime()));
+        }
+        return authentication;
     }
 
     public String resolveToken(HttpServletRequest req) {
@@ -67,12 +112,46 @@ public class JwtTokenProvider {
         return null;
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * 缓存已满时腾出位置：先清理已过期的令牌，遍历全表的清理每秒最多执行一次；仍然已满则淘汰任意的令牌
+     */
+    private void makeRoom(long now) {
+        long last = lastPrune.get();
+        if ((last == Long.MIN_VALUE || now - last >= TimeUnit.SECONDS.toMillis(1))
+                && lastPrune.compareAndSet(last, now)) {
+            verifiedTokens.values().removeIf(token -> token.expiresAt <= now);
+        }
+        Iterator<VerifiedToken> iterator = verifiedTokens.values().iterator();
+        while (verifiedTokens.size() >= cacheMaxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Authentication toAuthentication(Claims claims) {
+        List<String> roles = (List<String>) claims.get("roles");
+        List<SimpleGrantedAuthority> authorities = roles == null ? Collections.emptyList() : roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new UsernamePasswordAuthenticationToken(claims.getSubject(), "", authorities);
+    }
+
+    private static byte[] digest(String token) {
         try {
-            Jws<Claims> claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
-            return !claims.getBody().getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final Authentication authentication;
+        private final long expiresAt;
+
+        private VerifiedToken(Authentication authentication, long expiresAt) {
+            this.authentication = authentication;
+            this.expiresAt = expiresAt;
         }
     }
-} 
\ No newline at end of file
+}
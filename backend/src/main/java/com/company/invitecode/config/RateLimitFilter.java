@@ -0,0 +1,103 @@
+package com.company.invitecode.config;
+
+import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.ratelimit.TokenBucketRateLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公开校验接口的限流过滤器，位于安全过滤链最前面
+ * 超出限额的请求直接返回429和Retry-After，不进入JWT解析和控制器。
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final Set<String> LIMITED_PATHS = new HashSet<>(
+            Arrays.asList("/invite-codes/verify", "/invite-codes/verify-async"));
+
+    private final TokenBucketRateLimiter rateLimiter;
+    /** 可信反向代理的层数，0表示不使用 X-Forwarded-For */
+    private final int trustedProxies;
+    private final byte[] rejectedBody;
+
+    public RateLimitFilter(TokenBucketRateLimiter rateLimiter, ObjectMapper objectMapper, int trustedProxies) {
+        this.rateLimiter = rateLimiter;
+        this.trustedProxies = trustedProxies;
+        try {
+            this.rejectedBody = objectMapper.writeValueAsBytes(ApiResponse.error("请求过于频繁，请稍后再试"));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled()
+                || !"POST".equals(request.getMethod())
+                || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientKey = resolveClientKey(request);
+        long waitNanos = rateLimiter.tryAcquire(clientKey);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        log.debug("限流拒绝请求，客户端: {}, 需等待: {}ms", clientKey, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(rejectedBody.length);
+        response.getOutputStream().write(rejectedBody);
+    }
+
+    /**
+     * 客户端标识：默认使用连接的远端地址；部署在可信反向代理之后时使用 X-Forwarded-For 中由代理追加的地址
+     */
+    private String resolveClientKey(HttpServletRequest request) {
+        return resolveClientKey(request.getRemoteAddr(), request.getHeader("X-Forwarded-For"), trustedProxies);
+    }
+
+    /**
+     * 每层代理在 X-Forwarded-For 末尾追加它看到的来源地址，左侧的条目由客户端任意填写。
+     * 因此经过 trustedProxies 层可信代理时，从右数第 trustedProxies 个条目才是客户端地址；
+     * 条目不足时说明请求没有经过全部代理，取最左侧的条目。
+     *
+     * @param remoteAddr 连接的远端地址
+     * @param forwardedFor X-Forwarded-For 请求头
+     * @param trustedProxies 可信反向代理的层数
+     * @return 客户端标识
+     */
+    static String resolveClientKey(String remoteAddr, String forwardedFor, int trustedProxies) {
+        if (trustedProxies <= 0 || forwardedFor == null || forwardedFor.isEmpty()) {
+            return remoteAddr;
+        }
+        String[] entries = forwardedFor.split(",");
+        String client = entries[Math.max(entries.length - trustedProxies, 0)].trim();
+        return client.isEmpty() ? remoteAddr : client;
+    }
+}
@@ -1,5 +1,8 @@
 package com.company.invitecode.config;
 
+import com.company.invitecode.ratelimit.TokenBucketRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -9,6 +12,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.channel.ChannelProcessingFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -23,10 +27,21 @@ public class SecurityConfig {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final TokenBucketRateLimiter tokenBucketRateLimiter;
+    private final ObjectMapper objectMapper;
 
-    public SecurityConfig(JwtTokenProvider jwtTokenProvider, JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint) {
+    @Value("${invite-code.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Value("${invite-code.rate-limit.trusted-proxies:1}")
+    private int trustedProxies;
+
+    public SecurityConfig(JwtTokenProvider jwtTokenProvider, JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                          TokenBucketRateLimiter tokenBucketRateLimiter, ObjectMapper objectMapper) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
+        this.tokenBucketRateLimiter = tokenBucketRateLimiter;
+        this.objectMapper = objectMapper;
     }
 
     @Bean
@@ -39,9 +54,21 @@ public class SecurityConfig {
             .authorizeRequests()
                 // 生成邀请码API需要认证和ADMIN角色
                 .antMatchers("/invite-codes/generate").hasRole("ADMIN")
+                .antMatchers("/invite-codes/generation-jobs/**").hasRole("ADMIN")
+                .antMatchers("/invite-codes/batches/**").hasRole("ADMIN")
+                .antMatchers("/invite-codes/bulk/**").hasRole("ADMIN")
+                // 邀请码列表、搜索和使用统计会暴露可用的邀请码与使用情况，只允许管理员访问
+                .antMatchers("/invite-codes/search", "/invite-codes/scroll").hasRole("ADMIN")
+                .antMatchers("/invite-codes/*/usage-stats", "/invite-codes/*/usage-records/scroll").hasRole("ADMIN")
+                .antMatchers("/admin/**").hasRole("ADMIN")
                 // 其他请求允许通过
                 .anyRequest().permitAll();
 
+        // 公开校验接口限流，放在过滤链最前面
+        http.addFilterBefore(
+                new RateLimitFilter(tokenBucketRateLimiter, objectMapper, trustForwardedFor ? trustedProxies : 0),
+                ChannelProcessingFilter.class);
+
         // 添加JWT过滤器
         http.addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class);
 
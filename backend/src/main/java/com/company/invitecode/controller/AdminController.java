@@ -0,0 +1,193 @@
+package com.company.invitecode.controller;
+
+import com.company.invitecode.dto.BloomFilterStatsDto;
+import com.company.invitecode.dto.CodeIndexStatsDto;
+import com.company.invitecode.dto.RateLimitStatsDto;
+import com.company.invitecode.dto.RejectedCodeCacheStatsDto;
+import com.company.invitecode.dto.UsageArchiveSegmentDto;
+import com.company.invitecode.dto.UsageWriterStatsDto;
+import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
+import com.company.invitecode.ratelimit.TokenBucketRateLimiter;
+import com.company.invitecode.service.ExportFormat;
+import com.company.invitecode.usage.UsageArchiveReader;
+import com.company.invitecode.usage.UsageArchiver;
+import com.company.invitecode.usage.UsageCountReconciler;
+import com.company.invitecode.usage.UsageRecordWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 运维管理接口：内存索引、缓存等组件的状态与维护操作
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
+    private final CodeBloomFilter codeBloomFilter;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final UsageRecordWriter usageRecordWriter;
+    private final UsageCountReconciler usageCountReconciler;
+    private final TokenBucketRateLimiter tokenBucketRateLimiter;
+    private final RejectedCodeCache rejectedCodeCache;
+    private final UsageArchiver usageArchiver;
+    private final UsageArchiveReader usageArchiveReader;
+
+    public AdminController(CodeBloomFilter codeBloomFilter, CodeVerificationIndex codeVerificationIndex,
+                           UsageRecordWriter usageRecordWriter, UsageCountReconciler usageCountReconciler,
+                           TokenBucketRateLimiter tokenBucketRateLimiter, RejectedCodeCache rejectedCodeCache,
+                           UsageArchiver usageArchiver, UsageArchiveReader usageArchiveReader) {
+        this.codeBloomFilter = codeBloomFilter;
+        this.codeVerificationIndex = codeVerificationIndex;
+        this.usageRecordWriter = usageRecordWriter;
+        this.usageCountReconciler = usageCountReconciler;
+        this.tokenBucketRateLimiter = tokenBucketRateLimiter;
+        this.rejectedCodeCache = rejectedCodeCache;
+        this.usageArchiver = usageArchiver;
+        this.usageArchiveReader = usageArchiveReader;
+    }
+
+    /**
+     * 获取布隆过滤器状态
+     */
+    @GetMapping("/bloom-filter")
+    public ResponseEntity<ApiResponse<BloomFilterStatsDto>> getBloomFilterStats() {
+        return ResponseEntity.ok(ApiResponse.success(codeBloomFilter.getStats()));
+    }
+
+    /**
+     * 重建布隆过滤器
+     */
+    @PostMapping("/bloom-filter/rebuild")
+    public ResponseEntity<ApiResponse<BloomFilterStatsDto>> rebuildBloomFilter() {
+        log.info("收到重建布隆过滤器请求");
+        try {
+            codeBloomFilter.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("布隆过滤器已重建", codeBloomFilter.getStats()));
+        } catch (Exception e) {
+            log.error("重建布隆过滤器异常", e);
+            return ResponseEntity.ok(ApiResponse.error("重建布隆过滤器失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取内存校验索引状态
+     */
+    @GetMapping("/code-index")
+    public ResponseEntity<ApiResponse<CodeIndexStatsDto>> getCodeIndexStats() {
+        return ResponseEntity.ok(ApiResponse.success(codeVerificationIndex.getStats()));
+    }
+
+    /**
+     * 重新加载内存校验索引
+     */
+    @PostMapping("/code-index/reload")
+    public ResponseEntity<ApiResponse<CodeIndexStatsDto>> reloadCodeIndex() {
+        if (!codeVerificationIndex.isEnabled()) {
+            return ResponseEntity.ok(ApiResponse.error("内存校验索引未启用"));
+        }
+        log.info("收到重新加载内存校验索引请求");
+        try {
+            codeVerificationIndex.reload();
+            return ResponseEntity.ok(ApiResponse.success("内存校验索引已重新加载", codeVerificationIndex.getStats()));
+        } catch (Exception e) {
+            log.error("重新加载内存校验索引异常", e);
+            return ResponseEntity.ok(ApiResponse.error("重新加载内存校验索引失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取使用记录异步写入状态（队列深度、刷新耗时、转存情况）
+     */
+    @GetMapping("/usage-writer")
+    public ResponseEntity<ApiResponse<UsageWriterStatsDto>> getUsageWriterStats() {
+        return ResponseEntity.ok(ApiResponse.success(usageRecordWriter.getStats()));
+    }
+
+    /**
+     * 根据使用记录重新计算全部邀请码的使用次数
+     */
+    @PostMapping("/usage-counts/reconcile")
+    public ResponseEntity<ApiResponse<Integer>> reconcileUsageCounts() {
+        log.info("收到校正邀请码使用次数请求");
+        try {
+            int processed = usageCountReconciler.reconcile();
+            return ResponseEntity.ok(ApiResponse.success("邀请码使用次数已校正", processed));
+        } catch (Exception e) {
+            log.error("校正邀请码使用次数异常", e);
+            return ResponseEntity.ok(ApiResponse.error("校正邀请码使用次数失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取使用记录的按月归档进度
+     */
+    @GetMapping("/usage-archive")
+    public ResponseEntity<ApiResponse<List<UsageArchiveSegmentDto>>> getUsageArchiveSegments() {
+        return ResponseEntity.ok(ApiResponse.success(usageArchiver.getSegments()));
+    }
+
+    /**
+     * 立即归档早于保留期的使用记录
+     */
+    @PostMapping("/usage-archive/run")
+    public ResponseEntity<ApiResponse<Long>> archiveUsageRecords() {
+        log.info("收到归档使用记录请求");
+        try {
+            long archived = usageArchiver.archive();
+            return ResponseEntity.ok(ApiResponse.success("使用记录已归档", archived));
+        } catch (Exception e) {
+            log.error("归档使用记录异常", e);
+            return ResponseEntity.ok(ApiResponse.error("归档使用记录失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 查询已归档的使用记录，以NDJSON逐行流式返回
+     */
+    @GetMapping("/usage-archive/records")
+    public ResponseEntity<StreamingResponseBody> getArchivedUsageRecords(
+            @RequestParam(required = false) Long inviteCodeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> usageArchiveReader.export(inviteCodeId, from, to, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * 获取校验接口限流状态
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<ApiResponse<RateLimitStatsDto>> getRateLimitStats() {
+        return ResponseEntity.ok(ApiResponse.success(tokenBucketRateLimiter.getStats()));
+    }
+
+    /**
+     * 获取校验失败缓存的命中统计
+     */
+    @GetMapping("/rejected-cache")
+    public ResponseEntity<ApiResponse<RejectedCodeCacheStatsDto>> getRejectedCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(rejectedCodeCache.getStats()));
+    }
+}
@@ -5,9 +5,13 @@ import com.company.invitecode.dto.request.LoginRequest;
 import com.company.invitecode.dto.response.ApiResponse;
 import com.company.invitecode.dto.response.TokenResponse;
 import com.company.invitecode.model.User;
+import com.company.invitecode.ratelimit.LoginAttemptLimiter;
 import com.company.invitecode.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,7 +23,17 @@ import javax.validation.Valid;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * 登录接口
+ * 查询用户和BCrypt校验在独立的登录线程池中执行，请求线程在异步处理期间释放；
+ * 线程池队列满时直接返回503，同一用户名连续失败被锁定时直接返回429，两种情况都不计算BCrypt。
+ */
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
@@ -29,42 +43,76 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final ExecutorService loginExecutor;
+    /** 用户名不存在时用于比对的哈希，使其与密码错误的耗时一致，避免通过响应时间探测用户名 */
+    private final String dummyPasswordHash;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtTokenProvider jwtTokenProvider) {
+    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                          JwtTokenProvider jwtTokenProvider, LoginAttemptLimiter loginAttemptLimiter,
+                          @Qualifier("loginExecutor") ExecutorService loginExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.loginAttemptLimiter = loginAttemptLimiter;
+        this.loginExecutor = loginExecutor;
+        this.dummyPasswordHash = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<TokenResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
-        log.info("收到登录请求: {}", loginRequest.getUsername());
-        
+    public CompletableFuture<ResponseEntity<ApiResponse<TokenResponse>>> login(
+            @Valid @RequestBody LoginRequest loginRequest) {
+        String username = loginRequest.getUsername();
+        log.info("收到登录请求: {}", username);
+
+        long lockedNanos = loginAttemptLimiter.lockedNanos(username);
+        if (lockedNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(lockedNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.warn("用户名 {} 登录失败次数过多，已锁定", username);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                    .body(ApiResponse.error("登录失败次数过多，请" + retryAfterSeconds + "秒后再试")));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(loginRequest), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("登录线程池队列已满，拒绝登录请求: {}", username);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error("登录请求过多，请稍后再试")));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<TokenResponse>> authenticate(LoginRequest loginRequest) {
         try {
             Optional<User> userOpt = userRepository.findByUsername(loginRequest.getUsername());
-            
-            if (userOpt.isEmpty() || !passwordEncoder.matches(loginRequest.getPassword(), userOpt.get().getPassword())) {
+            String passwordHash = userOpt.map(User::getPassword).orElse(dummyPasswordHash);
+
+            if (!passwordEncoder.matches(loginRequest.getPassword(), passwordHash) || userOpt.isEmpty()) {
                 log.warn("登录失败: 用户名或密码错误");
+                loginAttemptLimiter.recordFailure(loginRequest.getUsername());
                 return ResponseEntity.ok(ApiResponse.error("用户名或密码错误"));
             }
-            
+
             User user = userOpt.get();
-            
+            loginAttemptLimiter.recordSuccess(user.getUsername());
+
             List<String> roles = new ArrayList<>();
             if (user.isAdmin()) {
                 roles.add("ROLE_ADMIN");
             }
             roles.add("ROLE_USER");
-            
+
             String token = jwtTokenProvider.createToken(user.getUsername(), roles);
-            
+
             TokenResponse tokenResponse = new TokenResponse(token, user.getUsername(), roles);
             log.info("用户 {} 登录成功", user.getUsername());
-            
+
             return ResponseEntity.ok(ApiResponse.success("登录成功", tokenResponse));
         } catch (Exception e) {
             log.error("登录过程中发生错误", e);
             return ResponseEntity.ok(ApiResponse.error("登录失败: " + e.getMessage()));
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package com.company.invitecode.controller;
+
+import com.company.invitecode.dto.GenerationJobDto;
+import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.service.GenerationJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+
+@RestController
+@RequestMapping("/invite-codes/generation-jobs")
+public class GenerationJobController {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationJobController.class);
+
+    private final GenerationJobService generationJobService;
+
+    public GenerationJobController(GenerationJobService generationJobService) {
+        this.generationJobService = generationJobService;
+    }
+
+    /**
+     * 提交邀请码生成任务
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<GenerationJobDto>> submitJob(@Valid @RequestBody GenerateInviteCodeRequest request) {
+        log.info("收到邀请码生成任务请求: {}", request);
+        try {
+            GenerationJobDto job = generationJobService.submitJob(request, "admin");
+            return ResponseEntity.ok(ApiResponse.success("生成任务已提交", job));
+        } catch (Exception e) {
+            log.error("提交生成任务异常", e);
+            return ResponseEntity.ok(ApiResponse.error("提交生成任务失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 获取生成任务进度
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<GenerationJobDto>> getJob(@PathVariable Long id) {
+        return generationJobService.getJob(id)
+                .map(job -> ResponseEntity.ok(ApiResponse.success(job)))
+                .orElse(ResponseEntity.ok(ApiResponse.error("生成任务不存在")));
+    }
+}
@@ -1,24 +1,48 @@
 package com.company.invitecode.controller;
 
+import com.company.invitecode.dto.BatchQuotaDto;
+import com.company.invitecode.dto.CursorPage;
 import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.dto.UsageBucketDto;
 import com.company.invitecode.dto.UsageRecordDto;
+import com.company.invitecode.dto.request.BatchQuotaRequest;
 import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
 import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
 import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.service.ExportFormat;
+import com.company.invitecode.service.InviteCodeExportService;
 import com.company.invitecode.service.InviteCodeService;
+import com.company.invitecode.service.InviteCodeStatusService;
+import com.company.invitecode.service.UsageStatsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/invite-codes")
@@ -26,10 +50,26 @@ public class InviteCodeController {
 
     private static final Logger log = LoggerFactory.getLogger(InviteCodeController.class);
 
+    /** 游标分页每页最大行数 */
+    private static final int MAX_SCROLL_SIZE = 1000;
+
     private final InviteCodeService inviteCodeService;
+    private final InviteCodeExportService inviteCodeExportService;
+    private final InviteCodeStatusService inviteCodeStatusService;
+    private final UsageStatsService usageStatsService;
+
+    @Value("${invite-code.status-lookup.max-codes:100000}")
+    private int maxStatusLookupCodes;
 
-    public InviteCodeController(InviteCodeService inviteCodeService) {
+    @Value("${invite-code.export.timeout-ms:600000}")
+    private long exportTimeoutMillis;
+
+    public InviteCodeController(InviteCodeService inviteCodeService, InviteCodeExportService inviteCodeExportService,
+                                InviteCodeStatusService inviteCodeStatusService, UsageStatsService usageStatsService) {
         this.inviteCodeService = inviteCodeService;
+        this.inviteCodeExportService = inviteCodeExportService;
+        this.inviteCodeStatusService = inviteCodeStatusService;
+        this.usageStatsService = usageStatsService;
     }
 
     /**
@@ -75,6 +115,32 @@ public class InviteCodeController {
         }
     }
 
+    /**
+     * 异步验证邀请码，结果与 /verify 相同
+     * 内存中能确定结果时直接返回，需要查询数据库时在校验线程池中执行，请求线程在等待期间释放
+     */
+    @PostMapping("/verify-async")
+    public CompletableFuture<ResponseEntity<ApiResponse<Boolean>>> verifyInviteCodeAsync(
+            @Valid @RequestBody VerifyInviteCodeRequest request,
+            HttpServletRequest httpRequest) {
+        
+        String ipAddress = httpRequest.getRemoteAddr();
+        String userAgent = httpRequest.getHeader("User-Agent");
+        
+        log.info("异步验证邀请码请求: {}, IP: {}", request, ipAddress);
+        try {
+            return inviteCodeService.verifyInviteCodeAsync(request, ipAddress, userAgent)
+                    .thenApply(isValid -> isValid
+                            ? ResponseEntity.ok(ApiResponse.success("邀请码验证成功", true))
+                            : ResponseEntity.ok(ApiResponse.error("无效的邀请码")));
+        } catch (RejectedExecutionException e) {
+            log.warn("校验线程池队列已满，拒绝验证请求: {}", request.getCode());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error("验证请求过多，请稍后再试")));
+        }
+    }
+
     /**
      * 获取所有邀请码
      */
@@ -92,6 +158,47 @@ public class InviteCodeController {
         return ResponseEntity.ok(ApiResponse.success(inviteCodes));
     }
 
+    /**
+     * 游标分页获取邀请码（按创建时间倒序，适合深度翻页）
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<InviteCodeDto>>> scrollInviteCodes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            return ResponseEntity.ok(ApiResponse.error("每页大小必须在1到" + MAX_SCROLL_SIZE + "之间"));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(inviteCodeService.scrollInviteCodes(cursor, size, withTotal)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 按批次、启用状态、创建人、创建时间区间、描述和邀请码前缀搜索邀请码（游标分页）
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<CursorPage<InviteCodeDto>>> searchInviteCodes(
+            InviteCodeSearchRequest criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            return ResponseEntity.ok(ApiResponse.error("每页大小必须在1到" + MAX_SCROLL_SIZE + "之间"));
+        }
+        log.debug("搜索邀请码: {}", criteria);
+        try {
+            return ResponseEntity.ok(ApiResponse.success(
+                    inviteCodeService.searchInviteCodes(criteria, cursor, size, withTotal)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     /**
      * 获取邀请码详情
      */
@@ -126,6 +233,47 @@ public class InviteCodeController {
         return ResponseEntity.ok(ApiResponse.success(usageRecords));
     }
 
+    /**
+     * 游标分页获取邀请码使用记录（按使用时间倒序，适合深度翻页）
+     */
+    @GetMapping("/{id}/usage-records/scroll")
+    public ResponseEntity<ApiResponse<CursorPage<UsageRecordDto>>> scrollInviteCodeUsageRecords(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            return ResponseEntity.ok(ApiResponse.error("每页大小必须在1到" + MAX_SCROLL_SIZE + "之间"));
+        }
+        try {
+            return inviteCodeService.scrollUsageRecords(id, cursor, size, withTotal)
+                    .map(page -> ResponseEntity.ok(ApiResponse.success(page)))
+                    .orElse(ResponseEntity.ok(ApiResponse.error("邀请码不存在")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 按时间桶统计邀请码的使用次数（粒度为HOUR或DAY，to默认为当前时间）
+     */
+    @GetMapping("/{id}/usage-stats")
+    public ResponseEntity<ApiResponse<List<UsageBucketDto>>> getInviteCodeUsageStats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        try {
+            return usageStatsService.getCodeUsage(id, granularity, from, to == null ? LocalDateTime.now() : to)
+                    .map(buckets -> ResponseEntity.ok(ApiResponse.success(buckets)))
+                    .orElse(ResponseEntity.ok(ApiResponse.error("邀请码不存在")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     /**
      * 禁用邀请码
      */
@@ -145,4 +293,170 @@ public class InviteCodeController {
                 .map(inviteCodeDto -> ResponseEntity.ok(ApiResponse.success("邀请码已启用", inviteCodeDto)))
                 .orElse(ResponseEntity.ok(ApiResponse.error("邀请码不存在")));
     }
-} 
\ No newline at end of file
+
+    /**
+     * 禁用批次内的全部邀请码
+     */
+    @PutMapping("/batches/{batchId}/disable")
+    public ResponseEntity<ApiResponse<Integer>> disableBatch(@PathVariable String batchId) {
+        return setBatchActive(batchId, false);
+    }
+
+    /**
+     * 启用批次内的全部邀请码
+     */
+    @PutMapping("/batches/{batchId}/enable")
+    public ResponseEntity<ApiResponse<Integer>> enableBatch(@PathVariable String batchId) {
+        return setBatchActive(batchId, true);
+    }
+
+    /**
+     * 使批次内的全部邀请码立即过期
+     */
+    @PutMapping("/batches/{batchId}/expire")
+    public ResponseEntity<ApiResponse<Integer>> expireBatch(@PathVariable String batchId) {
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        criteria.setBatchId(batchId);
+        return expireInBulk(criteria);
+    }
+
+    /**
+     * 获取批次的兑换配额状态
+     */
+    @GetMapping("/batches/{batchId}/quota")
+    public ResponseEntity<ApiResponse<BatchQuotaDto>> getBatchQuota(@PathVariable String batchId) {
+        return inviteCodeService.getBatchQuota(batchId)
+                .map(quota -> ResponseEntity.ok(ApiResponse.success(quota)))
+                .orElse(ResponseEntity.ok(ApiResponse.error("批次不存在")));
+    }
+
+    /**
+     * 设置批次的兑换配额（quota为空表示取消配额）
+     */
+    @PutMapping("/batches/{batchId}/quota")
+    public ResponseEntity<ApiResponse<BatchQuotaDto>> setBatchQuota(@PathVariable String batchId,
+                                                                   @Valid @RequestBody BatchQuotaRequest request) {
+        log.info("设置批次{}兑换配额: {}", batchId, request.getQuota());
+        BatchQuotaDto quota = inviteCodeService.setBatchQuota(batchId, request.getQuota());
+        return ResponseEntity.ok(ApiResponse.success("兑换配额已更新", quota));
+    }
+
+    /**
+     * 按时间桶统计批次的使用次数（粒度为MINUTE、HOUR或DAY，to默认为当前时间）
+     */
+    @GetMapping("/batches/{batchId}/usage-stats")
+    public ResponseEntity<ApiResponse<List<UsageBucketDto>>> getBatchUsageStats(
+            @PathVariable String batchId,
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        try {
+            return ResponseEntity.ok(ApiResponse.success(usageStatsService.getBatchUsage(
+                    batchId, granularity, from, to == null ? LocalDateTime.now() : to)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 禁用符合筛选条件的邀请码（条件同搜索接口）
+     */
+    @PutMapping("/bulk/disable")
+    public ResponseEntity<ApiResponse<Integer>> disableInBulk(@RequestBody InviteCodeSearchRequest criteria) {
+        return setActiveInBulk(criteria, false);
+    }
+
+    /**
+     * 启用符合筛选条件的邀请码（条件同搜索接口）
+     */
+    @PutMapping("/bulk/enable")
+    public ResponseEntity<ApiResponse<Integer>> enableInBulk(@RequestBody InviteCodeSearchRequest criteria) {
+        return setActiveInBulk(criteria, true);
+    }
+
+    /**
+     * 使符合筛选条件的邀请码立即过期（条件同搜索接口）
+     */
+    @PutMapping("/bulk/expire")
+    public ResponseEntity<ApiResponse<Integer>> expireInBulk(@RequestBody InviteCodeSearchRequest criteria) {
+        log.info("收到批量过期邀请码请求: {}", criteria);
+        try {
+            int affected = inviteCodeService.expireInBulk(criteria);
+            return ResponseEntity.ok(ApiResponse.success("已过期" + affected + "个邀请码", affected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * 批量查询邀请码状态与使用次数，按输入顺序以NDJSON逐行流式返回
+     */
+    @PostMapping("/bulk/status")
+    public ResponseEntity<StreamingResponseBody> lookupStatuses(@RequestBody List<String> codes) {
+        if (codes.size() > maxStatusLookupCodes) {
+            log.warn("批量查询邀请码数量超过上限: {}", codes.size());
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> inviteCodeStatusService.lookupStatuses(codes, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportFormat.NDJSON.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * 导出批次内的邀请码（CSV或NDJSON，可选gzip压缩）
+     * 大批次导出耗时较长，单独使用 invite-code.export.timeout-ms 作为异步超时，其他异步接口保持全局的短超时。
+     */
+    @GetMapping("/batches/{batchId}/export")
+    public WebAsyncTask<Void> exportBatch(
+            @PathVariable String batchId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
+        
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        String filename = "invite-codes-" + batchId + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        
+        WebAsyncTask<Void> task = new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            OutputStream outputStream = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, 64 * 1024);
+                inviteCodeExportService.exportBatch(batchId, exportFormat, gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                inviteCodeExportService.exportBatch(batchId, exportFormat, outputStream);
+            }
+            outputStream.flush();
+            return null;
+        });
+        task.onTimeout(() -> {
+            log.warn("导出批次{}超时（{}ms），连接已关闭", batchId, exportTimeoutMillis);
+            return null;
+        });
+        return task;
+    }
+
+    private ResponseEntity<ApiResponse<Integer>> setBatchActive(String batchId, boolean active) {
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        criteria.setBatchId(batchId);
+        return setActiveInBulk(criteria, active);
+    }
+
+    private ResponseEntity<ApiResponse<Integer>> setActiveInBulk(InviteCodeSearchRequest criteria, boolean active) {
+        log.info("收到批量{}邀请码请求: {}", active ? "启用" : "禁用", criteria);
+        try {
+            int affected = inviteCodeService.setActiveInBulk(criteria, active);
+            return ResponseEntity.ok(ApiResponse.success("已" + (active ? "启用" : "禁用") + affected + "个邀请码", affected));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.company.invitecode.controller;
+
+import com.company.invitecode.dto.TopCodeDto;
+import com.company.invitecode.dto.UsageBucketDto;
+import com.company.invitecode.dto.UsageOverviewDto;
+import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.service.UsageStatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 使用统计接口：使用趋势、独立用户、批次排行、热门邀请码与转化率
+ * 按天统计的接口 from、to 均为包含的日期，默认最近7天。
+ */
+@RestController
+@RequestMapping("/admin/stats")
+public class UsageStatsController {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageStatsController.class);
+
+    /** 未指定起始日期时的统计天数 */
+    private static final int DEFAULT_DAYS = 7;
+
+    /** 排行榜最大条数 */
+    private static final int MAX_LIMIT = 100;
+
+    private final UsageStatsService usageStatsService;
+
+    public UsageStatsController(UsageStatsService usageStatsService) {
+        this.usageStatsService = usageStatsService;
+    }
+
+    /**
+     * 使用概况（batchId为空表示全部批次）
+     */
+    @GetMapping("/overview")
+    public ResponseEntity<ApiResponse<UsageOverviewDto>> getOverview(
+            @RequestParam(required = false) String batchId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        return query(() -> usageStatsService.getOverview(batchId, start, end));
+    }
+
+    /**
+     * 全部批次的使用趋势（to默认为当前时间）
+     */
+    @GetMapping("/redemptions")
+    public ResponseEntity<ApiResponse<List<UsageBucketDto>>> getRedemptions(
+            @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        LocalDateTime end = to == null ? LocalDateTime.now() : to;
+        return query(() -> usageStatsService.getTotalUsage(granularity, from, end));
+    }
+
+    /**
+     * 使用次数最多的批次及其转化率
+     */
+    @GetMapping("/batches")
+    public ResponseEntity<ApiResponse<List<UsageOverviewDto>>> getBatchRanking(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.ok(ApiResponse.error("条数必须在1到" + MAX_LIMIT + "之间"));
+        }
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        return query(() -> usageStatsService.getBatchRanking(start, end, limit));
+    }
+
+    /**
+     * 使用次数最多的邀请码（batchId为空表示不限批次）
+     */
+    @GetMapping("/top-codes")
+    public ResponseEntity<ApiResponse<List<TopCodeDto>>> getTopCodes(
+            @RequestParam(required = false) String batchId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.ok(ApiResponse.error("条数必须在1到" + MAX_LIMIT + "之间"));
+        }
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        return query(() -> usageStatsService.getTopCodes(batchId, start, end, limit));
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> query(Supplier<T> supplier) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(supplier.get()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.ok(ApiResponse.error(e.getMessage()));
+        } catch (QueryTimeoutException e) {
+            log.warn("统计查询超时", e);
+            return ResponseEntity.ok(ApiResponse.error("统计查询超时，请缩小日期范围或指定批次"));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.invitecode.dto;
+
+public class BatchQuotaDto {
+    private String batchId;
+    private Integer redemptionQuota;
+    private int leasedRedemptions;
+    private long localAvailable;
+    private boolean exhausted;
+
+    public BatchQuotaDto() {
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public Integer getRedemptionQuota() {
+        return redemptionQuota;
+    }
+
+    public void setRedemptionQuota(Integer redemptionQuota) {
+        this.redemptionQuota = redemptionQuota;
+    }
+
+    public int getLeasedRedemptions() {
+        return leasedRedemptions;
+    }
+
+    public void setLeasedRedemptions(int leasedRedemptions) {
+        this.leasedRedemptions = leasedRedemptions;
+    }
+
+    public long getLocalAvailable() {
+        return localAvailable;
+    }
+
+    public void setLocalAvailable(long localAvailable) {
+        this.localAvailable = localAvailable;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public void setExhausted(boolean exhausted) {
+        this.exhausted = exhausted;
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.invitecode.dto;
+
+import java.time.LocalDateTime;
+
+public class BloomFilterStatsDto {
+    private boolean enabled;
+    private boolean ready;
+    private long bitCount;
+    private long memoryBytes;
+    private int hashCount;
+    private long expectedInsertions;
+    private long insertions;
+    private double estimatedFalsePositiveRate;
+    private long lookups;
+    private long definiteMisses;
+    private LocalDateTime builtAt;
+
+    public BloomFilterStatsDto() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public void setBitCount(long bitCount) {
+        this.bitCount = bitCount;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public void setMemoryBytes(long memoryBytes) {
+        this.memoryBytes = memoryBytes;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public void setHashCount(int hashCount) {
+        this.hashCount = hashCount;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public void setInsertions(long insertions) {
+        this.insertions = insertions;
+    }
+
+    public double getEstimatedFalsePositiveRate() {
+        return estimatedFalsePositiveRate;
+    }
+
+    public void setEstimatedFalsePositiveRate(double estimatedFalsePositiveRate) {
+        this.estimatedFalsePositiveRate = estimatedFalsePositiveRate;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public void setLookups(long lookups) {
+        this.lookups = lookups;
+    }
+
+    public long getDefiniteMisses() {
+        return definiteMisses;
+    }
+
+    public void setDefiniteMisses(long definiteMisses) {
+        this.definiteMisses = definiteMisses;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public void setBuiltAt(LocalDateTime builtAt) {
+        this.builtAt = builtAt;
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.invitecode.dto;
+
+import java.time.LocalDateTime;
+
+public class CodeIndexStatsDto {
+    private boolean enabled;
+    private boolean ready;
+    private int size;
+    private int capacity;
+    private long memoryBytes;
+    private long unpackableCodes;
+    private long lookups;
+    private long loadMillis;
+    private LocalDateTime loadedAt;
+
+    public CodeIndexStatsDto() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public void setMemoryBytes(long memoryBytes) {
+        this.memoryBytes = memoryBytes;
+    }
+
+    public long getUnpackableCodes() {
+        return unpackableCodes;
+    }
+
+    public void setUnpackableCodes(long unpackableCodes) {
+        this.unpackableCodes = unpackableCodes;
+    }
+
+    public long getLookups() {
+        return lookups;
+    }
+
+    public void setLookups(long lookups) {
+        this.lookups = lookups;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public void setLoadMillis(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    public void setLoadedAt(LocalDateTime loadedAt) {
+        this.loadedAt = loadedAt;
+    }
+}
@@ -0,0 +1,67 @@
+package com.company.invitecode.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ * totalElements 仅在请求时计算，否则为null。
+ */
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+    private Long totalElements;
+
+    public CursorPage() {
+    }
+
+    /**
+     * 由多查询一行的结果构建分页
+     *
+     * @param rows 查询结果，最多 size + 1 行
+     * @param size 每页大小
+     * @param cursorOf 由本页最后一行生成下一页游标
+     * @param totalElements 总数，不需要时为null
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf, Long totalElements) {
+        CursorPage<T> page = new CursorPage<>();
+        page.hasMore = rows.size() > size;
+        page.content = page.hasMore ? rows.subList(0, size) : rows;
+        page.nextCursor = page.hasMore ? cursorOf.apply(page.content.get(size - 1)) : null;
+        page.totalElements = totalElements;
+        return page;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+}
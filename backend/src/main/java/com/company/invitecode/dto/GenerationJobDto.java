@@ -0,0 +1,119 @@
+package com.company.invitecode.dto;
+
+import com.company.invitecode.model.GenerationJobStatus;
+
+import java.time.LocalDateTime;
+
+public class GenerationJobDto {
+    private Long id;
+    private String batchId;
+    private String description;
+    private GenerationJobStatus status;
+    private int requestedCount;
+    private int generatedCount;
+    private double progress;
+    private double codesPerSecond;
+    private String errorMessage;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public GenerationJobDto() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public GenerationJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(GenerationJobStatus status) {
+        this.status = status;
+    }
+
+    public int getRequestedCount() {
+        return requestedCount;
+    }
+
+    public void setRequestedCount(int requestedCount) {
+        this.requestedCount = requestedCount;
+    }
+
+    public int getGeneratedCount() {
+        return generatedCount;
+    }
+
+    public void setGeneratedCount(int generatedCount) {
+        this.generatedCount = generatedCount;
+    }
+
+    public double getProgress() {
+        return progress;
+    }
+
+    public void setProgress(double progress) {
+        this.progress = progress;
+    }
+
+    public double getCodesPerSecond() {
+        return codesPerSecond;
+    }
+
+    public void setCodesPerSecond(double codesPerSecond) {
+        this.codesPerSecond = codesPerSecond;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
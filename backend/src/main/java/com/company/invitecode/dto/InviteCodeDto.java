@@ -10,11 +10,35 @@ public class InviteCodeDto {
     private String createdBy;
     private boolean active;
     private int usageCount;
+    private LocalDateTime lastUsedAt;
+    private Integer maxUses;
+    private Integer remainingUses;
+    private LocalDateTime expiresAt;
     private String description;
     
     public InviteCodeDto() {
     }
     
+    /**
+     * 供JPQL构造器表达式直接投影使用
+     */
+    public InviteCodeDto(Long id, String code, String batchId, String description, LocalDateTime createdAt,
+                         String createdBy, boolean active, int usageCount, LocalDateTime lastUsedAt,
+                         Integer maxUses, Integer remainingUses, LocalDateTime expiresAt) {
+        this.id = id;
+        this.code = code;
+        this.batchId = batchId;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.createdBy = createdBy;
+        this.active = active;
+        this.usageCount = usageCount;
+        this.lastUsedAt = lastUsedAt;
+        this.maxUses = maxUses;
+        this.remainingUses = remainingUses;
+        this.expiresAt = expiresAt;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -78,4 +102,36 @@ public class InviteCodeDto {
     public void setDescription(String description) {
         this.description = description;
     }
-} 
\ No newline at end of file
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public Integer getMaxUses() {
+        return maxUses;
+    }
+
+    public void setMaxUses(Integer maxUses) {
+        this.maxUses = maxUses;
+    }
+
+    public Integer getRemainingUses() {
+        return remainingUses;
+    }
+
+    public void setRemainingUses(Integer remainingUses) {
+        this.remainingUses = remainingUses;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
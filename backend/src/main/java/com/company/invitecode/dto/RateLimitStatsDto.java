@@ -0,0 +1,88 @@
+package com.company.invitecode.dto;
+
+public class RateLimitStatsDto {
+    private boolean enabled;
+    private double permitsPerSecond;
+    private int burst;
+    private int maxClients;
+    private int trackedClients;
+    private long allowed;
+    private long rejected;
+    private long displaced;
+    private long evicted;
+
+    public RateLimitStatsDto() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public int getTrackedClients() {
+        return trackedClients;
+    }
+
+    public void setTrackedClients(int trackedClients) {
+        this.trackedClients = trackedClients;
+    }
+
+    public long getAllowed() {
+        return allowed;
+    }
+
+    public void setAllowed(long allowed) {
+        this.allowed = allowed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getDisplaced() {
+        return displaced;
+    }
+
+    public void setDisplaced(long displaced) {
+        this.displaced = displaced;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public void setEvicted(long evicted) {
+        this.evicted = evicted;
+    }
+}
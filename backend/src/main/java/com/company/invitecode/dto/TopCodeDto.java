@@ -0,0 +1,50 @@
+package com.company.invitecode.dto;
+
+public class TopCodeDto {
+    private Long id;
+    private String code;
+    private String batchId;
+    private long redemptions;
+
+    public TopCodeDto() {
+    }
+
+    public TopCodeDto(Long id, String code, String batchId, long redemptions) {
+        this.id = id;
+        this.code = code;
+        this.batchId = batchId;
+        this.redemptions = redemptions;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public long getRedemptions() {
+        return redemptions;
+    }
+
+    public void setRedemptions(long redemptions) {
+        this.redemptions = redemptions;
+    }
+}
@@ -0,0 +1,65 @@
+package com.company.invitecode.dto;
+
+import com.company.invitecode.model.UsageArchiveStatus;
+
+import java.time.LocalDateTime;
+
+public class UsageArchiveSegmentDto {
+    private String month;
+    private String fileName;
+    private long archivedRecords;
+    private long fileBytes;
+    private UsageArchiveStatus status;
+    private LocalDateTime updatedAt;
+
+    public UsageArchiveSegmentDto() {
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getArchivedRecords() {
+        return archivedRecords;
+    }
+
+    public void setArchivedRecords(long archivedRecords) {
+        this.archivedRecords = archivedRecords;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    public void setFileBytes(long fileBytes) {
+        this.fileBytes = fileBytes;
+    }
+
+    public UsageArchiveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UsageArchiveStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
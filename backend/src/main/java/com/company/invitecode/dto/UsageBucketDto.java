@@ -0,0 +1,32 @@
+package com.company.invitecode.dto;
+
+import java.time.LocalDateTime;
+
+public class UsageBucketDto {
+    private LocalDateTime bucketStart;
+    private long count;
+
+    public UsageBucketDto() {
+    }
+
+    public UsageBucketDto(LocalDateTime bucketStart, long count) {
+        this.bucketStart = bucketStart;
+        this.count = count;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,81 @@
+package com.company.invitecode.dto;
+
+import java.time.LocalDate;
+
+public class UsageOverviewDto {
+    private String batchId;
+    private LocalDate from;
+    private LocalDate to;
+    private long redemptions;
+    private Long uniqueUsers;
+    private long issuedCodes;
+    private long usedCodes;
+    private double conversionRate;
+
+    public UsageOverviewDto() {
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public long getRedemptions() {
+        return redemptions;
+    }
+
+    public void setRedemptions(long redemptions) {
+        this.redemptions = redemptions;
+    }
+
+    public Long getUniqueUsers() {
+        return uniqueUsers;
+    }
+
+    public void setUniqueUsers(Long uniqueUsers) {
+        this.uniqueUsers = uniqueUsers;
+    }
+
+    public long getIssuedCodes() {
+        return issuedCodes;
+    }
+
+    public void setIssuedCodes(long issuedCodes) {
+        this.issuedCodes = issuedCodes;
+    }
+
+    public long getUsedCodes() {
+        return usedCodes;
+    }
+
+    public void setUsedCodes(long usedCodes) {
+        this.usedCodes = usedCodes;
+    }
+
+    public double getConversionRate() {
+        return conversionRate;
+    }
+
+    public void setConversionRate(double conversionRate) {
+        this.conversionRate = conversionRate;
+    }
+}
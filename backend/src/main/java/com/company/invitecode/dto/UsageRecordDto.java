@@ -1,5 +1,7 @@
 package com.company.invitecode.dto;
 
+import com.company.invitecode.util.IpAddressCodec;
+
 import java.time.LocalDateTime;
 
 public class UsageRecordDto {
@@ -13,6 +15,19 @@ public class UsageRecordDto {
     public UsageRecordDto() {
     }
     
+    /**
+     * 供JPQL构造器表达式直接投影使用，邀请码由调用方填充
+     *
+     * @param ipAddress 二进制形式的IP地址
+     */
+    public UsageRecordDto(Long id, String userId, byte[] ipAddress, String userAgent, LocalDateTime usedAt) {
+        this.id = id;
+        this.userId = userId;
+        this.ipAddress = IpAddressCodec.decode(ipAddress);
+        this.userAgent = userAgent;
+        this.usedAt = usedAt;
+    }
+    
     public Long getId() {
         return id;
     }
@@ -0,0 +1,142 @@
+package com.company.invitecode.dto;
+
+public class UsageWriterStatsDto {
+    private boolean enabled;
+    private boolean running;
+    private long backlog;
+    private long maxBacklog;
+    private int batchSize;
+    private long journaled;
+    private long synchronousWrites;
+    private long written;
+    private long flushes;
+    private long failedFlushes;
+    private long lastFlushMillis;
+    private long maxFlushMillis;
+    private double averageFlushMillis;
+    private long lostRecords;
+    private int journalSegments;
+
+    public UsageWriterStatsDto() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public long getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(long backlog) {
+        this.backlog = backlog;
+    }
+
+    public long getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    public void setMaxBacklog(long maxBacklog) {
+        this.maxBacklog = maxBacklog;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getJournaled() {
+        return journaled;
+    }
+
+    public void setJournaled(long journaled) {
+        this.journaled = journaled;
+    }
+
+    public long getSynchronousWrites() {
+        return synchronousWrites;
+    }
+
+    public void setSynchronousWrites(long synchronousWrites) {
+        this.synchronousWrites = synchronousWrites;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public void setWritten(long written) {
+        this.written = written;
+    }
+
+    public long getFlushes() {
+        return flushes;
+    }
+
+    public void setFlushes(long flushes) {
+        this.flushes = flushes;
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    public void setFailedFlushes(long failedFlushes) {
+        this.failedFlushes = failedFlushes;
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public void setLastFlushMillis(long lastFlushMillis) {
+        this.lastFlushMillis = lastFlushMillis;
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    public void setMaxFlushMillis(long maxFlushMillis) {
+        this.maxFlushMillis = maxFlushMillis;
+    }
+
+    public double getAverageFlushMillis() {
+        return averageFlushMillis;
+    }
+
+    public void setAverageFlushMillis(double averageFlushMillis) {
+        this.averageFlushMillis = averageFlushMillis;
+    }
+
+    public long getLostRecords() {
+        return lostRecords;
+    }
+
+    public void setLostRecords(long lostRecords) {
+        this.lostRecords = lostRecords;
+    }
+
+    public int getJournalSegments() {
+        return journalSegments;
+    }
+
+    public void setJournalSegments(int journalSegments) {
+        this.journalSegments = journalSegments;
+    }
+}
@@ -0,0 +1,21 @@
+package com.company.invitecode.dto.request;
+
+import javax.validation.constraints.Min;
+
+public class BatchQuotaRequest {
+
+    /** 批次兑换总配额，不填表示取消配额 */
+    @Min(value = 0, message = "兑换配额不能为负数")
+    private Integer quota;
+
+    public BatchQuotaRequest() {
+    }
+
+    public Integer getQuota() {
+        return quota;
+    }
+
+    public void setQuota(Integer quota) {
+        this.quota = quota;
+    }
+}
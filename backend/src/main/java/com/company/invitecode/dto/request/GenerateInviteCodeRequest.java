@@ -1,7 +1,9 @@
 package com.company.invitecode.dto.request;
 
+import javax.validation.constraints.Future;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
 
 public class GenerateInviteCodeRequest {
     
@@ -11,6 +13,14 @@ public class GenerateInviteCodeRequest {
     
     private String description;
     
+    /** 每个邀请码的最大使用次数，不填表示不限 */
+    @Min(value = 1, message = "最大使用次数必须大于0")
+    private Integer maxUses;
+    
+    /** 过期时间，不填表示永不过期 */
+    @Future(message = "过期时间必须晚于当前时间")
+    private LocalDateTime expiresAt;
+    
     public GenerateInviteCodeRequest() {
     }
     
@@ -30,11 +40,29 @@ public class GenerateInviteCodeRequest {
         this.description = description;
     }
     
+    public Integer getMaxUses() {
+        return maxUses;
+    }
+    
+    public void setMaxUses(Integer maxUses) {
+        this.maxUses = maxUses;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
     @Override
     public String toString() {
         return "GenerateInviteCodeRequest{" +
                 "count=" + count +
                 ", description='" + description + '\'' +
+                ", maxUses=" + maxUses +
+                ", expiresAt=" + expiresAt +
                 '}';
     }
 } 
\ No newline at end of file
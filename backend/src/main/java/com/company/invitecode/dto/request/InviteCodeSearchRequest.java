@@ -0,0 +1,101 @@
+package com.company.invitecode.dto.request;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邀请码搜索条件，所有条件均可选，同时指定时取交集
+ */
+public class InviteCodeSearchRequest {
+    
+    private String batchId;
+    
+    private Boolean active;
+    
+    private String createdBy;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    
+    /** 描述包含的文本 */
+    private String description;
+    
+    /** 邀请码前缀 */
+    private String codePrefix;
+    
+    public InviteCodeSearchRequest() {
+    }
+    
+    public String getBatchId() {
+        return batchId;
+    }
+    
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+    
+    public Boolean getActive() {
+        return active;
+    }
+    
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+    
+    public String getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+    
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+    
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+    
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+    
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public String getCodePrefix() {
+        return codePrefix;
+    }
+    
+    public void setCodePrefix(String codePrefix) {
+        this.codePrefix = codePrefix;
+    }
+    
+    @Override
+    public String toString() {
+        return "InviteCodeSearchRequest{" +
+                "batchId='" + batchId + '\'' +
+                ", active=" + active +
+                ", createdBy='" + createdBy + '\'' +
+                ", createdFrom=" + createdFrom +
+                ", createdTo=" + createdTo +
+                ", description='" + description + '\'' +
+                ", codePrefix='" + codePrefix + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.company.invitecode.generator;
+
+/**
+ * 邀请码生成器
+ * 通过 invite-code.generator.type 选择实现，实现需保证线程安全。
+ */
+public interface CodeGenerator {
+
+    /**
+     * 生成下一个邀请码
+     *
+     * @return 邀请码
+     */
+    String nextCode();
+}
@@ -0,0 +1,61 @@
+package com.company.invitecode.generator;
+
+import com.company.invitecode.model.CodeSequence;
+import com.company.invitecode.repository.CodeSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 计数器号段分配器
+ * 每次从 code_sequences 表原子地领取一段连续的计数值，在独立事务中提交，
+ * 因此多个实例、多次重启之间领取的号段互不重叠，也不会长时间持有行锁。
+ */
+@Component
+public class CounterBlockAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(CounterBlockAllocator.class);
+
+    private final CodeSequenceRepository codeSequenceRepository;
+    private final TransactionTemplate requiresNewTransaction;
+
+    public CounterBlockAllocator(CodeSequenceRepository codeSequenceRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.codeSequenceRepository = codeSequenceRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 领取一段计数值
+     *
+     * @param name 序列名称
+     * @param size 号段长度
+     * @return 号段起始值，号段为 [起始值, 起始值 + size)
+     */
+    public long allocate(String name, int size) {
+        try {
+            return doAllocate(name, size);
+        } catch (DataIntegrityViolationException e) {
+            // 其他实例同时初始化了该序列，重试一次即可走更新分支
+            log.debug("序列{}初始化冲突，重试分配", name);
+            return doAllocate(name, size);
+        }
+    }
+
+    private long doAllocate(String name, int size) {
+        Long start = requiresNewTransaction.execute(status -> {
+            if (codeSequenceRepository.increment(name, size) == 0) {
+                codeSequenceRepository.saveAndFlush(new CodeSequence(name, size));
+                return 0L;
+            }
+            return codeSequenceRepository.findNextValue(name) - size;
+        });
+        log.debug("序列{}分配号段: [{}, {})", name, start, start + size);
+        return start;
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.invitecode.generator;
+
+/**
+ * Crockford Base32编码
+ * 字母表不含 I、L、O、U，避免人工抄写时混淆；十六进制字符是其子集，因此旧的十六进制邀请码也能用同一字母表表示。
+ */
+public final class CrockfordBase32 {
+
+    static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static final int[] DECODE = new int[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+    }
+
+    private CrockfordBase32() {
+    }
+
+    /**
+     * 将value的低 length*5 位编码为定长字符串
+     *
+     * @param value 待编码的值
+     * @param length 输出字符数
+     * @return 编码结果
+     */
+    public static String encode(long value, int length) {
+        char[] chars = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 返回字符对应的5位数值
+     *
+     * @param c 字符
+     * @return 数值，不属于字母表时返回-1
+     */
+    public static int decode(char c) {
+        return c < 128 ? DECODE[c] : -1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.company.invitecode.generator;
+
+/**
+ * 基于Feistel网络的带密钥伪随机置换
+ * 在 [0, 2^bits) 上构成双射：不同的输入一定得到不同的输出，且不知道密钥时无法由输出推断相邻的输入。
+ * 轮函数使用SplitMix64的混淆步骤，适用于防止枚举，不提供密码学强度保证。
+ */
+public final class FeistelPermutation {
+
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys;
+
+    /**
+     * @param bits 置换的位宽，必须为偶数且不超过62
+     * @param roundKeys 每轮的密钥，轮数即数组长度
+     */
+    public FeistelPermutation(int bits, long[] roundKeys) {
+        if (bits <= 0 || bits > 62 || bits % 2 != 0) {
+            throw new IllegalArgumentException("位宽必须为不超过62的正偶数: " + bits);
+        }
+        this.halfBits = bits / 2;
+        this.halfMask = (1L << halfBits) - 1;
+        this.roundKeys = roundKeys.clone();
+    }
+
+    public long permute(long value) {
+        long left = (value >>> halfBits) & halfMask;
+        long right = value & halfMask;
+        for (long key : roundKeys) {
+            long next = left ^ round(right, key);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    public long inverse(long value) {
+        long left = (value >>> halfBits) & halfMask;
+        long right = value & halfMask;
+        for (int i = roundKeys.length - 1; i >= 0; i--) {
+            long previous = right ^ round(left, roundKeys[i]);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(long half, long key) {
+        long z = half ^ key;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return z & halfMask;
+    }
+}
@@ -0,0 +1,92 @@
+package com.company.invitecode.generator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于计数器置换的邀请码生成器（默认实现）
+ * 从数据库领取的计数值经过带密钥的Feistel置换后编码为10位Crockford Base32字符串：
+ * 计数值不重复则邀请码不重复，无需任何唯一性查询；不知道密钥时无法由已知邀请码推算其他邀请码。
+ */
+@Component
+@ConditionalOnProperty(name = "invite-code.generator.type", havingValue = "permutation", matchIfMissing = true)
+public class PermutationCodeGenerator implements CodeGenerator {
+
+    static final int CODE_LENGTH = 10;
+    static final int CODE_BITS = CODE_LENGTH * 5;
+
+    private static final String SEQUENCE_NAME = "invite_code";
+    private static final int ROUNDS = 8;
+
+    private final CounterBlockAllocator counterBlockAllocator;
+    private final FeistelPermutation permutation;
+    private final int blockSize;
+
+    private volatile CounterBlock block = new CounterBlock(0, 0);
+
+    public PermutationCodeGenerator(CounterBlockAllocator counterBlockAllocator,
+                                    @Value("${invite-code.generator.secret}") String secret,
+                                    @Value("${invite-code.generator.block-size:10000}") int blockSize) {
+        this.counterBlockAllocator = counterBlockAllocator;
+        this.permutation = new FeistelPermutation(CODE_BITS, deriveRoundKeys(secret));
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String nextCode() {
+        return CrockfordBase32.encode(permutation.permute(nextCounter()), CODE_LENGTH);
+    }
+
+    private long nextCounter() {
+        while (true) {
+            CounterBlock current = block;
+            long value = current.cursor.getAndIncrement();
+            if (value < current.end) {
+                return value;
+            }
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(CounterBlock exhausted) {
+        if (block != exhausted) {
+            return;
+        }
+        long start = counterBlockAllocator.allocate(SEQUENCE_NAME, blockSize);
+        block = new CounterBlock(start, start + blockSize);
+    }
+
+    /**
+     * 由配置的密钥派生每轮的子密钥
+     */
+    private static long[] deriveRoundKeys(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-512").digest(secret.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer buffer = ByteBuffer.wrap(digest);
+            long[] keys = new long[ROUNDS];
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = buffer.getLong();
+            }
+            return keys;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-512", e);
+        }
+    }
+
+    private static final class CounterBlock {
+        private final AtomicLong cursor;
+        private final long end;
+
+        private CounterBlock(long start, long end) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.company.invitecode.generator;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+
+/**
+ * 随机十六进制邀请码生成器
+ * 保留旧版8-10位十六进制格式，唯一性依赖数据库唯一约束与冲突重试。
+ * 每个线程持有独立的随机源，避免共享随机源的竞争。
+ */
+@Component
+@ConditionalOnProperty(name = "invite-code.generator.type", havingValue = "random")
+public class RandomCodeGenerator implements CodeGenerator {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    @Override
+    public String nextCode() {
+        SecureRandom random = RANDOM.get();
+        int length = 8 + random.nextInt(3); // 8-10位
+        long bits = random.nextLong();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = HEX[(int) (bits & 15)];
+            bits >>>= 4;
+        }
+        return new String(chars);
+    }
+}
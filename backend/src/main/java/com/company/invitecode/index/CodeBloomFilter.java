@@ -0,0 +1,188 @@
+package com.company.invitecode.index;
+
+import com.company.invitecode.dto.BloomFilterStatsDto;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.company.invitecode.repository.InviteCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 全部邀请码的布隆过滤器
+ * 启动时流式读取 invite_codes 表构建，生成邀请码时在写库之前加入，因此判定“一定不存在”的邀请码无需查询数据库。
+ * 构建完成前 mightContain 恒为 true，查询回退到数据库。
+ * 邀请码统一转为大写后再计算哈希，与数据库不区分大小写的比较一致。
+ *
+ * <p>重建时先等待所有已写入旧过滤器、但事务尚未结束的生成操作完成，之后的写入同时进入新旧两个过滤器，
+ * 再从数据库流式装载新过滤器并切换，保证重建期间新生成的邀请码不会被漏掉。</p>
+ */
+@Component
+public class CodeBloomFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeBloomFilter.class);
+
+    private final InviteCodeRepository inviteCodeRepository;
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    /** 生成操作持有读锁直到事务结束，重建持有写锁切换写入目标 */
+    private final ReentrantReadWriteLock writerLock = new ReentrantReadWriteLock();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder definiteMisses = new LongAdder();
+    private final LongAdder insertions = new LongAdder();
+
+    @Value("${invite-code.bloom.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invite-code.bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${invite-code.bloom.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter rebuilding;
+    private volatile long currentExpectedInsertions;
+    private volatile LocalDateTime builtAt;
+
+    public CodeBloomFilter(InviteCodeRepository inviteCodeRepository, InviteCodeBulkRepository inviteCodeBulkRepository) {
+        this.inviteCodeRepository = inviteCodeRepository;
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 判断邀请码是否可能存在
+     *
+     * @param code 邀请码
+     * @return false 表示一定不存在
+     */
+    public boolean mightContain(String code) {
+        BloomFilter filter = current;
+        if (filter == null) {
+            return true;
+        }
+        lookups.increment();
+        if (filter.mightContain(normalize(code))) {
+            return true;
+        }
+        definiteMisses.increment();
+        return false;
+    }
+
+    /**
+     * 在写库之前登记新邀请码，必须在写库的同一事务中调用
+     *
+     * @param codes 即将写入的邀请码
+     */
+    public void putAll(Collection<String> codes) {
+        if (!enabled) {
+            return;
+        }
+        holdWriterLockUntilTransactionEnds();
+
+        BloomFilter pending = rebuilding;
+        BloomFilter filter = current;
+        for (String code : codes) {
+            String key = normalize(code);
+            if (filter != null) {
+                filter.put(key);
+            }
+            if (pending != null) {
+                pending.put(key);
+            }
+        }
+        insertions.add(codes.size());
+    }
+
+    /**
+     * 从数据库重新构建过滤器，容量按当前邀请码数量的两倍与配置值中的较大者确定
+     */
+    public synchronized void rebuild() {
+        long rowCount = inviteCodeRepository.count();
+        long capacity = Math.max(expectedInsertions, rowCount * 2);
+        BloomFilter next = BloomFilter.create(capacity, falsePositiveRate);
+
+        writerLock.writeLock().lock();
+        try {
+            rebuilding = next;
+        } finally {
+            writerLock.writeLock().unlock();
+        }
+
+        long startNanos = System.nanoTime();
+        long[] loaded = new long[1];
+        try {
+            inviteCodeBulkRepository.streamAllCodes(code -> {
+                next.put(normalize(code));
+                loaded[0]++;
+            });
+        } catch (RuntimeException e) {
+            rebuilding = null;
+            throw e;
+        }
+
+        // 先切换current再清空rebuilding，并发写入无论读到哪个状态都会写进新过滤器
+        current = next;
+        rebuilding = null;
+        currentExpectedInsertions = capacity;
+        builtAt = LocalDateTime.now();
+        insertions.reset();
+        insertions.add(loaded[0]);
+        log.info("布隆过滤器构建完成，邀请码: {}, 位数: {}, 哈希函数: {}, 耗时: {}ms",
+                loaded[0], next.getBitCount(), next.getHashCount(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    public BloomFilterStatsDto getStats() {
+        BloomFilterStatsDto stats = new BloomFilterStatsDto();
+        BloomFilter filter = current;
+        stats.setEnabled(enabled);
+        stats.setReady(filter != null);
+        stats.setLookups(lookups.sum());
+        stats.setDefiniteMisses(definiteMisses.sum());
+        stats.setInsertions(insertions.sum());
+        if (filter != null) {
+            stats.setBitCount(filter.getBitCount());
+            stats.setMemoryBytes(filter.getBitCount() / 8);
+            stats.setHashCount(filter.getHashCount());
+            stats.setExpectedInsertions(currentExpectedInsertions);
+            stats.setEstimatedFalsePositiveRate(filter.estimateFalsePositiveRate());
+            stats.setBuiltAt(builtAt);
+        }
+        return stats;
+    }
+
+    private void holdWriterLockUntilTransactionEnds() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        writerLock.readLock().lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writerLock.readLock().unlock();
+            }
+        });
+    }
+
+    private static String normalize(String code) {
+        return code.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,321 @@
+package com.company.invitecode.index;
+
+import com.company.invitecode.dto.CodeIndexStatsDto;
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.generator.CrockfordBase32;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存邀请码校验索引（可选，invite-code.index.enabled 开启）
+ * 每个邀请码按Crockford Base32每字符5位压缩进一个long（最高4位存长度），
+ * 映射到 (ID &lt;&lt; 2 | 受限标志 &lt;&lt; 1 | 启用标志)，存放在 {@link PackedCodeTable} 中。
+ * 启用后校验不受限的邀请码只查内存，数据库只承担使用记录的写入；
+ * 有次数或有效期限制的邀请码仍需在数据库中以条件UPDATE兑换。
+ *
+ * <p>索引只在事务提交后更新。重新加载期间提交的变更先记入待处理列表，
+ * 加载完成后在新表上重放再切换，因此加载快照之后的变更不会丢失。</p>
+ */
+@Component
+public class CodeVerificationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CodeVerificationIndex.class);
+
+    /** 索引未启用、未就绪或邀请码无法编码，需要查询数据库 */
+    public static final long NOT_INDEXED = -2L;
+    /** 邀请码一定不存在 */
+    public static final long ABSENT = -1L;
+
+    private static final int MAX_PACKED_LENGTH = 12;
+
+    /** 只更新启用状态时沿用索引中已有的受限标志 */
+    private static final int KEEP_RESTRICTED = -1;
+
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    private final Object updateLock = new Object();
+    private final LongAdder lookups = new LongAdder();
+
+    @Value("${invite-code.index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${invite-code.index.expected-size:1000000}")
+    private int expectedSize;
+
+    private volatile PackedCodeTable table;
+    /** 重新加载期间提交的变更（键、ID、启用标志、受限标志），由updateLock保护 */
+    private List<long[]> pendingUpdates;
+    private volatile long unpackableCodes;
+    private volatile long loadMillis;
+    private volatile LocalDateTime loadedAt;
+
+    public CodeVerificationIndex(InviteCodeBulkRepository inviteCodeBulkRepository) {
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 查询邀请码
+     *
+     * @param code 邀请码
+     * @return {@link #NOT_INDEXED}、{@link #ABSENT}，或可由 {@link #idOf}、{@link #isActive} 和
+     * {@link #isRestricted} 解析的索引项
+     */
+    public long lookup(String code) {
+        PackedCodeTable current = table;
+        if (current == null) {
+            return NOT_INDEXED;
+        }
+        long key = pack(code);
+        if (key == 0) {
+            return NOT_INDEXED;
+        }
+        lookups.increment();
+        long entry = current.get(key);
+        return entry == PackedCodeTable.NO_VALUE ? ABSENT : entry;
+    }
+
+    public static long idOf(long entry) {
+        return entry >>> 2;
+    }
+
+    public static boolean isActive(long entry) {
+        return (entry & 1) != 0;
+    }
+
+    /**
+     * 邀请码是否有次数或有效期限制
+     */
+    public static boolean isRestricted(long entry) {
+        return (entry & 2) != 0;
+    }
+
+    /**
+     * 在当前事务提交后登记新生成的邀请码
+     *
+     * @param codes 新生成的邀请码
+     * @param batchRestricted 所属批次是否设置了兑换配额
+     */
+    public void registerCreated(List<InviteCodeDto> codes, boolean batchRestricted) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            for (InviteCodeDto dto : codes) {
+                boolean restricted = batchRestricted || dto.getMaxUses() != null || dto.getExpiresAt() != null;
+                apply(dto.getCode(), dto.getId(), dto.isActive(), restricted ? 1 : 0);
+            }
+        });
+    }
+
+    /**
+     * 在当前事务提交后更新邀请码的启用状态
+     * 邀请码实体不包含批次配额等限制，因此只能增加受限标志：restricted为false时沿用索引中已有的标志，
+     * 受限标志只在重新加载时按数据库的实际状态清除。
+     *
+     * @param id 邀请码ID
+     * @param code 邀请码
+     * @param active 是否启用
+     * @param restricted 邀请码本身是否有次数或有效期限制
+     */
+    public void registerState(Long id, String code, boolean active, boolean restricted) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> apply(code, id, active, restricted ? 1 : KEEP_RESTRICTED));
+    }
+
+    /**
+     * 在当前事务提交后批量更新邀请码的启用状态，受限标志保持不变
+     *
+     * @param codes 邀请码ID到邀请码的映射
+     * @param active 是否启用
+     */
+    public void registerStates(Map<Long, String> codes, boolean active) {
+        if (!enabled || codes.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> codes.forEach((id, code) -> apply(code, id, active, KEEP_RESTRICTED)));
+    }
+
+    /**
+     * 在当前事务提交后将一批已过期的邀请码标记为不可用
+     * 过期的邀请码同时标记为受限，之后即使重新启用也会由数据库的过期条件拒绝。
+     *
+     * @param codes 邀请码ID到邀请码的映射
+     */
+    public void registerExpired(Map<Long, String> codes) {
+        if (!enabled || codes.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> codes.forEach((id, code) -> apply(code, id, false, 1)));
+    }
+
+    /**
+     * 将批次内的全部邀请码标记为受限，用于批次设置兑换配额后，需在配额提交后调用
+     *
+     * @param batchId 批次ID
+     */
+    public void restrictBatch(String batchId) {
+        if (!enabled) {
+            return;
+        }
+        inviteCodeBulkRepository.streamByBatchId(batchId,
+                rs -> apply(rs.getString(2), rs.getLong(1), rs.getBoolean(7), 1));
+    }
+
+    /**
+     * 从数据库重新加载索引，加载期间继续使用旧索引
+     */
+    public synchronized void reload() {
+        long startNanos = System.nanoTime();
+        synchronized (updateLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+
+        PackedCodeTable next = new PackedCodeTable(expectedSize);
+        long[] unpackable = new long[1];
+        try {
+            inviteCodeBulkRepository.streamCodeStates(rs -> {
+                long key = pack(rs.getString(2));
+                if (key == 0) {
+                    unpackable[0]++;
+                } else {
+                    next.put(key, entry(rs.getLong(1), rs.getBoolean(3), rs.getBoolean(4)));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (updateLock) {
+                pendingUpdates = null;
+            }
+            throw e;
+        }
+
+        synchronized (updateLock) {
+            for (long[] update : pendingUpdates) {
+                put(next, update[0], update[1], update[2] != 0, (int) update[3]);
+            }
+            pendingUpdates = null;
+            table = next;
+        }
+
+        unpackableCodes = unpackable[0];
+        loadMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        loadedAt = LocalDateTime.now();
+        log.info("邀请码校验索引加载完成，邀请码: {}, 无法编码: {}, 内存: {}字节, 耗时: {}ms",
+                next.size(), unpackableCodes, next.memoryBytes(), loadMillis);
+    }
+
+    public CodeIndexStatsDto getStats() {
+        CodeIndexStatsDto stats = new CodeIndexStatsDto();
+        PackedCodeTable current = table;
+        stats.setEnabled(enabled);
+        stats.setReady(current != null);
+        stats.setLookups(lookups.sum());
+        if (current != null) {
+            stats.setSize(current.size());
+            stats.setCapacity(current.capacity());
+            stats.setMemoryBytes(current.memoryBytes());
+            stats.setUnpackableCodes(unpackableCodes);
+            stats.setLoadMillis(loadMillis);
+            stats.setLoadedAt(loadedAt);
+        }
+        return stats;
+    }
+
+    /**
+     * 将邀请码编码为long：最高4位为长度，其余每字符5位
+     * 与MySQL默认排序规则一致，字母不区分大小写。
+     *
+     * @param code 邀请码
+     * @return 编码结果，无法编码时返回0
+     */
+    static long pack(String code) {
+        int length = code.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = CrockfordBase32.decode(code.charAt(i));
+            if (digit < 0) {
+                return 0;
+            }
+            value = (value << 5) | digit;
+        }
+        return ((long) length << 60) | value;
+    }
+
+    private static long entry(long id, boolean active, boolean restricted) {
+        return (id << 2) | (restricted ? 2 : 0) | (active ? 1 : 0);
+    }
+
+    /**
+     * @param restricted 1 受限，0 不受限，{@link #KEEP_RESTRICTED} 沿用已有标志
+     */
+    private void apply(String code, Long id, boolean active, int restricted) {
+        long key = pack(code);
+        if (key == 0) {
+            return;
+        }
+        synchronized (updateLock) {
+            if (pendingUpdates != null) {
+                pendingUpdates.add(new long[]{key, id, active ? 1 : 0, restricted});
+            }
+            PackedCodeTable current = table;
+            if (current != null) {
+                put(current, key, id, active, restricted);
+            }
+        }
+    }
+
+    /**
+     * 写入索引项，需要沿用受限标志但索引中没有该邀请码时按受限处理，由数据库判定
+     */
+    private static void put(PackedCodeTable target, long key, long id, boolean active, int restricted) {
+        boolean restrictedFlag;
+        if (restricted == KEEP_RESTRICTED) {
+            long existing = target.get(key);
+            restrictedFlag = existing == PackedCodeTable.NO_VALUE || isRestricted(existing);
+        } else {
+            restrictedFlag = restricted != 0;
+        }
+        target.put(key, entry(id, active, restrictedFlag));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
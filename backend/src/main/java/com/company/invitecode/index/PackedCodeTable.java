@@ -0,0 +1,151 @@
+package com.company.invitecode.index;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * long到long的开放寻址哈希表（线性探测）
+ * 键值存放在两个平铺的long数组中，没有装箱对象。键0保留为空槽标记。
+ * 写操作串行化；读操作使用 {@link StampedLock} 乐观读，无竞争时不加锁。
+ */
+public final class PackedCodeTable {
+
+    /** 键不存在时 get 的返回值 */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    private static final long EMPTY_KEY = 0L;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final StampedLock lock = new StampedLock();
+
+    /** keys与values需要作为整体切换，避免读线程看到不同代的数组 */
+    private volatile Table table;
+    private int size;
+
+    public PackedCodeTable(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    public long get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        long value = table.find(key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return table.find(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void put(long key, long value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("键不能为0");
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (table.insert(key, value)) {
+                size++;
+                if (size > table.keys.length * LOAD_FACTOR) {
+                    resize();
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int capacity() {
+        return table.keys.length;
+    }
+
+    /**
+     * 键值数组占用的字节数
+     */
+    public long memoryBytes() {
+        return (long) table.keys.length * Long.BYTES * 2;
+    }
+
+    private void resize() {
+        Table old = table;
+        Table next = new Table(old.keys.length << 1);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != EMPTY_KEY) {
+                next.insert(old.keys[i], old.values[i]);
+            }
+        }
+        table = next;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 16) / LOAD_FACTOR);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+
+    /**
+     * 混淆键的高低位，避免编码后的邀请码在低位聚集
+     */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private long find(long key) {
+            int index = slot(key, mask);
+            // 乐观读期间数组可能正被修改，探测次数以容量为上限
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = keys[index];
+                if (current == key) {
+                    return values[index];
+                }
+                if (current == EMPTY_KEY) {
+                    return NO_VALUE;
+                }
+                index = (index + 1) & mask;
+            }
+            return NO_VALUE;
+        }
+
+        /**
+         * @return 是否新增了键
+         */
+        private boolean insert(long key, long value) {
+            int index = slot(key, mask);
+            while (true) {
+                long current = keys[index];
+                if (current == key) {
+                    values[index] = value;
+                    return false;
+                }
+                if (current == EMPTY_KEY) {
+                    values[index] = value;
+                    keys[index] = key;
+                    return true;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.company.invitecode.index;
+
+import com.company.invitecode.dto.RejectedCodeCacheStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 最近校验失败邀请码的缓存（不存在或已禁用）
+ * 通过布隆过滤器但数据库中无效的邀请码会被记住一段时间，重复提交时直接拒绝，不再查询数据库。
+ *
+ * <p>采用两代轮换：写入当前代，查询依次查当前代和上一代；当前代写满一半容量或存活满半个TTL时，
+ * 当前代变为上一代，原上一代整体丢弃。因此缓存项存活时间在TTL的一半到TTL之间，总条目数不超过 max-size，
+ * 既不需要逐条记录过期时间，也不需要后台清理线程。</p>
+ *
+ * <p>邀请码新建或重新启用时在事务提交后失效。查询数据库之前先取 {@link #stamp()}，
+ * 写入时若期间发生过失效则放弃写入，避免把提交前读到的旧状态缓存下来。</p>
+ */
+@Component
+public class RejectedCodeCache {
+
+    private static final Object PRESENT = Boolean.TRUE;
+
+    private final Object rotationLock = new Object();
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    @Value("${invite-code.rejected-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invite-code.rejected-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${invite-code.rejected-cache.max-size:100000}")
+    private int maxSize;
+
+    private long generationNanos;
+    private int generationCapacity;
+
+    private volatile ConcurrentHashMap<String, Object> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, Object> previous = new ConcurrentHashMap<>();
+    private volatile long currentStartedAt = System.nanoTime();
+
+    @PostConstruct
+    public void init() {
+        generationNanos = TimeUnit.SECONDS.toNanos(ttlSeconds) / 2;
+        generationCapacity = Math.max(maxSize / 2, 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 判断邀请码最近是否校验失败过
+     *
+     * @param code 邀请码
+     * @return true 表示缓存命中，可以直接拒绝
+     */
+    public boolean contains(String code) {
+        if (!enabled) {
+            return false;
+        }
+        rotateIfExpired();
+        String key = normalize(code);
+        if (current.containsKey(key) || previous.containsKey(key)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * 查询数据库之前获取失效版本号，供 {@link #put} 判断期间是否发生过失效
+     */
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * 记录校验失败的邀请码
+     *
+     * @param code 邀请码
+     * @param stamp 查询数据库之前取得的 {@link #stamp()}
+     */
+    public void put(String code, long stamp) {
+        if (!enabled || invalidationStamp.get() != stamp) {
+            return;
+        }
+        String key = normalize(code);
+        ConcurrentHashMap<String, Object> target = current;
+        if (target.size() >= generationCapacity) {
+            rotate(target);
+            target = current;
+        }
+        target.put(key, PRESENT);
+        puts.increment();
+        // 写入与失效并发时，失效可能已经清理过这里刚写入的项，需要再检查一次
+        if (invalidationStamp.get() != stamp) {
+            removeAll(key);
+        }
+    }
+
+    /**
+     * 在当前事务提交后使邀请码失效，用于邀请码新建或重新启用
+     *
+     * @param codes 邀请码
+     */
+    public void invalidateAfterCommit(Collection<String> codes) {
+        if (!enabled || codes.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            invalidationStamp.incrementAndGet();
+            for (String code : codes) {
+                removeAll(normalize(code));
+            }
+            invalidations.add(codes.size());
+        });
+    }
+
+    public RejectedCodeCacheStatsDto getStats() {
+        RejectedCodeCacheStatsDto stats = new RejectedCodeCacheStatsDto();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.setEnabled(enabled);
+        stats.setTtlSeconds(ttlSeconds);
+        stats.setMaxSize(maxSize);
+        stats.setSize(current.size() + previous.size());
+        stats.setHits(hitCount);
+        stats.setMisses(missCount);
+        stats.setHitRate(hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount));
+        stats.setPuts(puts.sum());
+        stats.setInvalidations(invalidations.sum());
+        stats.setRotations(rotations.sum());
+        return stats;
+    }
+
+    /**
+     * 与MySQL默认排序规则一致，字母不区分大小写
+     */
+    private static String normalize(String code) {
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    private void rotateIfExpired() {
+        if (System.nanoTime() - currentStartedAt >= generationNanos) {
+            rotate(current);
+        }
+    }
+
+    private void rotate(ConcurrentHashMap<String, Object> expected) {
+        synchronized (rotationLock) {
+            if (current != expected) {
+                return;
+            }
+            previous = expected;
+            current = new ConcurrentHashMap<>();
+            currentStartedAt = System.nanoTime();
+            rotations.increment();
+        }
+    }
+
+    private void removeAll(String key) {
+        synchronized (rotationLock) {
+            current.remove(key);
+            previous.remove(key);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
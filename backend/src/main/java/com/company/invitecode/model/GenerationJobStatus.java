@@ -0,0 +1,15 @@
+package com.company.invitecode.model;
+
+/**
+ * 邀请码生成任务状态
+ */
+public enum GenerationJobStatus {
+    /** 已提交，等待执行 */
+    PENDING,
+    /** 执行中 */
+    RUNNING,
+    /** 已完成 */
+    COMPLETED,
+    /** 执行失败 */
+    FAILED
+}
@@ -1,5 +1,6 @@
 package com.company.invitecode.model;
 
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.*;
@@ -8,7 +9,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "invite_codes")
+@Table(name = "invite_codes", indexes = {
+        @Index(name = "idx_invite_codes_batch_created", columnList = "batch_id, created_at, id"),
+        @Index(name = "idx_invite_codes_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_invite_codes_batch_active_created", columnList = "batch_id, is_active, created_at"),
+        @Index(name = "idx_invite_codes_creator_created", columnList = "created_by, created_at"),
+        @Index(name = "idx_invite_codes_active_created", columnList = "is_active, created_at")
+})
 public class InviteCode {
 
     @Id
@@ -34,6 +41,38 @@ public class InviteCode {
     @Column(name = "is_active")
     private boolean active;
     
+    /**
+     * 使用次数与最后使用时间只由使用记录写入器以增量SQL维护，JPA不写入这两列
+     */
+    @ColumnDefault("0")
+    @Column(name = "usage_count", nullable = false, insertable = false, updatable = false)
+    private int usageCount;
+    
+    @Column(name = "last_used_at", insertable = false, updatable = false)
+    private LocalDateTime lastUsedAt;
+
+    /** 已归档到冷存储文件的使用记录数量，使用次数校正时与表中的记录数相加 */
+    @ColumnDefault("0")
+    @Column(name = "archived_usage_count", nullable = false, insertable = false, updatable = false)
+    private int archivedUsageCount;
+    
+    /** 最大使用次数，null表示不限 */
+    @Column(name = "max_uses")
+    private Integer maxUses;
+    
+    /**
+     * 剩余使用次数，写入时等于 max_uses，之后只由兑换时的条件UPDATE递减，JPA不更新此列
+     */
+    @Column(name = "remaining_uses", updatable = false)
+    private Integer remainingUses;
+    
+    /**
+     * 过期时间，null表示永不过期；写入后只由批量过期的UPDATE修改，JPA不更新此列，
+     * 避免禁用/启用时保存旧实体覆盖并发提交的批量过期
+     */
+    @Column(name = "expires_at", updatable = false)
+    private LocalDateTime expiresAt;
+    
     @OneToMany(mappedBy = "inviteCode", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<UsageRecord> usageRecords = new ArrayList<>();
     
@@ -96,6 +135,57 @@ public class InviteCode {
         this.active = active;
     }
 
+    public int getUsageCount() {
+        return usageCount;
+    }
+
+    public int getArchivedUsageCount() {
+        return archivedUsageCount;
+    }
+
+    public void setUsageCount(int usageCount) {
+        this.usageCount = usageCount;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public Integer getMaxUses() {
+        return maxUses;
+    }
+
+    public void setMaxUses(Integer maxUses) {
+        this.maxUses = maxUses;
+    }
+
+    public Integer getRemainingUses() {
+        return remainingUses;
+    }
+
+    public void setRemainingUses(Integer remainingUses) {
+        this.remainingUses = remainingUses;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 是否有次数或有效期限制，受限的邀请码兑换时需要执行条件UPDATE
+     */
+    public boolean isRestricted() {
+        return maxUses != null || expiresAt != null;
+    }
+
     public List<UsageRecord> getUsageRecords() {
         return usageRecords;
     }
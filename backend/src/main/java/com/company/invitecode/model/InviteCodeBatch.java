@@ -0,0 +1,125 @@
+package com.company.invitecode.model;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 邀请码批次（活动）
+ * 批次内所有邀请码共享一个可选的兑换总配额，与使用哪个邀请码无关。
+ * 同时冗余保存已生成和已使用的邀请码数量，统计转化率时不必扫描邀请码表。
+ */
+@Entity
+@Table(name = "invite_code_batches")
+public class InviteCodeBatch {
+
+    @Id
+    @Column(name = "batch_id", length = 64)
+    private String batchId;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "created_by")
+    private String createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** 批次兑换总配额，null表示不限 */
+    @Column(name = "redemption_quota")
+    private Integer redemptionQuota;
+
+    /**
+     * 已分配给各应用实例的配额，只由配额租借的增量SQL维护，JPA不写入此列
+     */
+    @ColumnDefault("0")
+    @Column(name = "leased_redemptions", nullable = false, insertable = false, updatable = false)
+    private int leasedRedemptions;
+
+    /** 已生成的邀请码数量，由批量写入累加，使用次数校正时重新计算 */
+    @ColumnDefault("0")
+    @Column(name = "issued_count", nullable = false, insertable = false, updatable = false)
+    private long issuedCount;
+
+    /** 至少使用过一次的邀请码数量，由使用记录写入累加，使用次数校正时重新计算 */
+    @ColumnDefault("0")
+    @Column(name = "used_codes", nullable = false, insertable = false, updatable = false)
+    private long usedCodes;
+
+    public InviteCodeBatch() {
+    }
+
+    public InviteCodeBatch(String batchId, String description, String createdBy) {
+        this.batchId = batchId;
+        this.description = description;
+        this.createdBy = createdBy;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Integer getRedemptionQuota() {
+        return redemptionQuota;
+    }
+
+    public void setRedemptionQuota(Integer redemptionQuota) {
+        this.redemptionQuota = redemptionQuota;
+    }
+
+    public int getLeasedRedemptions() {
+        return leasedRedemptions;
+    }
+
+    public void setLeasedRedemptions(int leasedRedemptions) {
+        this.leasedRedemptions = leasedRedemptions;
+    }
+
+    public long getIssuedCount() {
+        return issuedCount;
+    }
+
+    public void setIssuedCount(long issuedCount) {
+        this.issuedCount = issuedCount;
+    }
+
+    public long getUsedCodes() {
+        return usedCodes;
+    }
+
+    public void setUsedCodes(long usedCodes) {
+        this.usedCodes = usedCodes;
+    }
+}
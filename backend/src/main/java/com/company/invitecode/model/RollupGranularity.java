@@ -0,0 +1,44 @@
+package com.company.invitecode.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 使用统计汇总粒度
+ */
+public enum RollupGranularity {
+    /** 按分钟，只汇总到批次 */
+    MINUTE(ChronoUnit.MINUTES, false),
+    /** 按小时 */
+    HOUR(ChronoUnit.HOURS, true),
+    /** 按天 */
+    DAY(ChronoUnit.DAYS, true);
+
+    private final ChronoUnit unit;
+    private final boolean codeLevel;
+
+    RollupGranularity(ChronoUnit unit, boolean codeLevel) {
+        this.unit = unit;
+        this.codeLevel = codeLevel;
+    }
+
+    /**
+     * 时间所在汇总桶的起始时间
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public Duration getDuration() {
+        return unit.getDuration();
+    }
+
+    /**
+     * 是否按单个邀请码汇总
+     * 分钟粒度只汇总到批次：一次性邀请码按分钟逐码汇总的行数不少于原始记录，没有意义。
+     */
+    public boolean isCodeLevel() {
+        return codeLevel;
+    }
+}
@@ -0,0 +1,113 @@
+package com.company.invitecode.model;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 一个月份的使用记录归档进度
+ * 归档文件只追加写入，committedBytes 与数据库中的删除在同一事务中提交；
+ * 恢复时先把文件截断到 committedBytes，丢弃未提交的尾部，因此每条记录在归档中只出现一次。
+ */
+@Entity
+@Table(name = "usage_archive_segments")
+public class UsageArchiveSegment {
+
+    /** 归档月份，格式 yyyy-MM */
+    @Id
+    @Column(name = "archive_month", length = 7)
+    private String month;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "archived_records", nullable = false)
+    private long archivedRecords;
+
+    /** 已提交的归档文件长度 */
+    @Column(name = "committed_bytes", nullable = false)
+    private long committedBytes;
+
+    /** 已归档的最后一条记录的使用时间与ID，分区表上记录在删除分区前仍保留在表中，从此处继续 */
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    @Column(name = "last_record_id")
+    private Long lastRecordId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private UsageArchiveStatus status;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UsageArchiveSegment() {
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public void setMonth(String month) {
+        this.month = month;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getArchivedRecords() {
+        return archivedRecords;
+    }
+
+    public void setArchivedRecords(long archivedRecords) {
+        this.archivedRecords = archivedRecords;
+    }
+
+    public long getCommittedBytes() {
+        return committedBytes;
+    }
+
+    public void setCommittedBytes(long committedBytes) {
+        this.committedBytes = committedBytes;
+    }
+
+    public LocalDateTime getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(LocalDateTime lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public Long getLastRecordId() {
+        return lastRecordId;
+    }
+
+    public void setLastRecordId(Long lastRecordId) {
+        this.lastRecordId = lastRecordId;
+    }
+
+    public UsageArchiveStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UsageArchiveStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.invitecode.model;
+
+/**
+ * 使用记录归档月份的状态
+ */
+public enum UsageArchiveStatus {
+    /** 归档中，中断后从记录的位置继续 */
+    ARCHIVING,
+    /** 已完成 */
+    COMPLETED
+}
@@ -0,0 +1,61 @@
+package com.company.invitecode.model;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 使用记录日志的写库进度
+ * committedRecords 与对应批次的使用记录在同一事务中提交，重启后从该序号继续读取日志，
+ * 每条日志记录只写入一次。
+ */
+@Entity
+@Table(name = "usage_journal_progress")
+public class UsageJournalProgress {
+
+    /** 日志ID，见日志目录中的 journal.id */
+    @Id
+    @Column(name = "journal_id", length = 36)
+    private String journalId;
+
+    /** 已写入数据库的记录数，即下一条待写入记录的序号 */
+    @Column(name = "committed_records", nullable = false)
+    private long committedRecords;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UsageJournalProgress() {
+    }
+
+    public UsageJournalProgress(String journalId, long committedRecords) {
+        this.journalId = journalId;
+        this.committedRecords = committedRecords;
+    }
+
+    public String getJournalId() {
+        return journalId;
+    }
+
+    public void setJournalId(String journalId) {
+        this.journalId = journalId;
+    }
+
+    public long getCommittedRecords() {
+        return committedRecords;
+    }
+
+    public void setCommittedRecords(long committedRecords) {
+        this.committedRecords = committedRecords;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
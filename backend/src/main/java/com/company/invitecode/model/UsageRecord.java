@@ -1,12 +1,16 @@
 package com.company.invitecode.model;
 
+import com.company.invitecode.util.IpAddressCodec;
 import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "usage_records")
+@Table(name = "usage_records", indexes = {
+        @Index(name = "idx_usage_records_code_used_at", columnList = "invite_code_id, used_at, id"),
+        @Index(name = "idx_usage_records_used_at", columnList = "used_at")
+})
 public class UsageRecord {
 
     @Id
@@ -20,11 +24,14 @@ public class UsageRecord {
     @Column(name = "user_id")
     private String userId;
 
-    @Column(name = "ip_address")
-    private String ipAddress;
+    /** 二进制形式的IP地址，见 {@link IpAddressCodec} */
+    @Column(name = "ip", length = IpAddressCodec.MAX_LENGTH)
+    private byte[] ipAddress;
 
-    @Column(name = "user_agent")
-    private String userAgent;
+    /** 字典条目只增不删，不建外键，分区表也不支持外键 */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_agent_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private UserAgent userAgent;
 
     @CreationTimestamp
     @Column(name = "used_at", nullable = false, updatable = false)
@@ -57,19 +64,19 @@ public class UsageRecord {
         this.userId = userId;
     }
 
-    public String getIpAddress() {
+    public byte[] getIpAddress() {
         return ipAddress;
     }
 
-    public void setIpAddress(String ipAddress) {
+    public void setIpAddress(byte[] ipAddress) {
         this.ipAddress = ipAddress;
     }
 
-    public String getUserAgent() {
+    public UserAgent getUserAgent() {
         return userAgent;
     }
 
-    public void setUserAgent(String userAgent) {
+    public void setUserAgent(UserAgent userAgent) {
         this.userAgent = userAgent;
     }
 
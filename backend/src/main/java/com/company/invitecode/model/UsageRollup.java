@@ -0,0 +1,67 @@
+package com.company.invitecode.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 按时间桶预汇总的使用次数
+ * 每行是一个（粒度, 批次, 邀请码, 桶起始时间）的使用次数，invite_code_id 为0的行是批次合计。
+ * 只由 {@link com.company.invitecode.usage.UsageRollupAggregator} 以合并UPSERT累加，
+ * 唯一索引的列顺序与统计查询一致，一条时间序列是索引上的一段连续区间。
+ */
+@Entity
+@Table(name = "usage_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_usage_rollups_series",
+                columnNames = {"granularity", "batch_id", "invite_code_id", "bucket_start"})
+})
+public class UsageRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    /** 批次ID，没有批次的邀请码为空字符串 */
+    @Column(name = "batch_id", nullable = false, length = 64)
+    private String batchId;
+
+    /** 邀请码ID，0表示批次合计 */
+    @Column(name = "invite_code_id", nullable = false)
+    private long inviteCodeId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "usage_count", nullable = false)
+    private long usageCount;
+
+    public UsageRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public long getInviteCodeId() {
+        return inviteCodeId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getUsageCount() {
+        return usageCount;
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.invitecode.model;
+
+import com.company.invitecode.index.HyperLogLog;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 按天保存的使用用户HyperLogLog草图，用于估计任意天数窗口内的独立用户数
+ * 只由 {@link com.company.invitecode.usage.UsageRollupAggregator} 合并写入。
+ */
+@Entity
+@Table(name = "usage_user_sketches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_usage_user_sketches_day", columnNames = {"batch_id", "bucket_start"})
+})
+public class UsageUserSketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 批次ID，全部批次的合计为 {@link com.company.invitecode.usage.UsageRollupAggregator#ALL_BATCHES} */
+    @Column(name = "batch_id", nullable = false, length = 64)
+    private String batchId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "registers", nullable = false, length = HyperLogLog.REGISTER_COUNT)
+    private byte[] registers;
+
+    public UsageUserSketch() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+}
@@ -0,0 +1,54 @@
+package com.company.invitecode.model;
+
+import javax.persistence.*;
+
+/**
+ * User-Agent字典
+ * 不同的User-Agent只有几百种，使用记录只保存字典ID。按SHA-256摘要建唯一索引，条目写入后不再修改或删除。
+ */
+@Entity
+@Table(name = "user_agents", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_agents_hash", columnNames = "value_hash")
+})
+public class UserAgent {
+
+    /** 超长的User-Agent截断保存，避免字典被异常请求头撑大 */
+    public static final int MAX_LENGTH = 512;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "value_hash", nullable = false, length = 32)
+    private byte[] valueHash;
+
+    @Column(name = "user_agent", nullable = false, length = MAX_LENGTH)
+    private String value;
+
+    public UserAgent() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public byte[] getValueHash() {
+        return valueHash;
+    }
+
+    public void setValueHash(byte[] valueHash) {
+        this.valueHash = valueHash;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+}
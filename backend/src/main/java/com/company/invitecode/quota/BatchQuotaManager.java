@@ -0,0 +1,223 @@
+package com.company.invitecode.quota;
+
+import com.company.invitecode.dto.BatchQuotaDto;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批次兑换配额管理
+ * 每个设置了配额的批次对应一个 {@link StripedQuotaCounter}，校验时只检查本地许可。
+ * 本地许可用尽时以行锁从 invite_code_batches 按块租借，租得的数量先累加到 leased_redemptions 并提交，
+ * 之后才在本地使用，因此所有实例已租出的总量不会超过配额，重启也不会超发。
+ * 正常关闭时未用完的许可归还数据库；异常退出时未用完的许可丢失，最多少发 lease-size × 实例数 个。
+ *
+ * <p>新设置的配额在本实例立即生效，其他实例在下一次定期刷新后生效。</p>
+ */
+@Component
+public class BatchQuotaManager {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchQuotaManager.class);
+
+    private final InviteCodeBatchRepository inviteCodeBatchRepository;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, StripedQuotaCounter> counters = new ConcurrentHashMap<>();
+
+    @Value("${invite-code.quota.lease-size:100}")
+    private int leaseSize;
+
+    @Value("${invite-code.quota.stripes:0}")
+    private int stripes;
+
+    public BatchQuotaManager(InviteCodeBatchRepository inviteCodeBatchRepository,
+                             CodeVerificationIndex codeVerificationIndex,
+                             TransactionTemplate transactionTemplate) {
+        this.inviteCodeBatchRepository = inviteCodeBatchRepository;
+        this.codeVerificationIndex = codeVerificationIndex;
+        // 租借在校验事务之外独立提交，行锁只持有到租借结束
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (stripes <= 0) {
+            stripes = Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    /**
+     * 同步数据库中的配额设置：新增有配额的批次，移除已取消配额的批次，并允许已耗尽的批次重新租借
+     */
+    @Scheduled(fixedDelayString = "${invite-code.quota.refresh-interval-ms:30000}",
+            initialDelayString = "${invite-code.quota.refresh-interval-ms:30000}")
+    public void refresh() {
+        List<String> batchIds = inviteCodeBatchRepository.findBatchIdsWithQuota();
+        Set<String> withQuota = new HashSet<>(batchIds);
+        for (String batchId : batchIds) {
+            StripedQuotaCounter counter = counters.get(batchId);
+            if (counter == null) {
+                // 其他实例新设置的配额：与 setQuota 相同，先让批次内的邀请码退出内存索引的快速路径
+                codeVerificationIndex.restrictBatch(batchId);
+                counter = counters.computeIfAbsent(batchId, this::newCounter);
+            }
+            counter.resetExhausted();
+        }
+        for (String batchId : counters.keySet()) {
+            if (!withQuota.contains(batchId)) {
+                removeCounter(batchId);
+            }
+        }
+    }
+
+    /**
+     * 批次是否设置了兑换配额
+     */
+    public boolean hasQuota(String batchId) {
+        return batchId != null && counters.containsKey(batchId);
+    }
+
+    /**
+     * 为批次获取一次兑换许可，未设置配额的批次直接放行
+     *
+     * @param batchId 批次ID
+     * @return 是否获得许可
+     */
+    public boolean tryAcquire(String batchId) {
+        if (batchId == null) {
+            return true;
+        }
+        StripedQuotaCounter counter = counters.get(batchId);
+        return counter == null || counter.tryAcquire();
+    }
+
+    /**
+     * 归还已获取但兑换失败的许可
+     */
+    public void release(String batchId) {
+        if (batchId == null) {
+            return;
+        }
+        StripedQuotaCounter counter = counters.get(batchId);
+        if (counter != null) {
+            counter.release();
+        }
+    }
+
+    /**
+     * 设置或取消批次的兑换配额，批次记录不存在时创建
+     *
+     * @param batchId 批次ID
+     * @param quota 兑换总配额，null表示取消配额
+     * @return 设置后的配额状态
+     */
+    public BatchQuotaDto setQuota(String batchId, Integer quota) {
+        if (quota != null) {
+            // 先让批次内的邀请码退出内存索引的快速路径，配额生效后就不会有绕过配额的兑换
+            codeVerificationIndex.restrictBatch(batchId);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            InviteCodeBatch batch = inviteCodeBatchRepository.findById(batchId)
+                    .orElseGet(() -> new InviteCodeBatch(batchId, null, null));
+            batch.setRedemptionQuota(quota);
+            inviteCodeBatchRepository.save(batch);
+        });
+
+        if (quota == null) {
+            removeCounter(batchId);
+        } else {
+            counters.computeIfAbsent(batchId, this::newCounter).resetExhausted();
+        }
+        log.info("批次{}兑换配额设置为: {}", batchId, quota);
+        return getQuota(batchId).orElseThrow();
+    }
+
+    public Optional<BatchQuotaDto> getQuota(String batchId) {
+        return inviteCodeBatchRepository.findById(batchId).map(batch -> {
+            BatchQuotaDto dto = new BatchQuotaDto();
+            dto.setBatchId(batch.getBatchId());
+            dto.setRedemptionQuota(batch.getRedemptionQuota());
+            dto.setLeasedRedemptions(batch.getLeasedRedemptions());
+            StripedQuotaCounter counter = counters.get(batchId);
+            if (counter != null) {
+                dto.setLocalAvailable(counter.available());
+                dto.setExhausted(counter.isExhausted());
+            }
+            return dto;
+        });
+    }
+
+    /**
+     * 关闭前将未用完的本地许可归还数据库
+     */
+    @PreDestroy
+    public void returnUnusedLeases() {
+        for (String batchId : counters.keySet()) {
+            removeCounter(batchId);
+        }
+    }
+
+    private StripedQuotaCounter newCounter(String batchId) {
+        return new StripedQuotaCounter(stripes, leaseSize, requested -> lease(batchId, requested));
+    }
+
+    /**
+     * 在独立事务中以行锁租借配额，提交后才返回
+     *
+     * @return 实际租得的数量，配额已用尽时为0
+     */
+    private int lease(String batchId, int requested) {
+        Integer granted = transactionTemplate.execute(status -> {
+            Optional<InviteCodeBatch> batch = inviteCodeBatchRepository.findForUpdate(batchId);
+            if (batch.isEmpty() || batch.get().getRedemptionQuota() == null) {
+                return 0;
+            }
+            int remaining = batch.get().getRedemptionQuota() - batch.get().getLeasedRedemptions();
+            int grant = Math.max(Math.min(requested, remaining), 0);
+            if (grant > 0) {
+                inviteCodeBatchRepository.addLeasedRedemptions(batchId, grant);
+            }
+            return grant;
+        });
+        log.debug("批次{}租借兑换配额: {}/{}", batchId, granted, requested);
+        return granted == null ? 0 : granted;
+    }
+
+    private void removeCounter(String batchId) {
+        StripedQuotaCounter counter = counters.remove(batchId);
+        if (counter == null) {
+            return;
+        }
+        int unused = counter.drain();
+        if (unused > 0) {
+            transactionTemplate.executeWithoutResult(
+                    status -> inviteCodeBatchRepository.addLeasedRedemptions(batchId, -unused));
+            log.info("批次{}归还未使用的兑换配额: {}", batchId, unused);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.company.invitecode.quota;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 分段配额计数器
+ * 本地许可分散在多个计数段中，线程按ID固定落在一个段上，常规路径只对本段做一次CAS；
+ * 本段用尽时先从其他段借用，全部用尽后才在锁内向数据库租借一整块配额。
+ * 每段之间填充7个long，避免不同段落在同一缓存行上产生伪共享。
+ *
+ * <p>数据库没有剩余配额时标记为已耗尽，之后直接拒绝而不再访问数据库，直到 {@link #resetExhausted()}。</p>
+ */
+final class StripedQuotaCounter {
+
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray permits;
+    private final int stripes;
+    private final int leaseSize;
+    /** 申请数量到实际租得数量 */
+    private final IntUnaryOperator leaser;
+    private final Object leaseLock = new Object();
+
+    private volatile boolean exhausted;
+
+    StripedQuotaCounter(int stripes, int leaseSize, IntUnaryOperator leaser) {
+        this.stripes = stripes;
+        this.leaseSize = leaseSize;
+        this.leaser = leaser;
+        this.permits = new AtomicLongArray(stripes * PADDING);
+    }
+
+    boolean tryAcquire() {
+        int home = homeStripe();
+        if (take(home) || takeFromAny()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        synchronized (leaseLock) {
+            // 等锁期间其他线程可能已经租到新的配额，或已确认数据库配额耗尽
+            if (takeFromAny()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            int granted = leaser.applyAsInt(leaseSize);
+            if (granted <= 0) {
+                exhausted = true;
+                return false;
+            }
+            permits.addAndGet(home * PADDING, granted - 1);
+            return true;
+        }
+    }
+
+    /**
+     * 归还一个已获取但未使用的许可
+     */
+    void release() {
+        permits.incrementAndGet(homeStripe() * PADDING);
+    }
+
+    /**
+     * 取出全部本地许可，用于归还数据库
+     */
+    int drain() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += permits.getAndSet(i * PADDING, 0);
+        }
+        return (int) drained;
+    }
+
+    long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += permits.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * 配额可能已被调整，允许再次向数据库租借
+     */
+    void resetExhausted() {
+        exhausted = false;
+    }
+
+    private boolean takeFromAny() {
+        for (int i = 0; i < stripes; i++) {
+            if (take(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean take(int stripe) {
+        int index = stripe * PADDING;
+        while (true) {
+            long current = permits.get(index);
+            if (current <= 0) {
+                return false;
+            }
+            if (permits.compareAndSet(index, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private int homeStripe() {
+        return (int) Math.floorMod(Thread.currentThread().getId(), (long) stripes);
+    }
+}
@@ -0,0 +1,154 @@
+package com.company.invitecode.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按用户名的登录失败限制，仅保存在内存中
+ * 在 failure-window-seconds 内连续失败 max-failures 次后锁定 lockout-seconds，锁定期间的登录请求
+ * 不再查询数据库和计算BCrypt，直接拒绝；登录成功后清除该用户名的失败记录。
+ *
+ * <p>只有登录失败过的用户名才会被记录，数量以 max-users 为上限，窗口和锁定都已过期的记录定期清理。
+ * 达到上限时先清理过期记录，仍然没有空位则不再记录新的用户名：锁定状态从不在不同用户名之间共享，
+ * 用大量虚构的用户名登录失败也无法锁定其他账号，此时登录总量仍受登录线程池的队列上限约束。
+ * 用户名不区分大小写，与MySQL默认排序规则下的查询一致。</p>
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptLimiter.class);
+
+    private final ConcurrentHashMap<String, Attempts> attempts = new ConcurrentHashMap<>();
+
+    @Value("${invite-code.login.max-failures:5}")
+    private int maxFailures;
+
+    @Value("${invite-code.login.failure-window-seconds:900}")
+    private long failureWindowSeconds;
+
+    @Value("${invite-code.login.lockout-seconds:900}")
+    private long lockoutSeconds;
+
+    @Value("${invite-code.login.max-users:10000}")
+    private int maxUsers;
+
+    /**
+     * 查询用户名是否处于锁定状态
+     *
+     * @param username 用户名
+     * @return 0 表示可以尝试登录，否则为剩余的锁定纳秒数
+     */
+    public long lockedNanos(String username) {
+        return lockedNanos(username, System.nanoTime());
+    }
+
+    long lockedNanos(String username, long now) {
+        Attempts entry = attempts.get(key(username));
+        return entry == null ? 0 : entry.lockedNanos(now);
+    }
+
+    /**
+     * 记录一次登录失败，达到失败次数上限时开始锁定
+     *
+     * @param username 用户名
+     */
+    public void recordFailure(String username) {
+        recordFailure(username, System.nanoTime());
+    }
+
+    void recordFailure(String username, long now) {
+        String key = key(username);
+        Attempts entry = attempts.get(key);
+        if (entry == null) {
+            if (attempts.size() >= maxUsers) {
+                evictExpired(now);
+            }
+            if (attempts.size() >= maxUsers) {
+                log.debug("登录失败记录已达上限{}，不再记录用户名: {}", maxUsers, username);
+                return;
+            }
+            entry = attempts.computeIfAbsent(key, k -> new Attempts());
+        }
+        if (entry.recordFailure(now, maxFailures, TimeUnit.SECONDS.toNanos(failureWindowSeconds),
+                TimeUnit.SECONDS.toNanos(lockoutSeconds))) {
+            log.warn("用户名 {} 登录连续失败{}次，锁定{}秒", username, maxFailures, lockoutSeconds);
+        }
+    }
+
+    /**
+     * 登录成功后清除失败记录
+     *
+     * @param username 用户名
+     */
+    public void recordSuccess(String username) {
+        attempts.remove(key(username));
+    }
+
+    /**
+     * 移除窗口和锁定都已过期的记录
+     */
+    @Scheduled(fixedDelayString = "${invite-code.login.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        evictExpired(System.nanoTime());
+    }
+
+    int evictExpired(long now) {
+        int before = attempts.size();
+        attempts.values().removeIf(entry -> entry.isExpired(now));
+        int removed = Math.max(before - attempts.size(), 0);
+        if (removed > 0) {
+            log.debug("清理过期登录失败记录: {}, 剩余: {}", removed, attempts.size());
+        }
+        return removed;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单个用户名的失败计数，所有字段由对象自身的锁保护
+     */
+    private static final class Attempts {
+
+        private int failures;
+        private long windowEnd;
+        private long lockedUntil;
+        private boolean locked;
+
+        synchronized long lockedNanos(long now) {
+            return locked && lockedUntil - now > 0 ? lockedUntil - now : 0;
+        }
+
+        /**
+         * @return 本次失败是否触发了锁定
+         */
+        synchronized boolean recordFailure(long now, int maxFailures, long windowNanos, long lockoutNanos) {
+            if (locked && lockedUntil - now > 0) {
+                return false;
+            }
+            if (locked || failures == 0 || windowEnd - now <= 0) {
+                locked = false;
+                failures = 0;
+                windowEnd = now + windowNanos;
+            }
+            if (++failures < maxFailures) {
+                return false;
+            }
+            locked = true;
+            lockedUntil = now + lockoutNanos;
+            return true;
+        }
+
+        synchronized boolean isExpired(long now) {
+            return locked ? lockedUntil - now <= 0 : windowEnd - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.company.invitecode.ratelimit;
+
+import com.company.invitecode.dto.RateLimitStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按客户端限流的令牌桶
+ * 采用GCRA（通用信元速率算法）实现，与令牌桶等价：每个客户端只保存一个“理论到达时间”，
+ * 放行一次请求就是对这个long做一次CAS，不需要加锁，也不需要后台补充令牌。
+ *
+ * <p>桶存放在 {@link ConcurrentHashMap} 中，数量以 max-clients 为上限。理论到达时间早于当前时间的桶
+ * 已经完全补满，与新建的桶没有区别，定期清理时直接移除。达到上限时先清理已补满的桶（每秒最多一次），
+ * 仍然已满则淘汰任意一个桶。被淘汰的客户端只是重新获得一个满桶，不同客户端从不共用一个桶，
+ * 因此大量来源地址占满桶表也无法让其他客户端被限流，内存仍然有上限。</p>
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    /** 上一次因桶表已满而清理的时间 */
+    private final AtomicLong lastFullSweep = new AtomicLong(Long.MIN_VALUE);
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder displaced = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    @Value("${invite-code.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invite-code.rate-limit.permits-per-second:5}")
+    private double permitsPerSecond;
+
+    @Value("${invite-code.rate-limit.burst:20}")
+    private int burst;
+
+    @Value("${invite-code.rate-limit.max-clients:100000}")
+    private int maxClients;
+
+    /** 两次请求之间的理论间隔 */
+    private long emissionIntervalNanos;
+    /** 允许的突发量对应的提前量 */
+    private long toleranceNanos;
+
+    @PostConstruct
+    public void init() {
+        emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        toleranceNanos = emissionIntervalNanos * (burst - 1);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 尝试为客户端获取一个许可
+     *
+     * @param clientKey 客户端标识
+     * @return 0 表示放行，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, System.nanoTime());
+    }
+
+    long tryAcquire(String clientKey, long now) {
+        AtomicLong bucket = buckets.get(clientKey);
+        if (bucket == null) {
+            bucket = bucketForNewClient(clientKey, now);
+        }
+        while (true) {
+            long current = bucket.get();
+            long arrival = Math.max(current, now);
+            long waitNanos = arrival - toleranceNanos - now;
+            if (waitNanos > 0) {
+                rejected.increment();
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucketForNewClient(String clientKey, long now) {
+        if (buckets.size() >= maxClients) {
+            makeRoom(now);
+        }
+        return buckets.computeIfAbsent(clientKey, key -> new AtomicLong(now));
+    }
+
+    /**
+     * 桶表已满时腾出位置：先清理已补满的桶，遍历全表的清理每秒最多执行一次；仍然已满则淘汰任意的桶
+     */
+    private void makeRoom(long now) {
+        long last = lastFullSweep.get();
+        if ((last == Long.MIN_VALUE || now - last >= TimeUnit.SECONDS.toNanos(1))
+                && lastFullSweep.compareAndSet(last, now)) {
+            evictIdle(now);
+        }
+        Iterator<AtomicLong> iterator = buckets.values().iterator();
+        while (buckets.size() >= maxClients && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            displaced.increment();
+        }
+    }
+
+    /**
+     * 移除已完全补满的桶
+     */
+    @Scheduled(fixedDelayString = "${invite-code.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    int evictIdle(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        int removed = Math.max(before - buckets.size(), 0);
+        if (removed > 0) {
+            evicted.add(removed);
+            log.debug("清理空闲限流桶: {}, 剩余: {}", removed, buckets.size());
+        }
+        return removed;
+    }
+
+    public RateLimitStatsDto getStats() {
+        RateLimitStatsDto stats = new RateLimitStatsDto();
+        stats.setEnabled(enabled);
+        stats.setPermitsPerSecond(permitsPerSecond);
+        stats.setBurst(burst);
+        stats.setMaxClients(maxClients);
+        stats.setTrackedClients(buckets.size());
+        stats.setAllowed(allowed.sum());
+        stats.setRejected(rejected.sum());
+        stats.setDisplaced(displaced.sum());
+        stats.setEvicted(evicted.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,19 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.CodeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CodeSequenceRepository extends JpaRepository<CodeSequence, String> {
+
+    @Modifying
+    @Query("UPDATE CodeSequence s SET s.nextValue = s.nextValue + :size WHERE s.name = :name")
+    int increment(@Param("name") String name, @Param("size") long size);
+
+    @Query("SELECT s.nextValue FROM CodeSequence s WHERE s.name = :name")
+    long findNextValue(@Param("name") String name);
+}
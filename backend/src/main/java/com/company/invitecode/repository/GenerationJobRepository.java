@@ -0,0 +1,22 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.GenerationJob;
+import com.company.invitecode.model.GenerationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, Long> {
+
+    List<GenerationJob> findByStatusInOrderByIdAsc(Collection<GenerationJobStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE GenerationJob j SET j.generatedCount = j.generatedCount + :delta WHERE j.id = :id")
+    int incrementGeneratedCount(@Param("id") Long id, @Param("delta") int delta);
+}
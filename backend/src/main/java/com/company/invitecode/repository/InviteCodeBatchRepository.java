@@ -0,0 +1,59 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.InviteCodeBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface InviteCodeBatchRepository extends JpaRepository<InviteCodeBatch, String> {
+
+    @Query("SELECT b.batchId FROM InviteCodeBatch b WHERE b.redemptionQuota IS NOT NULL")
+    List<String> findBatchIdsWithQuota();
+
+    /**
+     * 以行锁读取批次，配额租借在同一事务内完成读取与累加
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM InviteCodeBatch b WHERE b.batchId = :batchId")
+    Optional<InviteCodeBatch> findForUpdate(@Param("batchId") String batchId);
+
+    @Modifying
+    @Query("UPDATE InviteCodeBatch b SET b.leasedRedemptions = b.leasedRedemptions + :delta WHERE b.batchId = :batchId")
+    int addLeasedRedemptions(@Param("batchId") String batchId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE InviteCodeBatch b SET b.issuedCount = b.issuedCount + :delta WHERE b.batchId = :batchId")
+    int addIssuedCount(@Param("batchId") String batchId, @Param("delta") long delta);
+
+    @Query("SELECT b.batchId FROM InviteCodeBatch b ORDER BY b.batchId")
+    List<String> findAllBatchIds();
+
+    /**
+     * 为只存在于邀请码表中的历史批次补建批次记录
+     */
+    @Modifying
+    @Query(value = "INSERT INTO invite_code_batches (batch_id, description, created_by, created_at) "
+            + "SELECT c.batch_id, MIN(c.description), MIN(c.created_by), MIN(c.created_at) FROM invite_codes c "
+            + "WHERE c.batch_id IS NOT NULL "
+            + "AND NOT EXISTS (SELECT 1 FROM invite_code_batches b WHERE b.batch_id = c.batch_id) "
+            + "GROUP BY c.batch_id", nativeQuery = true)
+    int insertMissingBatches();
+
+    /**
+     * 根据邀请码表重新计算批次的已生成与已使用数量
+     */
+    @Modifying
+    @Query(value = "UPDATE invite_code_batches SET "
+            + "issued_count = (SELECT COUNT(*) FROM invite_codes c WHERE c.batch_id = :batchId), "
+            + "used_codes = (SELECT COUNT(*) FROM invite_codes c WHERE c.batch_id = :batchId AND c.usage_count > 0) "
+            + "WHERE batch_id = :batchId", nativeQuery = true)
+    int recomputeCounts(@Param("batchId") String batchId);
+}
@@ -0,0 +1,282 @@
+package com.company.invitecode.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 邀请码批量写入仓库
+ * 绕过Hibernate，使用多行 INSERT IGNORE 语句按块写入邀请码，
+ * 邀请码的唯一性由 code 列的唯一约束保证，冲突行被数据库忽略并由调用方重试。
+ */
+@Repository
+public class InviteCodeBulkRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT IGNORE INTO invite_codes (code, batch_id, description, created_at, created_by, is_active, "
+                    + "max_uses, remaining_uses, expires_at) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 兑换受限邀请码：启用、未过期且仍有剩余次数时剩余次数减一，条件判断与递减在同一条语句中原子完成
+     */
+    private static final String REDEEM_SQL = "UPDATE invite_codes SET remaining_uses = remaining_uses - 1 "
+            + "WHERE id = ? AND is_active = ? AND (expires_at IS NULL OR expires_at > ?) "
+            + "AND (remaining_uses IS NULL OR remaining_uses > 0)";
+
+    private static final String STREAM_CODE_STATES_SQL = "SELECT c.id, c.code, c.is_active, "
+            + "(c.max_uses IS NOT NULL OR c.expires_at IS NOT NULL OR b.redemption_quota IS NOT NULL) AS restricted "
+            + "FROM invite_codes c LEFT JOIN invite_code_batches b ON b.batch_id = c.batch_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${invite-code.bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${invite-code.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    public InviteCodeBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 批量写入同一批次的邀请码，已存在的邀请码会被跳过
+     *
+     * @param batchId 批次ID
+     * @param description 描述
+     * @param createdBy 创建人
+     * @param createdAt 创建时间
+     * @param maxUses 最大使用次数，null表示不限
+     * @param expiresAt 过期时间，null表示永不过期
+     * @param codes 待写入的邀请码（调用方保证互不重复）
+     * @return 本次实际写入的邀请码及其ID，未出现在结果中的邀请码即为冲突行
+     */
+    public Map<String, Long> insertIgnoringDuplicates(String batchId, String description, String createdBy,
+                                                      LocalDateTime createdAt, Integer maxUses,
+                                                      LocalDateTime expiresAt, List<String> codes) {
+        Map<String, Long> inserted = new LinkedHashMap<>(codes.size() * 2);
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        Timestamp expiresAtTimestamp = expiresAt == null ? null : Timestamp.valueOf(expiresAt);
+        for (int from = 0; from < codes.size(); from += chunkSize) {
+            List<String> chunk = codes.subList(from, Math.min(from + chunkSize, codes.size()));
+            Long firstId = insertChunk(batchId, description, createdBy, timestamp, maxUses, expiresAtTimestamp, chunk);
+            if (firstId != null) {
+                collectInserted(batchId, firstId, chunk, inserted);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * 执行一条多行插入语句
+     *
+     * @return 本条语句生成的最小ID，没有任何行写入时返回null
+     */
+    private Long insertChunk(String batchId, String description, String createdBy, Timestamp createdAt,
+                             Integer maxUses, Timestamp expiresAt, List<String> chunk) {
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        int affected = jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, new String[]{"id"});
+            int index = 1;
+            for (String code : chunk) {
+                ps.setString(index++, code);
+                ps.setString(index++, batchId);
+                ps.setString(index++, description);
+                ps.setTimestamp(index++, createdAt);
+                ps.setString(index++, createdBy);
+                ps.setBoolean(index++, true);
+                ps.setObject(index++, maxUses, Types.INTEGER);
+                ps.setObject(index++, maxUses, Types.INTEGER);
+                ps.setTimestamp(index++, expiresAt);
+            }
+            return ps;
+        }, keyHolder);
+
+        if (affected == 0) {
+            return null;
+        }
+        Long firstId = null;
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            for (Object key : keys.values()) {
+                long id = ((Number) key).longValue();
+                if (firstId == null || id < firstId) {
+                    firstId = id;
+                }
+            }
+        }
+        return firstId;
+    }
+
+    /**
+     * 查询本条语句实际写入的行
+     * 同一语句分配的自增ID不小于其首个ID，而之前写入的同批次行ID一定更小，据此排除它们。
+     */
+    private void collectInserted(String batchId, long firstId, List<String> chunk, Map<String, Long> inserted) {
+        String sql = "SELECT id, code FROM invite_codes WHERE batch_id = ? AND id >= ? AND code IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+        Object[] args = new Object[chunk.size() + 2];
+        args[0] = batchId;
+        args[1] = firstId;
+        for (int i = 0; i < chunk.size(); i++) {
+            args[i + 2] = chunk.get(i);
+        }
+        jdbcTemplate.query(sql, rs -> {
+            inserted.put(rs.getString("code"), rs.getLong("id"));
+        }, args);
+    }
+
+    /**
+     * 以只进游标逐行读取批次内的邀请码，不创建实体对象
+     * MySQL驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行流式返回结果，内存占用与批次大小无关。
+     *
+     * @param batchId 批次ID
+     * @param handler 行处理器，列依次为 id, code, batch_id, description, created_at, created_by, is_active
+     */
+    public void streamByBatchId(String batchId, RowCallbackHandler handler) {
+        String sql = "SELECT id, code, batch_id, description, created_at, created_by, is_active "
+                + "FROM invite_codes WHERE batch_id = ? ORDER BY id";
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            ps.setString(1, batchId);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * 以只进游标逐个读取全部邀请码字符串，用于构建内存索引
+     *
+     * @param consumer 邀请码处理器
+     */
+    public void streamAllCodes(Consumer<String> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT code FROM invite_codes",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+
+    /**
+     * 以只进游标读取全部邀请码的ID、邀请码、启用状态与是否受限，用于构建内存校验索引
+     *
+     * @param handler 行处理器，列依次为 id, code, is_active, restricted（有次数、有效期或批次配额限制）
+     */
+    public void streamCodeStates(RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_CODE_STATES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(exportFetchSize);
+            return ps;
+        }, handler);
+    }
+
+    /**
+     * 以一条IN查询读取一组邀请码的状态
+     *
+     * @param codes 邀请码
+     * @param handler 行处理器，列依次为 id, code, batch_id, is_active, usage_count, last_used_at,
+     *                remaining_uses, expires_at
+     */
+    public void findStatesByCodes(List<String> codes, RowCallbackHandler handler) {
+        String sql = "SELECT id, code, batch_id, is_active, usage_count, last_used_at, remaining_uses, expires_at "
+                + "FROM invite_codes WHERE code IN ("
+                + String.join(", ", Collections.nCopies(codes.size(), "?")) + ")";
+        jdbcTemplate.query(sql, handler, codes.toArray());
+    }
+
+    /**
+     * 以一条IN查询读取一组邀请码所属的批次
+     *
+     * @param ids 邀请码ID
+     * @return 邀请码ID到批次ID的映射，不存在的邀请码不在结果中
+     */
+    public Map<Long, String> findBatchIds(Collection<Long> ids) {
+        Map<Long, String> batchIds = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return batchIds;
+        }
+        String sql = "SELECT id, batch_id FROM invite_codes WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> batchIds.put(rs.getLong(1), rs.getString(2)), ids.toArray());
+        return batchIds;
+    }
+
+    /**
+     * 以一条UPDATE语句修改一组邀请码的启用状态，已是目标状态的邀请码不计入结果
+     *
+     * @param ids 邀请码ID
+     * @param active 目标启用状态
+     * @return 实际修改的行数
+     */
+    public int updateActive(Collection<Long> ids, boolean active) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE invite_codes SET is_active = ? WHERE is_active = ? AND id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = new Object[ids.size() + 2];
+        args[0] = active;
+        args[1] = !active;
+        int index = 2;
+        for (Long id : ids) {
+            args[index++] = id;
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+
+    /**
+     * 以一条条件UPDATE兑换一次受限邀请码，不加悲观锁
+     * 并发兑换同一邀请码时InnoDB只在语句执行期间串行化这一行，剩余次数为0后条件不再满足，不会超发。
+     *
+     * @param id 邀请码ID
+     * @param now 兑换时间
+     * @return 是否兑换成功
+     */
+    public boolean redeem(long id, LocalDateTime now) {
+        return jdbcTemplate.update(REDEEM_SQL, id, true, Timestamp.valueOf(now)) == 1;
+    }
+
+    /**
+     * 以一条UPDATE语句将一组邀请码的过期时间设为指定时间，已过期的邀请码不计入结果
+     *
+     * @param ids 邀请码ID
+     * @param now 过期时间
+     * @return 实际修改的行数
+     */
+    public int expire(Collection<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE invite_codes SET expires_at = ? WHERE (expires_at IS NULL OR expires_at > ?) AND id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Object[] args = new Object[ids.size() + 2];
+        args[0] = timestamp;
+        args[1] = timestamp;
+        int index = 2;
+        for (Long id : ids) {
+            args[index++] = id;
+        }
+        return jdbcTemplate.update(sql, args);
+    }
+}
@@ -1,16 +1,25 @@
 package com.company.invitecode.repository;
 
+import com.company.invitecode.dto.InviteCodeDto;
 import com.company.invitecode.model.InviteCode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InviteCodeRepository extends JpaRepository<InviteCode, Long> {
     
+    String SELECT_DTO = "SELECT new com.company.invitecode.dto.InviteCodeDto(c.id, c.code, c.batchId, c.description, "
+            + "c.createdAt, c.createdBy, c.active, c.usageCount, c.lastUsedAt, c.maxUses, c.remainingUses, c.expiresAt) "
+            + "FROM InviteCode c ";
+    
     Optional<InviteCode> findByCode(String code);
     
     boolean existsByCode(String code);
@@ -18,4 +27,24 @@ public interface InviteCodeRepository extends JpaRepository<InviteCode, Long> {
     Page<InviteCode> findByBatchId(String batchId, Pageable pageable);
     
     Page<InviteCode> findByActive(boolean isActive, Pageable pageable);
+    
+    /**
+     * 分页查询邀请码列表，直接投影为DTO（使用次数取自冗余列），每页固定一条查询加一条计数
+     */
+    @Query(value = SELECT_DTO, countQuery = "SELECT COUNT(c) FROM InviteCode c")
+    Page<InviteCodeDto> findAllAsDto(Pageable pageable);
+    
+    /**
+     * 游标分页第一页，按 (created_at, id) 倒序，走 idx_invite_codes_created_at_id 索引
+     */
+    @Query(SELECT_DTO + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<InviteCodeDto> findFirstPageAsDto(Pageable limit);
+    
+    /**
+     * 游标分页后续页，从上一页最后一行之后继续
+     */
+    @Query(SELECT_DTO + "WHERE c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<InviteCodeDto> findPageAfterAsDto(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                           Pageable limit);
 } 
\ No newline at end of file
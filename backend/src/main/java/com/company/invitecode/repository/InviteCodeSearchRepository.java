@@ -0,0 +1,236 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
+import com.company.invitecode.util.PageCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 邀请码多条件搜索仓库
+ * 根据给出的条件选择最匹配的复合索引，结果统一按 (created_at, id) 倒序做游标分页：
+ * 选中的索引中 created_at 之前的列都是等值条件（InnoDB二级索引隐含主键id），
+ * 因此排序和游标条件都能在索引上完成，LIMIT 读够一页即停止。
+ * 只按批次搜索时使用 (batch_id, created_at, id)，同时给出启用状态时使用 (batch_id, is_active, created_at)；
+ * 其他条件作为剩余过滤条件。描述文本无法使用B树索引；只给出邀请码前缀时按 code 范围扫描，
+ * 需要对匹配的行排序，前缀越短代价越高。
+ *
+ * <p>MySQL统计信息偏差时可能为带LIMIT的排序查询选择全表扫描，开启 invite-code.search.index-hints
+ * 后会以 FORCE INDEX 固定选中的索引。</p>
+ */
+@Repository
+public class InviteCodeSearchRepository {
+
+    static final String INDEX_BATCH = "idx_invite_codes_batch_created";
+    static final String INDEX_BATCH_ACTIVE = "idx_invite_codes_batch_active_created";
+    static final String INDEX_CREATOR = "idx_invite_codes_creator_created";
+    static final String INDEX_ACTIVE = "idx_invite_codes_active_created";
+    static final String INDEX_CREATED = "idx_invite_codes_created_at_id";
+
+    private static final String SELECT_COLUMNS =
+            "SELECT id, code, batch_id, description, created_at, created_by, is_active, usage_count, last_used_at, "
+                    + "max_uses, remaining_uses, expires_at FROM invite_codes";
+
+    private static final RowMapper<InviteCodeDto> ROW_MAPPER = (rs, rowNum) -> {
+        return new InviteCodeDto(rs.getLong("id"), rs.getString("code"), rs.getString("batch_id"),
+                rs.getString("description"), rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getString("created_by"), rs.getBoolean("is_active"), rs.getInt("usage_count"),
+                toLocalDateTime(rs.getTimestamp("last_used_at")), rs.getObject("max_uses", Integer.class),
+                rs.getObject("remaining_uses", Integer.class), toLocalDateTime(rs.getTimestamp("expires_at")));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${invite-code.search.index-hints:false}")
+    private boolean indexHints;
+
+    public InviteCodeSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 搜索邀请码
+     *
+     * @param criteria 搜索条件
+     * @param after 上一页最后一行的位置，第一页为null
+     * @param limit 最多返回的行数
+     * @return 按 (created_at, id) 倒序的邀请码
+     */
+    public List<InviteCodeDto> search(InviteCodeSearchRequest criteria, PageCursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS);
+        String index = chooseIndex(criteria);
+        if (indexHints && index != null) {
+            sql.append(" FORCE INDEX (").append(index).append(')');
+        }
+        List<String> predicates = buildPredicates(criteria, args);
+        if (after != null) {
+            Timestamp createdAt = Timestamp.valueOf(after.getTimestamp());
+            predicates.add("created_at <= ? AND (created_at < ? OR id < ?)");
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(after.getId());
+        }
+        appendWhere(sql, predicates);
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * 统计符合条件的邀请码数量
+     */
+    public long count(InviteCodeSearchRequest criteria) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM invite_codes");
+        appendWhere(sql, buildPredicates(criteria, args));
+        Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * 按ID顺序查找符合条件且启用状态不是目标状态的邀请码，供批量启用/禁用分块处理
+     *
+     * @param criteria 筛选条件
+     * @param active 目标启用状态
+     * @param afterId 只返回ID大于该值的邀请码
+     * @param limit 最多返回的行数
+     * @return 邀请码ID到邀请码的映射，按ID升序
+     */
+    public Map<Long, String> findIdsToChange(InviteCodeSearchRequest criteria, boolean active, long afterId,
+                                             int limit) {
+        List<Object> args = new ArrayList<>();
+        List<String> predicates = buildPredicates(criteria, args);
+        predicates.add("is_active = ?");
+        args.add(!active);
+        predicates.add("id > ?");
+        args.add(afterId);
+        StringBuilder sql = new StringBuilder("SELECT id, code FROM invite_codes");
+        appendWhere(sql, predicates);
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+
+        Map<Long, String> codes = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            codes.put(rs.getLong("id"), rs.getString("code"));
+        }, args.toArray());
+        return codes;
+    }
+
+    /**
+     * 按ID顺序查找符合条件且尚未过期的邀请码，供批量过期分块处理
+     *
+     * @param criteria 筛选条件
+     * @param now 过期时间点
+     * @param afterId 只返回ID大于该值的邀请码
+     * @param limit 最多返回的行数
+     * @return 邀请码ID到邀请码的映射，按ID升序
+     */
+    public Map<Long, String> findIdsToExpire(InviteCodeSearchRequest criteria, LocalDateTime now, long afterId,
+                                             int limit) {
+        List<Object> args = new ArrayList<>();
+        List<String> predicates = buildPredicates(criteria, args);
+        predicates.add("(expires_at IS NULL OR expires_at > ?)");
+        args.add(Timestamp.valueOf(now));
+        predicates.add("id > ?");
+        args.add(afterId);
+        StringBuilder sql = new StringBuilder("SELECT id, code FROM invite_codes");
+        appendWhere(sql, predicates);
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+
+        Map<Long, String> codes = new LinkedHashMap<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            codes.put(rs.getLong("id"), rs.getString("code"));
+        }, args.toArray());
+        return codes;
+    }
+
+    /**
+     * 按条件的选择性选择索引：批次 &gt; 创建人 &gt; 启用状态 &gt; 仅按创建时间
+     * 批次索引按是否给出启用状态区分，保证 created_at 之前的列都是等值条件。
+     * 只给出邀请码前缀时返回null，由优化器使用 code 唯一索引做范围扫描。
+     */
+    static String chooseIndex(InviteCodeSearchRequest criteria) {
+        if (hasText(criteria.getBatchId())) {
+            return criteria.getActive() != null ? INDEX_BATCH_ACTIVE : INDEX_BATCH;
+        }
+        if (hasText(criteria.getCreatedBy())) {
+            return INDEX_CREATOR;
+        }
+        if (hasText(criteria.getCodePrefix())) {
+            return null;
+        }
+        if (criteria.getActive() != null) {
+            return INDEX_ACTIVE;
+        }
+        return INDEX_CREATED;
+    }
+
+    private static List<String> buildPredicates(InviteCodeSearchRequest criteria, List<Object> args) {
+        List<String> predicates = new ArrayList<>();
+        if (hasText(criteria.getBatchId())) {
+            predicates.add("batch_id = ?");
+            args.add(criteria.getBatchId());
+        }
+        if (hasText(criteria.getCreatedBy())) {
+            predicates.add("created_by = ?");
+            args.add(criteria.getCreatedBy());
+        }
+        if (criteria.getActive() != null) {
+            predicates.add("is_active = ?");
+            args.add(criteria.getActive());
+        }
+        if (hasText(criteria.getCodePrefix())) {
+            predicates.add("code LIKE ?");
+            args.add(escapeLike(criteria.getCodePrefix()) + "%");
+        }
+        if (criteria.getCreatedFrom() != null) {
+            predicates.add("created_at >= ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedFrom()));
+        }
+        if (criteria.getCreatedTo() != null) {
+            predicates.add("created_at < ?");
+            args.add(Timestamp.valueOf(criteria.getCreatedTo()));
+        }
+        if (hasText(criteria.getDescription())) {
+            predicates.add("description LIKE ?");
+            args.add("%" + escapeLike(criteria.getDescription()) + "%");
+        }
+        return predicates;
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> predicates) {
+        if (!predicates.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", predicates));
+        }
+    }
+
+    /**
+     * @return 是否至少给出了一个筛选条件
+     */
+    public static boolean hasAnyCriteria(InviteCodeSearchRequest criteria) {
+        return !buildPredicates(criteria, new ArrayList<>()).isEmpty();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
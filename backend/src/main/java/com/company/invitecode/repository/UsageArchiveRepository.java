@@ -0,0 +1,127 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.usage.ArchivedUsageRecord;
+import com.company.invitecode.util.IpAddressCodec;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 使用记录归档仓库
+ * 按 (used_at, id) 键集分页读取一个月份的记录，利用 used_at 索引（InnoDB二级索引隐含主键），
+ * 每个分块只读取 limit 行，与表的大小无关。归档文件中的IP地址与User-Agent还原为文本，不依赖字典表。
+ *
+ * <p>usage_records 按月分区（见 db/usage_records_partitioning.sql）后，已归档月份的分区直接删除；
+ * 未分区时按ID删除已归档的记录。</p>
+ */
+@Repository
+public class UsageArchiveRepository {
+
+    /** 分区表的最后一个分区，容纳尚未建立月份分区的记录 */
+    public static final String MAX_PARTITION = "pmax";
+
+    private static final String CHUNK_SQL =
+            "SELECT r.id, r.invite_code_id, r.user_id, r.ip, a.user_agent, r.used_at FROM usage_records r "
+                    + "LEFT JOIN user_agents a ON a.id = r.user_agent_id "
+                    + "WHERE r.used_at >= ? AND r.used_at < ? AND (r.used_at > ? OR (r.used_at = ? AND r.id > ?)) "
+                    + "ORDER BY r.used_at, r.id LIMIT ?";
+
+    private static final String ADD_ARCHIVED_SQL =
+            "UPDATE invite_codes SET archived_usage_count = archived_usage_count + ? WHERE id = ?";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'usage_records' AND PARTITION_NAME IS NOT NULL "
+                    + "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UsageArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return usage_records 的分区名称，按分区顺序排列；不是MySQL或未分区时返回空列表
+     */
+    public List<String> findPartitionNames() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+    }
+
+    /**
+     * 从 pmax 中拆分出一个月份分区
+     *
+     * @param name 分区名称
+     * @param upperBound 分区上界（不含），即下一个月的第一天
+     */
+    public void addPartition(String name, LocalDate upperBound) {
+        jdbcTemplate.execute("ALTER TABLE usage_records REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                + "PARTITION " + name + " VALUES LESS THAN (TO_DAYS('" + upperBound + "')), "
+                + "PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE usage_records DROP PARTITION " + name);
+    }
+
+    public long countPartition(String partition) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usage_records PARTITION (" + partition + ")", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return 最早的使用时间，没有记录时返回null
+     */
+    public LocalDateTime findOldestUsedAt() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(used_at) FROM usage_records", Timestamp.class);
+        return oldest == null ? null : oldest.toLocalDateTime();
+    }
+
+    /**
+     * 读取 [from, to) 内位于 (afterUsedAt, afterId) 之后的一个分块
+     */
+    public List<ArchivedUsageRecord> findChunk(LocalDateTime from, LocalDateTime to,
+                                               LocalDateTime afterUsedAt, long afterId, int limit) {
+        Timestamp after = Timestamp.valueOf(afterUsedAt);
+        return jdbcTemplate.query(CHUNK_SQL, (rs, rowNum) -> {
+            ArchivedUsageRecord record = new ArchivedUsageRecord();
+            record.setId(rs.getLong(1));
+            record.setInviteCodeId(rs.getLong(2));
+            record.setUserId(rs.getString(3));
+            record.setIpAddress(IpAddressCodec.decode(rs.getBytes(4)));
+            record.setUserAgent(rs.getString(5));
+            record.setUsedAt(rs.getTimestamp(6).toLocalDateTime());
+            return record;
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to), after, after, afterId, limit);
+    }
+
+    /**
+     * 累加邀请码的已归档使用次数，按ID顺序更新
+     *
+     * @param counts 按邀请码ID排序的归档数量
+     */
+    public void addArchivedCounts(Map<Long, Integer> counts) {
+        List<Object[]> args = new ArrayList<>(counts.size());
+        counts.forEach((id, count) -> args.add(new Object[]{count, id}));
+        jdbcTemplate.batchUpdate(ADD_ARCHIVED_SQL, args);
+    }
+
+    public int deleteByIds(List<Long> ids) {
+        String sql = "DELETE FROM usage_records WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        return jdbcTemplate.update(sql, ids.toArray());
+    }
+}
@@ -0,0 +1,13 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.UsageArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UsageArchiveSegmentRepository extends JpaRepository<UsageArchiveSegment, String> {
+
+    List<UsageArchiveSegment> findAllByOrderByMonthAsc();
+}
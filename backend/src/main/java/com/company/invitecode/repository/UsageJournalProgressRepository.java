@@ -0,0 +1,9 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.UsageJournalProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UsageJournalProgressRepository extends JpaRepository<UsageJournalProgress, String> {
+}
@@ -0,0 +1,150 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.usage.PendingUsageRecord;
+import com.company.invitecode.util.IpAddressCodec;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 使用记录批量写入仓库
+ * 使用JDBC批处理写入，MySQL连接开启 rewriteBatchedStatements 后驱动会合并为多行INSERT。
+ * 同时维护 invite_codes 表上冗余的使用次数与最后使用时间，以及批次上已使用的邀请码数量。
+ */
+@Repository
+public class UsageRecordBulkRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO usage_records (invite_code_id, user_id, ip, user_agent_id, used_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_SQL =
+            "UPDATE invite_codes SET usage_count = usage_count + ?, "
+                    + "last_used_at = CASE WHEN last_used_at IS NULL OR last_used_at < ? THEN ? ELSE last_used_at END "
+                    + "WHERE id = ?";
+
+    private static final String ADD_USED_CODES_SQL =
+            "UPDATE invite_code_batches SET used_codes = used_codes + ? WHERE batch_id = ?";
+
+    /**
+     * 已归档的记录不在表中，使用次数加上归档数量；最后使用时间在表中没有记录时保留原值
+     */
+    private static final String RECOMPUTE_SQL =
+            "UPDATE invite_codes SET "
+                    + "usage_count = archived_usage_count "
+                    + "+ (SELECT COUNT(*) FROM usage_records r WHERE r.invite_code_id = invite_codes.id), "
+                    + "last_used_at = COALESCE("
+                    + "(SELECT MAX(r.used_at) FROM usage_records r WHERE r.invite_code_id = invite_codes.id), last_used_at) "
+                    + "WHERE id BETWEEN ? AND ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UsageRecordBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 批量写入使用记录，IP地址以二进制形式保存，User-Agent只保存字典ID
+     *
+     * @param records 使用记录
+     * @param userAgentIds User-Agent到字典ID的映射，见 {@link com.company.invitecode.usage.UserAgentDictionary}
+     */
+    public void insertBatch(List<PendingUsageRecord> records, Map<String, Long> userAgentIds) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, record) -> {
+            ps.setLong(1, record.getInviteCodeId());
+            ps.setString(2, record.getUserId());
+            ps.setBytes(3, IpAddressCodec.encode(record.getIpAddress()));
+            Long userAgentId = record.getUserAgent() == null ? null : userAgentIds.get(record.getUserAgent());
+            if (userAgentId == null) {
+                ps.setNull(4, Types.BIGINT);
+            } else {
+                ps.setLong(4, userAgentId);
+            }
+            ps.setTimestamp(5, Timestamp.valueOf(record.getUsedAt()));
+        });
+    }
+
+    /**
+     * 按邀请码汇总使用记录后累加使用次数，每个邀请码只执行一条UPDATE
+     * 按ID顺序更新，并发事务以相同顺序加锁，避免死锁。
+     *
+     * @param records 本次写入的使用记录
+     */
+    public void incrementUsageCounts(List<PendingUsageRecord> records) {
+        Map<Long, UsageDelta> deltas = new TreeMap<>();
+        for (PendingUsageRecord record : records) {
+            deltas.computeIfAbsent(record.getInviteCodeId(), id -> new UsageDelta()).add(record.getUsedAt());
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, UsageDelta> entry : deltas.entrySet()) {
+            Timestamp lastUsedAt = Timestamp.valueOf(entry.getValue().lastUsedAt);
+            args.add(new Object[]{entry.getValue().count, lastUsedAt, lastUsedAt, entry.getKey()});
+        }
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, args);
+        countFirstUses(deltas);
+    }
+
+    /**
+     * 根据 usage_records 重新计算ID区间内邀请码的使用次数与最后使用时间
+     *
+     * @param fromId 起始ID（含）
+     * @param toId 结束ID（含）
+     * @return 处理的邀请码数量
+     */
+    public int recomputeUsageCounts(long fromId, long toId) {
+        return jdbcTemplate.update(RECOMPUTE_SQL, fromId, toId);
+    }
+
+    /**
+     * @return 邀请码ID的最小值与最大值，没有邀请码时返回null
+     */
+    public long[] findInviteCodeIdRange() {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM invite_codes", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+    }
+
+    /**
+     * 累加后使用次数恰好等于本次增量的邀请码在本次之前未被使用过，按批次累加已使用的邀请码数量
+     * 累加语句已锁定这些行，其他事务的并发累加只能在本事务提交后进行，判定不会重复。
+     */
+    private void countFirstUses(Map<Long, UsageDelta> deltas) {
+        String sql = "SELECT id, batch_id, usage_count FROM invite_codes WHERE id IN ("
+                + String.join(", ", Collections.nCopies(deltas.size(), "?")) + ")";
+        Map<String, Integer> firstUses = new TreeMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            String batchId = rs.getString(2);
+            if (batchId != null && rs.getLong(3) == deltas.get(rs.getLong(1)).count) {
+                firstUses.merge(batchId, 1, Integer::sum);
+            }
+        }, deltas.keySet().toArray());
+        if (firstUses.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(firstUses.size());
+        firstUses.forEach((batchId, count) -> args.add(new Object[]{count, batchId}));
+        jdbcTemplate.batchUpdate(ADD_USED_CODES_SQL, args);
+    }
+
+    private static final class UsageDelta {
+        private int count;
+        private LocalDateTime lastUsedAt;
+
+        private void add(LocalDateTime usedAt) {
+            count++;
+            if (lastUsedAt == null || usedAt.isAfter(lastUsedAt)) {
+                lastUsedAt = usedAt;
+            }
+        }
+    }
+}
@@ -1,17 +1,27 @@
 package com.company.invitecode.repository;
 
+import com.company.invitecode.dto.UsageRecordDto;
 import com.company.invitecode.model.InviteCode;
 import com.company.invitecode.model.UsageRecord;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface UsageRecordRepository extends JpaRepository<UsageRecord, Long> {
     
+    /**
+     * User-Agent从字典表中还原，IP地址由DTO构造器转换为文本
+     */
+    String SELECT_DTO = "SELECT new com.company.invitecode.dto.UsageRecordDto(r.id, r.userId, r.ipAddress, "
+            + "a.value, r.usedAt) FROM UsageRecord r LEFT JOIN r.userAgent a WHERE r.inviteCode.id = :codeId ";
+    
     List<UsageRecord> findByInviteCode(InviteCode inviteCode);
     
     Page<UsageRecord> findByInviteCode(InviteCode inviteCode, Pageable pageable);
@@ -19,4 +29,27 @@ public interface UsageRecordRepository extends JpaRepository<UsageRecord, Long>
     Page<UsageRecord> findByUserId(String userId, Pageable pageable);
     
     int countByInviteCode(InviteCode inviteCode);
+    
+    /**
+     * 统计邀请码在 usage_records 中的记录数，走 idx_usage_records_code_used_at 索引
+     */
+    @Query("SELECT COUNT(r) FROM UsageRecord r WHERE r.inviteCode.id = :codeId")
+    long countByCodeId(@Param("codeId") Long codeId);
+    
+    @Query(value = SELECT_DTO, countQuery = "SELECT COUNT(r) FROM UsageRecord r WHERE r.inviteCode.id = :codeId")
+    Page<UsageRecordDto> findPageAsDto(@Param("codeId") Long codeId, Pageable pageable);
+    
+    /**
+     * 游标分页第一页，按 (used_at, id) 倒序，走 idx_usage_records_code_used_at 索引
+     */
+    @Query(SELECT_DTO + "ORDER BY r.usedAt DESC, r.id DESC")
+    List<UsageRecordDto> findFirstPageAsDto(@Param("codeId") Long codeId, Pageable limit);
+    
+    /**
+     * 游标分页后续页，从上一页最后一行之后继续
+     */
+    @Query(SELECT_DTO + "AND r.usedAt <= :usedAt AND (r.usedAt < :usedAt OR r.id < :id) "
+            + "ORDER BY r.usedAt DESC, r.id DESC")
+    List<UsageRecordDto> findPageAfterAsDto(@Param("codeId") Long codeId, @Param("usedAt") LocalDateTime usedAt,
+                                            @Param("id") long id, Pageable limit);
 } 
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.index.HyperLogLog;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.usage.RollupKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * 使用统计汇总写入仓库
+ * 以 INSERT ... ON DUPLICATE KEY UPDATE 合并累加，汇总行不存在时插入，存在时原地累加，不需要先查询。
+ * 用户草图无法在SQL中合并，已存在时加行锁读出、在内存中合并后写回。
+ */
+@Repository
+public class UsageRollupBulkRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO usage_rollups (granularity, batch_id, invite_code_id, bucket_start, usage_count) "
+                    + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE usage_count = usage_count + VALUES(usage_count)";
+
+    private static final String INSERT_SKETCH_SQL =
+            "INSERT IGNORE INTO usage_user_sketches (batch_id, bucket_start, registers) VALUES (?, ?, ?)";
+
+    private static final String LOCK_SKETCH_SQL =
+            "SELECT registers FROM usage_user_sketches WHERE batch_id = ? AND bucket_start = ? FOR UPDATE";
+
+    private static final String UPDATE_SKETCH_SQL =
+            "UPDATE usage_user_sketches SET registers = ? WHERE batch_id = ? AND bucket_start = ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM usage_rollups WHERE granularity = ? AND bucket_start < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UsageRollupBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 批量累加汇总行
+     * 按唯一索引顺序写入，多个实例并发刷新时以相同顺序加锁，避免死锁。
+     *
+     * @param deltas 汇总键到增量的有序映射
+     */
+    public void upsert(SortedMap<RollupKey, Long> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Map.Entry<RollupKey, Long> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            args.add(new Object[]{key.getGranularity().name(), key.getBatchId(), key.getInviteCodeId(),
+                    Timestamp.valueOf(key.getBucketStart()), entry.getValue()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    /**
+     * 将用户草图合并到已有草图，按唯一键顺序加锁
+     *
+     * @param sketches 汇总键（天粒度，邀请码ID为0）到草图的有序映射
+     */
+    public void mergeSketches(SortedMap<RollupKey, HyperLogLog> sketches) {
+        for (Map.Entry<RollupKey, HyperLogLog> entry : sketches.entrySet()) {
+            String batchId = entry.getKey().getBatchId();
+            Timestamp bucketStart = Timestamp.valueOf(entry.getKey().getBucketStart());
+            HyperLogLog sketch = entry.getValue();
+            if (jdbcTemplate.update(INSERT_SKETCH_SQL, batchId, bucketStart, sketch.toBytes()) == 1) {
+                continue;
+            }
+            byte[] existing = jdbcTemplate.queryForObject(LOCK_SKETCH_SQL, byte[].class, batchId, bucketStart);
+            sketch.merge(existing);
+            jdbcTemplate.update(UPDATE_SKETCH_SQL, sketch.toBytes(), batchId, bucketStart);
+        }
+    }
+
+    /**
+     * 删除一批早于指定时间的汇总行
+     *
+     * @param granularity 粒度
+     * @param before 截止时间（不含）
+     * @param limit 本次最多删除的行数
+     * @return 删除的行数
+     */
+    public int purge(RollupGranularity granularity, LocalDateTime before, int limit) {
+        return jdbcTemplate.update(PURGE_SQL, granularity.name(), Timestamp.valueOf(before), limit);
+    }
+}
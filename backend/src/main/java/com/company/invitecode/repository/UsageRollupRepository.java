@@ -0,0 +1,28 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.dto.UsageBucketDto;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.model.UsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UsageRollupRepository extends JpaRepository<UsageRollup, Long> {
+
+    /**
+     * 按时间顺序读取一条汇总序列，没有使用的时间桶不返回
+     */
+    @Query("SELECT new com.company.invitecode.dto.UsageBucketDto(r.bucketStart, r.usageCount) FROM UsageRollup r "
+            + "WHERE r.granularity = :granularity AND r.batchId = :batchId AND r.inviteCodeId = :inviteCodeId "
+            + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<UsageBucketDto> findSeries(@Param("granularity") RollupGranularity granularity,
+                                    @Param("batchId") String batchId,
+                                    @Param("inviteCodeId") long inviteCodeId,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,136 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.dto.TopCodeDto;
+import com.company.invitecode.dto.UsageOverviewDto;
+import com.company.invitecode.index.HyperLogLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 使用统计查询仓库
+ * 只读取 usage_rollups、usage_user_sketches 和 invite_code_batches，行数取决于时间窗口和批次数量，与使用记录总量无关。
+ * 使用独立的 {@link JdbcTemplate} 设置语句超时，超过延迟预算的查询由数据库中止。
+ */
+@Repository
+public class UsageStatsRepository {
+
+    private static final String SUM_REDEMPTIONS_SQL =
+            "SELECT COALESCE(SUM(usage_count), 0) FROM usage_rollups WHERE granularity = 'DAY' "
+                    + "AND batch_id = ? AND invite_code_id = 0 AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String SKETCHES_SQL =
+            "SELECT registers FROM usage_user_sketches WHERE batch_id = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private static final String BATCH_RANKING_SQL =
+            "SELECT r.batch_id, SUM(r.usage_count) AS redemptions, MAX(b.issued_count), MAX(b.used_codes) "
+                    + "FROM usage_rollups r LEFT JOIN invite_code_batches b ON b.batch_id = r.batch_id "
+                    + "WHERE r.granularity = 'DAY' AND r.invite_code_id = 0 AND r.batch_id <> ? "
+                    + "AND r.bucket_start >= ? AND r.bucket_start < ? "
+                    + "GROUP BY r.batch_id ORDER BY redemptions DESC LIMIT ?";
+
+    private static final String TOP_CODES_SELECT =
+            "SELECT r.invite_code_id, c.code, r.batch_id, SUM(r.usage_count) AS redemptions "
+                    + "FROM usage_rollups r JOIN invite_codes c ON c.id = r.invite_code_id "
+                    + "WHERE r.granularity = 'DAY' AND r.invite_code_id > 0 "
+                    + "AND r.bucket_start >= ? AND r.bucket_start < ? ";
+
+    private static final String TOP_CODES_GROUP =
+            "GROUP BY r.invite_code_id, c.code, r.batch_id ORDER BY redemptions DESC LIMIT ?";
+
+    private static final String CONVERSION_SQL =
+            "SELECT COALESCE(SUM(issued_count), 0), COALESCE(SUM(used_codes), 0) FROM invite_code_batches";
+
+    private final DataSource dataSource;
+
+    @Value("${invite-code.stats.query-timeout-seconds:2}")
+    private int queryTimeoutSeconds;
+
+    private JdbcTemplate jdbcTemplate;
+
+    public UsageStatsRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setQueryTimeout(queryTimeoutSeconds);
+    }
+
+    /**
+     * 按天汇总累加时间窗口内的使用次数
+     */
+    public long sumRedemptions(String batchId, LocalDateTime from, LocalDateTime to) {
+        Long sum = jdbcTemplate.queryForObject(SUM_REDEMPTIONS_SQL, Long.class,
+                batchId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return sum == null ? 0 : sum;
+    }
+
+    /**
+     * 合并时间窗口内每天的用户草图
+     */
+    public HyperLogLog mergeUserSketches(String batchId, LocalDateTime from, LocalDateTime to) {
+        HyperLogLog merged = new HyperLogLog();
+        jdbcTemplate.query(SKETCHES_SQL, (RowCallbackHandler) rs -> merged.merge(rs.getBytes(1)),
+                batchId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return merged;
+    }
+
+    /**
+     * 时间窗口内使用次数最多的批次，附带批次的已生成与已使用邀请码数量
+     *
+     * @param excludedBatchId 不参与排名的批次ID（全部批次合计行）
+     */
+    public List<UsageOverviewDto> findBatchRanking(String excludedBatchId, LocalDateTime from, LocalDateTime to,
+                                                   int limit) {
+        return jdbcTemplate.query(BATCH_RANKING_SQL, (rs, rowNum) -> {
+            UsageOverviewDto dto = new UsageOverviewDto();
+            dto.setBatchId(rs.getString(1));
+            dto.setRedemptions(rs.getLong(2));
+            dto.setIssuedCodes(rs.getLong(3));
+            dto.setUsedCodes(rs.getLong(4));
+            return dto;
+        }, excludedBatchId, Timestamp.valueOf(from), Timestamp.valueOf(to), limit);
+    }
+
+    /**
+     * 时间窗口内使用次数最多的邀请码
+     *
+     * @param batchId 批次ID，null表示不限批次
+     */
+    public List<TopCodeDto> findTopCodes(String batchId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (batchId == null) {
+            return jdbcTemplate.query(TOP_CODES_SELECT + TOP_CODES_GROUP, (rs, rowNum) -> toTopCode(rs),
+                    Timestamp.valueOf(from), Timestamp.valueOf(to), limit);
+        }
+        return jdbcTemplate.query(TOP_CODES_SELECT + "AND r.batch_id = ? " + TOP_CODES_GROUP,
+                (rs, rowNum) -> toTopCode(rs), Timestamp.valueOf(from), Timestamp.valueOf(to), batchId, limit);
+    }
+
+    /**
+     * @param batchId 批次ID，null表示全部批次
+     * @return 已生成与已使用的邀请码数量
+     */
+    public long[] findConversion(String batchId) {
+        String sql = batchId == null ? CONVERSION_SQL : CONVERSION_SQL + " WHERE batch_id = ?";
+        Object[] args = batchId == null ? new Object[0] : new Object[]{batchId};
+        return jdbcTemplate.query(sql, rs -> {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2)};
+        }, args);
+    }
+
+    private static TopCodeDto toTopCode(ResultSet rs) throws SQLException {
+        return new TopCodeDto(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4));
+    }
+}
@@ -0,0 +1,52 @@
+package com.company.invitecode.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * User-Agent字典仓库
+ * 以 INSERT IGNORE 登记新的User-Agent，并发登记同一个值时由唯一索引去重，之后按摘要查询ID。
+ */
+@Repository
+public class UserAgentRepository {
+
+    private static final String INSERT_SQL = "INSERT IGNORE INTO user_agents (value_hash, user_agent) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserAgentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 登记字典中还没有的User-Agent
+     *
+     * @param entries 按摘要排序的摘要与User-Agent，并发事务以相同顺序加锁
+     */
+    public void insertIgnoringDuplicates(List<Map.Entry<byte[], String>> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (Map.Entry<byte[], String> entry : entries) {
+            args.add(new Object[]{entry.getKey(), entry.getValue()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    /**
+     * @param hashes User-Agent的摘要
+     * @return User-Agent到字典ID的映射
+     */
+    public Map<String, Long> findIdsByHash(List<byte[]> hashes) {
+        String sql = "SELECT id, user_agent FROM user_agents WHERE value_hash IN ("
+                + String.join(", ", Collections.nCopies(hashes.size(), "?")) + ")";
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> ids.put(rs.getString(2), rs.getLong(1)), hashes.toArray());
+        return ids;
+    }
+}
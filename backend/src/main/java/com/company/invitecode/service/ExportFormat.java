@@ -0,0 +1,42 @@
+package com.company.invitecode.service;
+
+/**
+ * 邀请码导出格式
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称解析导出格式，忽略大小写
+     *
+     * @param value 格式名称
+     * @return 导出格式
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat fromString(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + value);
+    }
+}
@@ -0,0 +1,26 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.GenerationJobDto;
+import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+
+import java.util.Optional;
+
+public interface GenerationJobService {
+
+    /**
+     * 提交邀请码生成任务，立即返回，任务在后台线程池中分块生成并提交
+     *
+     * @param request 生成请求参数
+     * @param createdBy 创建人
+     * @return 已提交的任务信息
+     */
+    GenerationJobDto submitJob(GenerateInviteCodeRequest request, String createdBy);
+
+    /**
+     * 获取生成任务的进度
+     *
+     * @param id 任务ID
+     * @return 任务信息
+     */
+    Optional<GenerationJobDto> getJob(Long id);
+}
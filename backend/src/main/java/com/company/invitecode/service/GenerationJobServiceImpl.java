@@ -0,0 +1,197 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.GenerationJobDto;
+import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.model.GenerationJob;
+import com.company.invitecode.model.GenerationJobStatus;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.repository.GenerationJobRepository;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 邀请码生成任务服务
+ * 每个分块在独立事务中写入邀请码并累加任务进度，因此任务在任意分块边界中断后都可以从已提交的进度恢复。
+ * 应用启动完成后会自动恢复未完成的任务（假定单实例部署）。
+ */
+@Service
+public class GenerationJobServiceImpl implements GenerationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationJobServiceImpl.class);
+
+    private static final List<GenerationJobStatus> UNFINISHED_STATUSES =
+            Arrays.asList(GenerationJobStatus.PENDING, GenerationJobStatus.RUNNING);
+
+    private final GenerationJobRepository generationJobRepository;
+    private final InviteCodeBulkWriter inviteCodeBulkWriter;
+    private final InviteCodeBatchRepository inviteCodeBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService generationJobExecutor;
+
+    @Value("${invite-code.generation.chunk-size:5000}")
+    private int chunkSize;
+
+    public GenerationJobServiceImpl(GenerationJobRepository generationJobRepository,
+                                    InviteCodeBulkWriter inviteCodeBulkWriter,
+                                    InviteCodeBatchRepository inviteCodeBatchRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Qualifier("generationJobExecutor") ExecutorService generationJobExecutor) {
+        this.generationJobRepository = generationJobRepository;
+        this.inviteCodeBulkWriter = inviteCodeBulkWriter;
+        this.inviteCodeBatchRepository = inviteCodeBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.generationJobExecutor = generationJobExecutor;
+    }
+
+    @Override
+    public GenerationJobDto submitJob(GenerateInviteCodeRequest request, String createdBy) {
+        GenerationJob job = new GenerationJob();
+        job.setBatchId(UUID.randomUUID().toString());
+        job.setDescription(request.getDescription());
+        job.setMaxUses(request.getMaxUses());
+        job.setExpiresAt(request.getExpiresAt());
+        job.setRequestedCount(request.getCount());
+        job.setCreatedBy(createdBy);
+        job.setStatus(GenerationJobStatus.PENDING);
+        GenerationJob savedJob = transactionTemplate.execute(status -> {
+            inviteCodeBatchRepository.save(new InviteCodeBatch(job.getBatchId(), job.getDescription(), createdBy));
+            return generationJobRepository.save(job);
+        });
+        log.info("提交邀请码生成任务: {}, 批次ID: {}, 数量: {}", savedJob.getId(), savedJob.getBatchId(), savedJob.getRequestedCount());
+
+        try {
+            Long jobId = savedJob.getId();
+            generationJobExecutor.execute(() -> runJob(jobId));
+        } catch (RejectedExecutionException e) {
+            log.warn("生成任务队列已满，拒绝任务: {}", savedJob.getId());
+            finishJob(savedJob.getId(), GenerationJobStatus.FAILED, "生成任务队列已满");
+            throw new IllegalStateException("生成任务队列已满，请稍后重试");
+        }
+        return convertToDto(savedJob);
+    }
+
+    @Override
+    public Optional<GenerationJobDto> getJob(Long id) {
+        return generationJobRepository.findById(id)
+                .map(this::convertToDto);
+    }
+
+    /**
+     * 应用启动完成后恢复未完成的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (GenerationJob job : generationJobRepository.findByStatusInOrderByIdAsc(UNFINISHED_STATUSES)) {
+            log.info("恢复邀请码生成任务: {}, 已生成: {}/{}", job.getId(), job.getGeneratedCount(), job.getRequestedCount());
+            try {
+                Long jobId = job.getId();
+                generationJobExecutor.execute(() -> runJob(jobId));
+            } catch (RejectedExecutionException e) {
+                log.warn("生成任务队列已满，任务{}将在下次启动时恢复", job.getId());
+            }
+        }
+    }
+
+    private void runJob(Long jobId) {
+        Optional<GenerationJob> optionalJob = generationJobRepository.findById(jobId);
+        if (optionalJob.isEmpty()) {
+            return;
+        }
+
+        GenerationJob job = optionalJob.get();
+        job.setStatus(GenerationJobStatus.RUNNING);
+        job.setRunStartedAt(LocalDateTime.now());
+        job.setRunStartCount(job.getGeneratedCount());
+        generationJobRepository.save(job);
+
+        try {
+            int generated = job.getGeneratedCount();
+            while (generated < job.getRequestedCount()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("生成任务{}被中断，已生成{}个，将在重启后恢复", jobId, generated);
+                    return;
+                }
+
+                int size = Math.min(chunkSize, job.getRequestedCount() - generated);
+                transactionTemplate.executeWithoutResult(status -> {
+                    inviteCodeBulkWriter.write(job.getBatchId(), job.getDescription(), job.getCreatedBy(),
+                            job.getMaxUses(), job.getExpiresAt(), size);
+                    generationJobRepository.incrementGeneratedCount(jobId, size);
+                });
+                generated += size;
+                log.debug("生成任务{}进度: {}/{}", jobId, generated, job.getRequestedCount());
+            }
+
+            finishJob(jobId, GenerationJobStatus.COMPLETED, null);
+            log.info("生成任务{}完成，批次ID: {}", jobId, job.getBatchId());
+        } catch (Exception e) {
+            log.error("生成任务{}执行异常", jobId, e);
+            finishJob(jobId, GenerationJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void finishJob(Long jobId, GenerationJobStatus status, String errorMessage) {
+        generationJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(status);
+            job.setErrorMessage(errorMessage == null ? null : truncate(errorMessage, 512));
+            job.setFinishedAt(LocalDateTime.now());
+            generationJobRepository.save(job);
+        });
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * 将实体转换为DTO
+     *
+     * @param job 生成任务实体
+     * @return 生成任务DTO
+     */
+    private GenerationJobDto convertToDto(GenerationJob job) {
+        GenerationJobDto dto = new GenerationJobDto();
+        dto.setId(job.getId());
+        dto.setBatchId(job.getBatchId());
+        dto.setDescription(job.getDescription());
+        dto.setStatus(job.getStatus());
+        dto.setRequestedCount(job.getRequestedCount());
+        dto.setGeneratedCount(job.getGeneratedCount());
+        dto.setProgress(job.getRequestedCount() == 0 ? 0 : job.getGeneratedCount() * 100.0 / job.getRequestedCount());
+        dto.setCodesPerSecond(codesPerSecond(job));
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setCreatedBy(job.getCreatedBy());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        return dto;
+    }
+
+    private double codesPerSecond(GenerationJob job) {
+        if (job.getRunStartedAt() == null) {
+            return 0;
+        }
+        LocalDateTime end = job.getStatus() == GenerationJobStatus.RUNNING || job.getFinishedAt() == null
+                ? LocalDateTime.now() : job.getFinishedAt();
+        long millis = Duration.between(job.getRunStartedAt(), end).toMillis();
+        if (millis <= 0) {
+            return 0;
+        }
+        return (job.getGeneratedCount() - job.getRunStartCount()) * 1000.0 / millis;
+    }
+}
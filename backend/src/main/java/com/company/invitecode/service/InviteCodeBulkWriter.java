@@ -0,0 +1,129 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.generator.CodeGenerator;
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
+import com.company.invitecode.quota.BatchQuotaManager;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 邀请码批量写入器
+ * 由 {@link CodeGenerator} 生成候选邀请码后交给 {@link InviteCodeBulkRepository} 按块多行写入，
+ * 不再逐个调用 existsByCode 检查，冲突的行由唯一约束拒绝后只针对这些行重新生成并重试。
+ */
+@Component
+public class InviteCodeBulkWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(InviteCodeBulkWriter.class);
+
+    private static final int MAX_ROUNDS = 10;
+
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final CodeGenerator codeGenerator;
+    private final CodeBloomFilter codeBloomFilter;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final RejectedCodeCache rejectedCodeCache;
+    private final BatchQuotaManager batchQuotaManager;
+    private final InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    public InviteCodeBulkWriter(InviteCodeBulkRepository inviteCodeBulkRepository, CodeGenerator codeGenerator,
+                                CodeBloomFilter codeBloomFilter, CodeVerificationIndex codeVerificationIndex,
+                                RejectedCodeCache rejectedCodeCache, BatchQuotaManager batchQuotaManager,
+                                InviteCodeBatchRepository inviteCodeBatchRepository) {
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.codeGenerator = codeGenerator;
+        this.codeBloomFilter = codeBloomFilter;
+        this.codeVerificationIndex = codeVerificationIndex;
+        this.rejectedCodeCache = rejectedCodeCache;
+        this.batchQuotaManager = batchQuotaManager;
+        this.inviteCodeBatchRepository = inviteCodeBatchRepository;
+    }
+
+    /**
+     * 为指定批次生成并写入邀请码，需在调用方的事务中执行
+     *
+     * @param batchId 批次ID
+     * @param description 描述
+     * @param createdBy 创建人
+     * @param maxUses 每个邀请码的最大使用次数，null表示不限
+     * @param expiresAt 过期时间，null表示永不过期
+     * @param count 生成数量
+     * @return 已写入的邀请码
+     */
+    public List<InviteCodeDto> write(String batchId, String description, String createdBy, Integer maxUses,
+                                     LocalDateTime expiresAt, int count) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<InviteCodeDto> written = new ArrayList<>(count);
+        Set<String> accepted = new HashSet<>(count * 2);
+
+        int remaining = count;
+        for (int round = 1; remaining > 0; round++) {
+            if (round > MAX_ROUNDS) {
+                throw new IllegalStateException("尝试" + MAX_ROUNDS + "轮后仍有" + remaining + "个邀请码冲突");
+            }
+
+            List<String> candidates = new ArrayList<>(nextCandidates(remaining, accepted));
+            // 先登记到布隆过滤器再写库，保证过滤器不会把已存在的邀请码判定为不存在
+            codeBloomFilter.putAll(candidates);
+            Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                    batchId, description, createdBy, createdAt, maxUses, expiresAt, candidates);
+
+            for (Map.Entry<String, Long> entry : inserted.entrySet()) {
+                accepted.add(entry.getKey());
+                InviteCodeDto dto = toDto(entry.getValue(), entry.getKey(), batchId, description, createdBy, createdAt);
+                dto.setMaxUses(maxUses);
+                dto.setRemainingUses(maxUses);
+                dto.setExpiresAt(expiresAt);
+                written.add(dto);
+            }
+            remaining -= inserted.size();
+
+            if (remaining > 0) {
+                log.warn("批次{}第{}轮写入有{}个邀请码冲突，重新生成后重试", batchId, round, remaining);
+            }
+        }
+        inviteCodeBatchRepository.addIssuedCount(batchId, written.size());
+        codeVerificationIndex.registerCreated(written, batchQuotaManager.hasQuota(batchId));
+        rejectedCodeCache.invalidateAfterCommit(accepted);
+        return written;
+    }
+
+    private Set<String> nextCandidates(int size, Set<String> accepted) {
+        Set<String> candidates = new LinkedHashSet<>(size * 2);
+        while (candidates.size() < size) {
+            String code = codeGenerator.nextCode();
+            if (!accepted.contains(code)) {
+                candidates.add(code);
+            }
+        }
+        return candidates;
+    }
+
+    private InviteCodeDto toDto(Long id, String code, String batchId, String description, String createdBy,
+                                LocalDateTime createdAt) {
+        InviteCodeDto dto = new InviteCodeDto();
+        dto.setId(id);
+        dto.setCode(code);
+        dto.setBatchId(batchId);
+        dto.setCreatedAt(createdAt);
+        dto.setCreatedBy(createdBy);
+        dto.setDescription(description);
+        dto.setActive(true);
+        dto.setUsageCount(0);
+        return dto;
+    }
+}
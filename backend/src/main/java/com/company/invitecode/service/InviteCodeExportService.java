@@ -0,0 +1,18 @@
+package com.company.invitecode.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface InviteCodeExportService {
+
+    /**
+     * 将批次内的邀请码以流的方式写出
+     *
+     * @param batchId 批次ID
+     * @param format 导出格式
+     * @param outputStream 输出流，调用方负责压缩与关闭
+     * @return 导出的行数
+     * @throws IOException 写出失败
+     */
+    long exportBatch(String batchId, ExportFormat format, OutputStream outputStream) throws IOException;
+}
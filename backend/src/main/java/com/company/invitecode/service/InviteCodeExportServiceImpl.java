@@ -0,0 +1,145 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * 邀请码导出服务
+ * 直接把游标中的每一行写入输出流，既不创建实体也不创建DTO。
+ */
+@Service
+public class InviteCodeExportServiceImpl implements InviteCodeExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InviteCodeExportServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER = "id,code,batchId,description,createdAt,createdBy,active\n";
+
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final ObjectMapper objectMapper;
+
+    public InviteCodeExportServiceImpl(InviteCodeBulkRepository inviteCodeBulkRepository, ObjectMapper objectMapper) {
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long exportBatch(String batchId, ExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("开始导出批次{}的邀请码，格式: {}", batchId, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long[] rows = new long[1];
+
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                inviteCodeBulkRepository.streamByBatchId(batchId, rs -> {
+                    writeCsvRow(writer, rs);
+                    rows[0]++;
+                });
+                writer.flush();
+            } else {
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                inviteCodeBulkRepository.streamByBatchId(batchId, rs -> {
+                    writeJsonRow(generator, rs);
+                    rows[0]++;
+                });
+                generator.close();
+                writer.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("批次{}导出完成，共{}行", batchId, rows[0]);
+        return rows[0];
+    }
+
+    private void writeCsvRow(Writer writer, ResultSet rs) throws SQLException {
+        try {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(',');
+            writeCsvField(writer, rs.getString(2));
+            writer.write(',');
+            writeCsvField(writer, rs.getString(3));
+            writer.write(',');
+            writeCsvField(writer, rs.getString(4));
+            writer.write(',');
+            writeCsvField(writer, formatTimestamp(rs.getTimestamp(5)));
+            writer.write(',');
+            writeCsvField(writer, rs.getString(6));
+            writer.write(',');
+            writer.write(rs.getBoolean(7) ? "true" : "false");
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 按RFC 4180转义CSV字段：包含逗号、引号或换行时整体加引号，引号双写
+     */
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private void writeJsonRow(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong(1));
+            generator.writeStringField("code", rs.getString(2));
+            generator.writeStringField("batchId", rs.getString(3));
+            generator.writeStringField("description", rs.getString(4));
+            generator.writeStringField("createdAt", formatTimestamp(rs.getTimestamp(5)));
+            generator.writeStringField("createdBy", rs.getString(6));
+            generator.writeBooleanField("active", rs.getBoolean(7));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String formatTimestamp(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+}
@@ -1,14 +1,18 @@
 package com.company.invitecode.service;
 
+import com.company.invitecode.dto.BatchQuotaDto;
+import com.company.invitecode.dto.CursorPage;
 import com.company.invitecode.dto.InviteCodeDto;
 import com.company.invitecode.dto.UsageRecordDto;
 import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
 import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface InviteCodeService {
     
@@ -31,6 +35,17 @@ public interface InviteCodeService {
      */
     boolean verifyInviteCode(VerifyInviteCodeRequest request, String ipAddress, String userAgent);
     
+    /**
+     * 异步验证邀请码，结果与 {@link #verifyInviteCode} 相同
+     * 
+     * @param request 验证请求参数
+     * @param ipAddress 用户IP地址
+     * @param userAgent 用户浏览器信息
+     * @return 验证结果
+     * @throws java.util.concurrent.RejectedExecutionException 需要查询数据库但校验线程池队列已满
+     */
+    CompletableFuture<Boolean> verifyInviteCodeAsync(VerifyInviteCodeRequest request, String ipAddress, String userAgent);
+    
     /**
      * 根据ID获取邀请码
      * 
@@ -55,6 +70,19 @@ public interface InviteCodeService {
      */
     Page<InviteCodeDto> getAllInviteCodes(Pageable pageable);
     
+    /**
+     * 按条件搜索邀请码，结果按创建时间倒序游标分页
+     * 
+     * @param criteria 搜索条件
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @param includeTotal 是否计算符合条件的总数
+     * @return 邀请码游标分页结果
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPage<InviteCodeDto> searchInviteCodes(InviteCodeSearchRequest criteria, String cursor, int size,
+                                                boolean includeTotal);
+    
     /**
      * 获取邀请码的使用记录
      * 
@@ -64,6 +92,29 @@ public interface InviteCodeService {
      */
     Page<UsageRecordDto> getInviteCodeUsageRecords(Long codeId, Pageable pageable);
     
+    /**
+     * 按创建时间倒序游标分页获取邀请码，翻页代价与页码无关
+     * 
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @param includeTotal 是否计算总数
+     * @return 邀请码游标分页结果
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPage<InviteCodeDto> scrollInviteCodes(String cursor, int size, boolean includeTotal);
+    
+    /**
+     * 按使用时间倒序游标分页获取邀请码的使用记录
+     * 
+     * @param codeId 邀请码ID
+     * @param cursor 上一页返回的游标，第一页为空
+     * @param size 每页大小
+     * @param includeTotal 是否返回总数（统计当前使用记录表中的记录数，不含已归档和尚未写入的记录）
+     * @return 使用记录游标分页结果，邀请码不存在时为空
+     * @throws IllegalArgumentException 游标无效
+     */
+    Optional<CursorPage<UsageRecordDto>> scrollUsageRecords(Long codeId, String cursor, int size, boolean includeTotal);
+    
     /**
      * 禁用邀请码
      * 
@@ -79,4 +130,40 @@ public interface InviteCodeService {
      * @return 更新后的邀请码信息
      */
     Optional<InviteCodeDto> enableInviteCode(Long id);
+    
+    /**
+     * 批量设置符合条件的邀请码的启用状态
+     * 
+     * @param criteria 筛选条件，至少包含一个条件
+     * @param active 目标启用状态
+     * @return 实际修改的邀请码数量
+     * @throws IllegalArgumentException 未给出任何筛选条件
+     */
+    int setActiveInBulk(InviteCodeSearchRequest criteria, boolean active);
+    
+    /**
+     * 将符合条件的邀请码立即过期
+     * 
+     * @param criteria 筛选条件，至少包含一个条件
+     * @return 实际过期的邀请码数量
+     * @throws IllegalArgumentException 未给出任何筛选条件
+     */
+    int expireInBulk(InviteCodeSearchRequest criteria);
+    
+    /**
+     * 获取批次的兑换配额状态
+     * 
+     * @param batchId 批次ID
+     * @return 配额状态，批次记录不存在时为空
+     */
+    Optional<BatchQuotaDto> getBatchQuota(String batchId);
+    
+    /**
+     * 设置或取消批次的兑换配额
+     * 
+     * @param batchId 批次ID
+     * @param quota 兑换总配额，null表示取消配额
+     * @return 设置后的配额状态
+     */
+    BatchQuotaDto setBatchQuota(String batchId, Integer quota);
 } 
\ No newline at end of file
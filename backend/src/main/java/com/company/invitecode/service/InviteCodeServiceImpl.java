@@ -1,27 +1,44 @@
 package com.company.invitecode.service;
 
+import com.company.invitecode.dto.BatchQuotaDto;
+import com.company.invitecode.dto.CursorPage;
 import com.company.invitecode.dto.InviteCodeDto;
 import com.company.invitecode.dto.UsageRecordDto;
 import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
 import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
 import com.company.invitecode.model.InviteCode;
-import com.company.invitecode.model.UsageRecord;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.model.UserAgent;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
 import com.company.invitecode.repository.InviteCodeRepository;
+import com.company.invitecode.repository.InviteCodeSearchRepository;
 import com.company.invitecode.repository.UsageRecordRepository;
+import com.company.invitecode.quota.BatchQuotaManager;
+import com.company.invitecode.usage.PendingUsageRecord;
+import com.company.invitecode.usage.UsageRecordWriter;
+import com.company.invitecode.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class InviteCodeServiceImpl implements InviteCodeService {
@@ -30,23 +47,44 @@ public class InviteCodeServiceImpl implements InviteCodeService {
 
     private final InviteCodeRepository inviteCodeRepository;
     private final UsageRecordRepository usageRecordRepository;
+    private final InviteCodeBulkWriter inviteCodeBulkWriter;
+    private final CodeBloomFilter codeBloomFilter;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final UsageRecordWriter usageRecordWriter;
+    private final InviteCodeSearchRepository inviteCodeSearchRepository;
+    private final InviteCodeStateUpdater inviteCodeStateUpdater;
+    private final RejectedCodeCache rejectedCodeCache;
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final InviteCodeBatchRepository inviteCodeBatchRepository;
+    private final BatchQuotaManager batchQuotaManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService verificationExecutor;
 
-    public InviteCodeServiceImpl(InviteCodeRepository inviteCodeRepository, UsageRecordRepository usageRecordRepository) {
+    public InviteCodeServiceImpl(InviteCodeRepository inviteCodeRepository, UsageRecordRepository usageRecordRepository,
+                                 InviteCodeBulkWriter inviteCodeBulkWriter, CodeBloomFilter codeBloomFilter,
+                                 CodeVerificationIndex codeVerificationIndex, UsageRecordWriter usageRecordWriter,
+                                 InviteCodeSearchRepository inviteCodeSearchRepository,
+                                 InviteCodeStateUpdater inviteCodeStateUpdater,
+                                 RejectedCodeCache rejectedCodeCache,
+                                 InviteCodeBulkRepository inviteCodeBulkRepository,
+                                 InviteCodeBatchRepository inviteCodeBatchRepository,
+                                 BatchQuotaManager batchQuotaManager,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("verificationExecutor") ExecutorService verificationExecutor) {
         this.inviteCodeRepository = inviteCodeRepository;
         this.usageRecordRepository = usageRecordRepository;
-    }
-
-    /**
-     * 生成随机邀请码
-     * 
-     * @return 随机邀请码
-     */
-    private String generateRandomCode() {
-        // 生成8-10位随机字符串，包含数字和大写字母
-        String uuid = UUID.randomUUID().toString().replaceAll("-", "").toUpperCase();
-        String code = uuid.substring(0, 8 + (int) (Math.random() * 3)); // 8-10位
-        log.debug("生成随机邀请码: {}", code);
-        return code;
+        this.inviteCodeBulkWriter = inviteCodeBulkWriter;
+        this.codeBloomFilter = codeBloomFilter;
+        this.codeVerificationIndex = codeVerificationIndex;
+        this.usageRecordWriter = usageRecordWriter;
+        this.inviteCodeSearchRepository = inviteCodeSearchRepository;
+        this.inviteCodeStateUpdater = inviteCodeStateUpdater;
+        this.rejectedCodeCache = rejectedCodeCache;
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.inviteCodeBatchRepository = inviteCodeBatchRepository;
+        this.batchQuotaManager = batchQuotaManager;
+        this.transactionTemplate = transactionTemplate;
+        this.verificationExecutor = verificationExecutor;
     }
 
     @Override
@@ -55,41 +93,12 @@ public class InviteCodeServiceImpl implements InviteCodeService {
         log.info("开始生成邀请码，数量: {}, 描述: {}, 创建人: {}", request.getCount(), request.getDescription(), createdBy);
         
         try {
-            int count = request.getCount();
             String batchId = UUID.randomUUID().toString();
             log.debug("生成批次ID: {}", batchId);
+            inviteCodeBatchRepository.save(new InviteCodeBatch(batchId, request.getDescription(), createdBy));
             
-            List<InviteCode> inviteCodes = new ArrayList<>();
-            for (int i = 0; i < count; i++) {
-                String code;
-                int attempts = 0;
-                do {
-                    code = generateRandomCode();
-                    attempts++;
-                    if (attempts > 5) {
-                        log.warn("尝试{}次后仍未生成唯一邀请码", attempts);
-                    }
-                } while (inviteCodeRepository.existsByCode(code));
-                
-                log.debug("创建第{}个邀请码: {}", i+1, code);
-                
-                InviteCode inviteCode = new InviteCode();
-                inviteCode.setCode(code);
-                inviteCode.setBatchId(batchId);
-                inviteCode.setCreatedBy(createdBy);
-                inviteCode.setActive(true);
-                inviteCode.setDescription(request.getDescription());
-                
-                inviteCodes.add(inviteCode);
-            }
-            
-            log.debug("开始保存{}个邀请码到数据库", inviteCodes.size());
-            List<InviteCode> savedInviteCodes = inviteCodeRepository.saveAll(inviteCodes);
-            log.info("成功保存{}个邀请码到数据库", savedInviteCodes.size());
-            
-            List<InviteCodeDto> dtos = savedInviteCodes.stream()
-                    .map(this::convertToDto)
-                    .collect(Collectors.toList());
+            List<InviteCodeDto> dtos = inviteCodeBulkWriter.write(batchId, request.getDescription(), createdBy,
+                    request.getMaxUses(), request.getExpiresAt(), request.getCount());
             
             log.info("生成邀请码完成，返回{}个DTO对象", dtos.size());
             return dtos;
@@ -99,28 +108,118 @@ public class InviteCodeServiceImpl implements InviteCodeService {
         }
     }
 
+    /**
+     * 内存索引、布隆过滤器和校验失败缓存能确定结果时不开启事务、不占用数据库连接，
+     * 只有需要查询数据库的校验才在事务中执行
+     */
     @Override
-    @Transactional
     public boolean verifyInviteCode(VerifyInviteCodeRequest request, String ipAddress, String userAgent) {
-        Optional<InviteCode> optionalInviteCode = inviteCodeRepository.findByCode(request.getCode());
+        long entry = codeVerificationIndex.lookup(request.getCode());
+        Boolean inMemoryResult = verifyInMemory(entry, request, ipAddress, userAgent);
+        if (inMemoryResult != null) {
+            return inMemoryResult;
+        }
+        return verifyInDatabase(entry, request, ipAddress, userAgent);
+    }
+
+    /**
+     * 内存中能确定结果时在调用线程中直接完成，否则在校验线程池中只执行数据库部分，
+     * 内存索引只查询一次，数据库部分使用同一个查询结果
+     */
+    @Override
+    public CompletableFuture<Boolean> verifyInviteCodeAsync(VerifyInviteCodeRequest request, String ipAddress,
+                                                            String userAgent) {
+        // 未启用异步写入时记录使用会同步写库，不能在调用线程中执行
+        if (!usageRecordWriter.isEnabled()) {
+            return CompletableFuture.supplyAsync(
+                    () -> verifyInviteCode(request, ipAddress, userAgent), verificationExecutor);
+        }
+        long entry = codeVerificationIndex.lookup(request.getCode());
+        Boolean inMemoryResult = verifyInMemory(entry, request, ipAddress, userAgent);
+        if (inMemoryResult != null) {
+            return CompletableFuture.completedFuture(inMemoryResult);
+        }
+        return CompletableFuture.supplyAsync(
+                () -> verifyInDatabase(entry, request, ipAddress, userAgent), verificationExecutor);
+    }
+
+    /**
+     * 只用内存索引、布隆过滤器和校验失败缓存判定邀请码
+     *
+     * @param entry 内存索引的查询结果
+     * @return 验证结果，需要查询数据库时返回null
+     */
+    private Boolean verifyInMemory(long entry, VerifyInviteCodeRequest request, String ipAddress, String userAgent) {
+        if (entry == CodeVerificationIndex.ABSENT
+                || (entry != CodeVerificationIndex.NOT_INDEXED && !CodeVerificationIndex.isActive(entry))) {
+            log.warn("无效的邀请码: {}", request.getCode());
+            return false;
+        }
+        if (entry != CodeVerificationIndex.NOT_INDEXED && !CodeVerificationIndex.isRestricted(entry)) {
+            // 内存索引命中且不受限，不再查询邀请码
+            recordUsage(CodeVerificationIndex.idOf(entry), request, ipAddress, userAgent, LocalDateTime.now());
+            return true;
+        }
+        
+        if ((entry == CodeVerificationIndex.NOT_INDEXED && !codeBloomFilter.mightContain(request.getCode()))
+                || rejectedCodeCache.contains(request.getCode())) {
+            log.warn("无效的邀请码: {}", request.getCode());
+            return false;
+        }
+        return null;
+    }
+
+    /**
+     * 查询数据库验证邀请码，在事务中扣减剩余次数并记录使用
+     * 批次配额许可在兑换事务开始之前获取：本地许可用尽时租借在独立事务中执行，需要另一个数据库连接，
+     * 不能在持有兑换事务连接的同时等待租借，否则并发校验会耗尽连接池。
+     *
+     * @param entry 内存索引的查询结果
+     */
+    private boolean verifyInDatabase(long entry, VerifyInviteCodeRequest request, String ipAddress,
+                                     String userAgent) {
+        long stamp = rejectedCodeCache.stamp();
+        Optional<InviteCode> optionalInviteCode = entry == CodeVerificationIndex.NOT_INDEXED
+                ? inviteCodeRepository.findByCode(request.getCode())
+                : inviteCodeRepository.findById(CodeVerificationIndex.idOf(entry));
         
         if (optionalInviteCode.isEmpty() || !optionalInviteCode.get().isActive()) {
+            rejectedCodeCache.put(request.getCode(), stamp);
             log.warn("无效的邀请码: {}", request.getCode());
             return false;
         }
         
         InviteCode inviteCode = optionalInviteCode.get();
+        if (!batchQuotaManager.tryAcquire(inviteCode.getBatchId())) {
+            log.warn("邀请码所属批次兑换配额已用完: {}, 批次: {}", request.getCode(), inviteCode.getBatchId());
+            return false;
+        }
         
-        // 记录使用记录
-        UsageRecord usageRecord = new UsageRecord();
-        usageRecord.setInviteCode(inviteCode);
-        usageRecord.setUserId(request.getUserId());
-        usageRecord.setIpAddress(ipAddress);
-        usageRecord.setUserAgent(userAgent);
-        
-        usageRecordRepository.save(usageRecord);
-        log.info("邀请码使用成功: {}, 用户: {}", request.getCode(), request.getUserId());
+        boolean redeemed;
+        try {
+            redeemed = Boolean.TRUE.equals(transactionTemplate.execute(
+                    status -> redeemInTransaction(inviteCode, request, ipAddress, userAgent, stamp)));
+        } catch (RuntimeException e) {
+            batchQuotaManager.release(inviteCode.getBatchId());
+            throw e;
+        }
+        if (!redeemed) {
+            batchQuotaManager.release(inviteCode.getBatchId());
+        }
+        return redeemed;
+    }
+
+    private boolean redeemInTransaction(InviteCode inviteCode, VerifyInviteCodeRequest request, String ipAddress,
+                                        String userAgent, long stamp) {
+        LocalDateTime now = LocalDateTime.now();
+        // 受限邀请码以条件UPDATE原子扣减剩余次数，次数用尽或已过期时更新0行
+        if (inviteCode.isRestricted() && !inviteCodeBulkRepository.redeem(inviteCode.getId(), now)) {
+            rejectedCodeCache.put(request.getCode(), stamp);
+            log.warn("邀请码已用完或已过期: {}", request.getCode());
+            return false;
+        }
         
+        recordUsage(inviteCode.getId(), request, ipAddress, userAgent, now);
         return true;
     }
 
@@ -132,18 +231,16 @@ public class InviteCodeServiceImpl implements InviteCodeService {
 
     @Override
     public Optional<InviteCodeDto> getInviteCodeByCode(String code) {
+        if (!codeBloomFilter.mightContain(code)) {
+            return Optional.empty();
+        }
         return inviteCodeRepository.findByCode(code)
                 .map(this::convertToDto);
     }
 
     @Override
     public Page<InviteCodeDto> getAllInviteCodes(Pageable pageable) {
-        Page<InviteCode> inviteCodePage = inviteCodeRepository.findAll(pageable);
-        List<InviteCodeDto> inviteCodeDtos = inviteCodePage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        
-        return new PageImpl<>(inviteCodeDtos, pageable, inviteCodePage.getTotalElements());
+        return inviteCodeRepository.findAllAsDto(pageable);
     }
 
     @Override
@@ -153,14 +250,51 @@ public class InviteCodeServiceImpl implements InviteCodeService {
             return Page.empty(pageable);
         }
         
-        InviteCode inviteCode = optionalInviteCode.get();
-        Page<UsageRecord> usageRecordPage = usageRecordRepository.findByInviteCode(inviteCode, pageable);
-        
-        List<UsageRecordDto> usageRecordDtos = usageRecordPage.getContent().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        String code = optionalInviteCode.get().getCode();
+        Page<UsageRecordDto> usageRecordPage = usageRecordRepository.findPageAsDto(codeId, pageable);
+        usageRecordPage.forEach(dto -> dto.setInviteCode(code));
+        return usageRecordPage;
+    }
+
+    @Override
+    public CursorPage<InviteCodeDto> scrollInviteCodes(String cursor, int size, boolean includeTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        // 多取一行判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<InviteCodeDto> rows = after == null
+                ? inviteCodeRepository.findFirstPageAsDto(limit)
+                : inviteCodeRepository.findPageAfterAsDto(after.getTimestamp(), after.getId(), limit);
+        Long total = includeTotal ? inviteCodeRepository.count() : null;
+        return CursorPage.of(rows, size, last -> new PageCursor(last.getCreatedAt(), last.getId()).encode(), total);
+    }
+
+    @Override
+    public CursorPage<InviteCodeDto> searchInviteCodes(InviteCodeSearchRequest criteria, String cursor, int size,
+                                                       boolean includeTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<InviteCodeDto> rows = inviteCodeSearchRepository.search(criteria, after, size + 1);
+        Long total = includeTotal ? inviteCodeSearchRepository.count(criteria) : null;
+        return CursorPage.of(rows, size, last -> new PageCursor(last.getCreatedAt(), last.getId()).encode(), total);
+    }
+
+    @Override
+    public Optional<CursorPage<UsageRecordDto>> scrollUsageRecords(Long codeId, String cursor, int size,
+                                                                   boolean includeTotal) {
+        PageCursor after = PageCursor.decode(cursor);
+        Optional<InviteCode> optionalInviteCode = inviteCodeRepository.findById(codeId);
+        if (optionalInviteCode.isEmpty()) {
+            return Optional.empty();
+        }
         
-        return new PageImpl<>(usageRecordDtos, pageable, usageRecordPage.getTotalElements());
+        InviteCode inviteCode = optionalInviteCode.get();
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<UsageRecordDto> rows = after == null
+                ? usageRecordRepository.findFirstPageAsDto(codeId, limit)
+                : usageRecordRepository.findPageAfterAsDto(codeId, after.getTimestamp(), after.getId(), limit);
+        rows.forEach(dto -> dto.setInviteCode(inviteCode.getCode()));
+        Long total = includeTotal ? usageRecordRepository.countByCodeId(codeId) : null;
+        return Optional.of(CursorPage.of(rows, size,
+                last -> new PageCursor(last.getUsedAt(), last.getId()).encode(), total));
     }
 
     @Override
@@ -174,6 +308,8 @@ public class InviteCodeServiceImpl implements InviteCodeService {
         InviteCode inviteCode = optionalInviteCode.get();
         inviteCode.setActive(false);
         InviteCode savedInviteCode = inviteCodeRepository.save(inviteCode);
+        codeVerificationIndex.registerState(savedInviteCode.getId(), savedInviteCode.getCode(), false,
+                savedInviteCode.isRestricted());
         
         return Optional.of(convertToDto(savedInviteCode));
     }
@@ -189,10 +325,53 @@ public class InviteCodeServiceImpl implements InviteCodeService {
         InviteCode inviteCode = optionalInviteCode.get();
         inviteCode.setActive(true);
         InviteCode savedInviteCode = inviteCodeRepository.save(inviteCode);
+        codeVerificationIndex.registerState(savedInviteCode.getId(), savedInviteCode.getCode(), true,
+                savedInviteCode.isRestricted());
+        rejectedCodeCache.invalidateAfterCommit(Collections.singletonList(savedInviteCode.getCode()));
         
         return Optional.of(convertToDto(savedInviteCode));
     }
     
+    @Override
+    public int setActiveInBulk(InviteCodeSearchRequest criteria, boolean active) {
+        if (!InviteCodeSearchRepository.hasAnyCriteria(criteria)) {
+            throw new IllegalArgumentException("批量操作至少需要一个筛选条件");
+        }
+        return inviteCodeStateUpdater.setActive(criteria, active);
+    }
+    
+    @Override
+    public int expireInBulk(InviteCodeSearchRequest criteria) {
+        if (!InviteCodeSearchRepository.hasAnyCriteria(criteria)) {
+            throw new IllegalArgumentException("批量操作至少需要一个筛选条件");
+        }
+        return inviteCodeStateUpdater.expire(criteria);
+    }
+    
+    @Override
+    public Optional<BatchQuotaDto> getBatchQuota(String batchId) {
+        return batchQuotaManager.getQuota(batchId);
+    }
+    
+    @Override
+    public BatchQuotaDto setBatchQuota(String batchId, Integer quota) {
+        return batchQuotaManager.setQuota(batchId, quota);
+    }
+    
+    /**
+     * 记录使用记录（异步批量写入）
+     */
+    private void recordUsage(long inviteCodeId, VerifyInviteCodeRequest request, String ipAddress, String userAgent,
+                             LocalDateTime usedAt) {
+        usageRecordWriter.record(new PendingUsageRecord(inviteCodeId, request.getUserId(),
+                ipAddress, truncate(userAgent, UserAgent.MAX_LENGTH), usedAt));
+        log.info("邀请码使用成功: {}, 用户: {}", request.getCode(), request.getUserId());
+    }
+    
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+    
     /**
      * 将实体转换为DTO
      * 
@@ -200,8 +379,6 @@ public class InviteCodeServiceImpl implements InviteCodeService {
      * @return 邀请码DTO
      */
     private InviteCodeDto convertToDto(InviteCode inviteCode) {
-        int usageCount = usageRecordRepository.countByInviteCode(inviteCode);
-        
         InviteCodeDto dto = new InviteCodeDto();
         dto.setId(inviteCode.getId());
         dto.setCode(inviteCode.getCode());
@@ -210,24 +387,12 @@ public class InviteCodeServiceImpl implements InviteCodeService {
         dto.setCreatedBy(inviteCode.getCreatedBy());
         dto.setDescription(inviteCode.getDescription());
         dto.setActive(inviteCode.isActive());
-        dto.setUsageCount(usageCount);
+        dto.setUsageCount(inviteCode.getUsageCount());
+        dto.setLastUsedAt(inviteCode.getLastUsedAt());
+        dto.setMaxUses(inviteCode.getMaxUses());
+        dto.setRemainingUses(inviteCode.getRemainingUses());
+        dto.setExpiresAt(inviteCode.getExpiresAt());
         return dto;
     }
     
-    /**
-     * 将实体转换为DTO
-     * 
-     * @param usageRecord 使用记录实体
-     * @return 使用记录DTO
-     */
-    private UsageRecordDto convertToDto(UsageRecord usageRecord) {
-        UsageRecordDto dto = new UsageRecordDto();
-        dto.setId(usageRecord.getId());
-        dto.setInviteCode(usageRecord.getInviteCode().getCode());
-        dto.setUserId(usageRecord.getUserId());
-        dto.setIpAddress(usageRecord.getIpAddress());
-        dto.setUserAgent(usageRecord.getUserAgent());
-        dto.setUsedAt(usageRecord.getUsedAt());
-        return dto;
-    }
-} 
\ No newline at end of file
+}
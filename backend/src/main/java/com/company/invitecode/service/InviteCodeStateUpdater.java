@@ -0,0 +1,137 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.company.invitecode.repository.InviteCodeSearchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * 邀请码批量启用/禁用/过期
+ * 按ID顺序分块：每块先查出符合条件且状态需要改变的邀请码，再以一条 UPDATE ... WHERE id IN (...) 修改，
+ * 每块在独立事务中提交，避免长事务锁住整个批次。内存校验索引和失败缓存在每块提交后同步更新。
+ */
+@Component
+public class InviteCodeStateUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(InviteCodeStateUpdater.class);
+
+    private final InviteCodeSearchRepository inviteCodeSearchRepository;
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final RejectedCodeCache rejectedCodeCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${invite-code.bulk-state.chunk-size:5000}")
+    private int chunkSize;
+
+    public InviteCodeStateUpdater(InviteCodeSearchRepository inviteCodeSearchRepository,
+                                  InviteCodeBulkRepository inviteCodeBulkRepository,
+                                  CodeVerificationIndex codeVerificationIndex,
+                                  RejectedCodeCache rejectedCodeCache,
+                                  TransactionTemplate transactionTemplate) {
+        this.inviteCodeSearchRepository = inviteCodeSearchRepository;
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.codeVerificationIndex = codeVerificationIndex;
+        this.rejectedCodeCache = rejectedCodeCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * 将符合条件的邀请码设置为目标启用状态
+     *
+     * @param criteria 筛选条件
+     * @param active 目标启用状态
+     * @return 实际修改的邀请码数量
+     */
+    public int setActive(InviteCodeSearchRequest criteria, boolean active) {
+        long startNanos = System.nanoTime();
+        int affected = runInChunks(afterId -> updateChunk(criteria, active, afterId));
+        log.info("批量{}邀请码完成，条件: {}, 数量: {}, 耗时: {}ms",
+                active ? "启用" : "禁用", criteria, affected, (System.nanoTime() - startNanos) / 1_000_000);
+        return affected;
+    }
+
+    /**
+     * 将符合条件且尚未过期的邀请码立即过期
+     *
+     * @param criteria 筛选条件
+     * @return 实际过期的邀请码数量
+     */
+    public int expire(InviteCodeSearchRequest criteria) {
+        long startNanos = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int affected = runInChunks(afterId -> expireChunk(criteria, now, afterId));
+        log.info("批量过期邀请码完成，条件: {}, 数量: {}, 耗时: {}ms",
+                criteria, affected, (System.nanoTime() - startNanos) / 1_000_000);
+        return affected;
+    }
+
+    /**
+     * 按ID顺序逐块执行，每块在独立事务中提交
+     */
+    private int runInChunks(LongFunction<ChunkResult> chunkAction) {
+        int affected = 0;
+        long afterId = 0;
+        while (true) {
+            long fromId = afterId;
+            ChunkResult chunk = transactionTemplate.execute(status -> chunkAction.apply(fromId));
+            if (chunk == null || chunk.lastId == null) {
+                break;
+            }
+            affected += chunk.updated;
+            afterId = chunk.lastId;
+        }
+        return affected;
+    }
+
+    private ChunkResult updateChunk(InviteCodeSearchRequest criteria, boolean active, long afterId) {
+        Map<Long, String> codes = inviteCodeSearchRepository.findIdsToChange(criteria, active, afterId, chunkSize);
+        if (codes.isEmpty()) {
+            return new ChunkResult(0, null);
+        }
+        int updated = inviteCodeBulkRepository.updateActive(codes.keySet(), active);
+        codeVerificationIndex.registerStates(codes, active);
+        if (active) {
+            rejectedCodeCache.invalidateAfterCommit(codes.values());
+        }
+        return new ChunkResult(updated, lastId(codes));
+    }
+
+    private ChunkResult expireChunk(InviteCodeSearchRequest criteria, LocalDateTime now, long afterId) {
+        Map<Long, String> codes = inviteCodeSearchRepository.findIdsToExpire(criteria, now, afterId, chunkSize);
+        if (codes.isEmpty()) {
+            return new ChunkResult(0, null);
+        }
+        int updated = inviteCodeBulkRepository.expire(codes.keySet(), now);
+        codeVerificationIndex.registerExpired(codes);
+        return new ChunkResult(updated, lastId(codes));
+    }
+
+    private static Long lastId(Map<Long, String> codes) {
+        Long lastId = null;
+        for (Long id : codes.keySet()) {
+            lastId = id;
+        }
+        return lastId;
+    }
+
+    private static final class ChunkResult {
+        private final int updated;
+        private final Long lastId;
+
+        private ChunkResult(int updated, Long lastId) {
+            this.updated = updated;
+            this.lastId = lastId;
+        }
+    }
+}
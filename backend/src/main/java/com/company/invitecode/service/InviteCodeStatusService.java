@@ -0,0 +1,18 @@
+package com.company.invitecode.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+public interface InviteCodeStatusService {
+
+    /**
+     * 批量查询邀请码状态，按输入顺序每个邀请码写出一行NDJSON
+     *
+     * @param codes 待查询的邀请码
+     * @param outputStream 输出流，调用方负责关闭
+     * @return 存在的邀请码数量
+     * @throws IOException 写出失败
+     */
+    long lookupStatuses(List<String> codes, OutputStream outputStream) throws IOException;
+}
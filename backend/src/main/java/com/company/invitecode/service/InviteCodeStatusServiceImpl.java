@@ -0,0 +1,165 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 邀请码批量状态查询
+ * 输入按 chunk-size 分段，每段只用一条 IN 查询读取状态与冗余的使用次数；
+ * 内存校验索引或布隆过滤器判定一定不存在的邀请码不进入查询。每段查询完成后立即写出，响应逐段流式返回。
+ */
+@Service
+public class InviteCodeStatusServiceImpl implements InviteCodeStatusService {
+
+    private static final Logger log = LoggerFactory.getLogger(InviteCodeStatusServiceImpl.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final CodeBloomFilter codeBloomFilter;
+    private final CodeVerificationIndex codeVerificationIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${invite-code.status-lookup.chunk-size:1000}")
+    private int chunkSize;
+
+    public InviteCodeStatusServiceImpl(InviteCodeBulkRepository inviteCodeBulkRepository,
+                                       CodeBloomFilter codeBloomFilter,
+                                       CodeVerificationIndex codeVerificationIndex,
+                                       ObjectMapper objectMapper) {
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.codeBloomFilter = codeBloomFilter;
+        this.codeVerificationIndex = codeVerificationIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long lookupStatuses(List<String> codes, OutputStream outputStream) throws IOException {
+        long startNanos = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        long found = 0;
+        int queries = 0;
+        for (int from = 0; from < codes.size(); from += chunkSize) {
+            List<String> segment = codes.subList(from, Math.min(from + chunkSize, codes.size()));
+            List<String> candidates = new ArrayList<>(segment.size());
+            for (String code : segment) {
+                if (mightExist(code)) {
+                    candidates.add(code);
+                }
+            }
+
+            Map<String, CodeStatus> statuses = new HashMap<>(candidates.size() * 2);
+            if (!candidates.isEmpty()) {
+                queries++;
+                inviteCodeBulkRepository.findStatesByCodes(candidates, rs -> {
+                    CodeStatus status = new CodeStatus(rs.getLong(1), rs.getString(3), rs.getBoolean(4),
+                            rs.getInt(5), format(rs.getTimestamp(6)), rs.getObject(7, Integer.class),
+                            format(rs.getTimestamp(8)));
+                    statuses.put(key(rs.getString(2)), status);
+                });
+            }
+
+            for (String code : segment) {
+                CodeStatus status = code == null ? null : statuses.get(key(code));
+                writeStatus(generator, code, status);
+                if (status != null) {
+                    found++;
+                }
+            }
+            generator.flush();
+        }
+        generator.close();
+        writer.flush();
+
+        log.info("批量查询邀请码状态完成，查询: {}, 存在: {}, SQL: {}, 耗时: {}ms",
+                codes.size(), found, queries, (System.nanoTime() - startNanos) / 1_000_000);
+        return found;
+    }
+
+    private boolean mightExist(String code) {
+        if (code == null || code.isEmpty()) {
+            return false;
+        }
+        if (codeVerificationIndex.lookup(code) == CodeVerificationIndex.ABSENT) {
+            return false;
+        }
+        return codeBloomFilter.mightContain(code);
+    }
+
+    /**
+     * 与MySQL默认排序规则一致，邀请码匹配不区分大小写
+     */
+    private static String key(String code) {
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    private static String format(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+
+    private void writeStatus(JsonGenerator generator, String code, CodeStatus status) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("code", code);
+        generator.writeBooleanField("found", status != null);
+        if (status != null) {
+            generator.writeNumberField("id", status.id);
+            generator.writeStringField("batchId", status.batchId);
+            generator.writeBooleanField("active", status.active);
+            generator.writeNumberField("usageCount", status.usageCount);
+            generator.writeStringField("lastUsedAt", status.lastUsedAt);
+            if (status.remainingUses != null) {
+                generator.writeNumberField("remainingUses", status.remainingUses);
+            }
+            if (status.expiresAt != null) {
+                generator.writeStringField("expiresAt", status.expiresAt);
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static final class CodeStatus {
+        private final long id;
+        private final String batchId;
+        private final boolean active;
+        private final int usageCount;
+        private final String lastUsedAt;
+        private final Integer remainingUses;
+        private final String expiresAt;
+
+        private CodeStatus(long id, String batchId, boolean active, int usageCount, String lastUsedAt,
+                           Integer remainingUses, String expiresAt) {
+            this.id = id;
+            this.batchId = batchId;
+            this.active = active;
+            this.usageCount = usageCount;
+            this.lastUsedAt = lastUsedAt;
+            this.remainingUses = remainingUses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
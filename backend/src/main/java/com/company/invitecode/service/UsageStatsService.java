@@ -0,0 +1,86 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.TopCodeDto;
+import com.company.invitecode.dto.UsageBucketDto;
+import com.company.invitecode.dto.UsageOverviewDto;
+import com.company.invitecode.model.RollupGranularity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UsageStatsService {
+
+    /**
+     * 按时间桶统计全部批次的使用次数，没有使用的时间桶不返回
+     *
+     * @param granularity 汇总粒度
+     * @param from 起始时间（含，按粒度向下取整）
+     * @param to 结束时间（不含）
+     * @return 按时间顺序的使用次数
+     * @throws IllegalArgumentException 时间范围无效或时间桶过多
+     */
+    List<UsageBucketDto> getTotalUsage(RollupGranularity granularity, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 按时间桶统计批次的使用次数，没有使用的时间桶不返回
+     *
+     * @param batchId 批次ID
+     * @param granularity 汇总粒度
+     * @param from 起始时间（含，按粒度向下取整）
+     * @param to 结束时间（不含）
+     * @return 按时间顺序的使用次数
+     * @throws IllegalArgumentException 时间范围无效或时间桶过多
+     */
+    List<UsageBucketDto> getBatchUsage(String batchId, RollupGranularity granularity,
+                                       LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 按时间桶统计单个邀请码的使用次数，只支持小时和天粒度
+     *
+     * @param id 邀请码ID
+     * @param granularity 汇总粒度
+     * @param from 起始时间（含，按粒度向下取整）
+     * @param to 结束时间（不含）
+     * @return 按时间顺序的使用次数，邀请码不存在时为空
+     * @throws IllegalArgumentException 粒度不支持、时间范围无效或时间桶过多
+     */
+    Optional<List<UsageBucketDto>> getCodeUsage(Long id, RollupGranularity granularity,
+                                                LocalDateTime from, LocalDateTime to);
+
+    /**
+     * 统计时间窗口内的使用概况：使用次数、独立用户数（HyperLogLog估计值）以及已生成/已使用的邀请码数量
+     * 已生成/已使用数量与转化率是截至当前的累计值，不受时间窗口限制。
+     *
+     * @param batchId 批次ID，null表示全部批次
+     * @param from 起始日期（含）
+     * @param to 结束日期（含）
+     * @return 使用概况
+     * @throws IllegalArgumentException 日期范围无效或超过上限
+     */
+    UsageOverviewDto getOverview(String batchId, LocalDate from, LocalDate to);
+
+    /**
+     * 时间窗口内使用次数最多的批次
+     *
+     * @param from 起始日期（含）
+     * @param to 结束日期（含）
+     * @param limit 返回的批次数量
+     * @return 按使用次数倒序的批次概况，不含独立用户数
+     * @throws IllegalArgumentException 日期范围无效或超过上限
+     */
+    List<UsageOverviewDto> getBatchRanking(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * 时间窗口内使用次数最多的邀请码
+     *
+     * @param batchId 批次ID，null表示不限批次
+     * @param from 起始日期（含）
+     * @param to 结束日期（含）
+     * @param limit 返回的邀请码数量
+     * @return 按使用次数倒序的邀请码
+     * @throws IllegalArgumentException 日期范围无效或超过上限
+     */
+    List<TopCodeDto> getTopCodes(String batchId, LocalDate from, LocalDate to, int limit);
+}
@@ -0,0 +1,169 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.TopCodeDto;
+import com.company.invitecode.dto.UsageBucketDto;
+import com.company.invitecode.dto.UsageOverviewDto;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.repository.InviteCodeRepository;
+import com.company.invitecode.repository.UsageRollupRepository;
+import com.company.invitecode.repository.UsageStatsRepository;
+import com.company.invitecode.stats.StatsWindowCache;
+import com.company.invitecode.usage.UsageRollupAggregator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 使用统计查询
+ * 只读取预汇总的行：时间序列最多 max-buckets 行，按天统计最多 max-days 天，与原始使用记录的数量无关。
+ * 汇总按刷新间隔增量写入，最近一个刷新间隔内的使用尚未计入。
+ * 结果按查询和时间窗口缓存在 {@link StatsWindowCache} 中，仪表盘重复加载同一窗口时不再查询数据库。
+ */
+@Service
+public class UsageStatsServiceImpl implements UsageStatsService {
+
+    /** 结束时间早于当前时间超过此值的窗口视为已结束，留出汇总刷新的延迟 */
+    private static final Duration CLOSED_WINDOW_LAG = Duration.ofMinutes(1);
+
+    private final UsageRollupRepository usageRollupRepository;
+    private final InviteCodeRepository inviteCodeRepository;
+    private final UsageStatsRepository usageStatsRepository;
+    private final StatsWindowCache statsWindowCache;
+
+    @Value("${invite-code.usage.rollup.max-buckets:2000}")
+    private int maxBuckets;
+
+    @Value("${invite-code.stats.max-days:366}")
+    private int maxDays;
+
+    public UsageStatsServiceImpl(UsageRollupRepository usageRollupRepository,
+                                 InviteCodeRepository inviteCodeRepository,
+                                 UsageStatsRepository usageStatsRepository,
+                                 StatsWindowCache statsWindowCache) {
+        this.usageRollupRepository = usageRollupRepository;
+        this.inviteCodeRepository = inviteCodeRepository;
+        this.usageStatsRepository = usageStatsRepository;
+        this.statsWindowCache = statsWindowCache;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UsageBucketDto> getTotalUsage(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return getBatchUsage(UsageRollupAggregator.ALL_BATCHES, granularity, from, to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UsageBucketDto> getBatchUsage(String batchId, RollupGranularity granularity,
+                                              LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = checkRange(granularity, from, to);
+        return findSeries(granularity, batchId, UsageRollupAggregator.BATCH_TOTAL, start, to);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<UsageBucketDto>> getCodeUsage(Long id, RollupGranularity granularity,
+                                                       LocalDateTime from, LocalDateTime to) {
+        if (!granularity.isCodeLevel()) {
+            throw new IllegalArgumentException("单个邀请码的使用统计不支持按" + granularity + "汇总");
+        }
+        LocalDateTime start = checkRange(granularity, from, to);
+        return inviteCodeRepository.findById(id).map(inviteCode -> {
+            String batchId = inviteCode.getBatchId() == null
+                    ? UsageRollupAggregator.NO_BATCH : inviteCode.getBatchId();
+            return findSeries(granularity, batchId, id, start, to);
+        });
+    }
+
+    @Override
+    public UsageOverviewDto getOverview(String batchId, LocalDate from, LocalDate to) {
+        checkDays(from, to);
+        String rollupBatchId = batchId == null ? UsageRollupAggregator.ALL_BATCHES : batchId;
+        return statsWindowCache.get("overview|" + rollupBatchId + "|" + from + "|" + to, isClosed(to), () -> {
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = to.plusDays(1).atStartOfDay();
+            long[] conversion = usageStatsRepository.findConversion(batchId);
+
+            UsageOverviewDto overview = new UsageOverviewDto();
+            overview.setBatchId(batchId);
+            overview.setFrom(from);
+            overview.setTo(to);
+            overview.setRedemptions(usageStatsRepository.sumRedemptions(rollupBatchId, start, end));
+            overview.setUniqueUsers(usageStatsRepository.mergeUserSketches(rollupBatchId, start, end).estimate());
+            setConversion(overview, conversion[0], conversion[1]);
+            return overview;
+        });
+    }
+
+    @Override
+    public List<UsageOverviewDto> getBatchRanking(LocalDate from, LocalDate to, int limit) {
+        checkDays(from, to);
+        return statsWindowCache.get("batches|" + from + "|" + to + "|" + limit, isClosed(to), () -> {
+            List<UsageOverviewDto> ranking = usageStatsRepository.findBatchRanking(UsageRollupAggregator.ALL_BATCHES,
+                    from.atStartOfDay(), to.plusDays(1).atStartOfDay(), limit);
+            for (UsageOverviewDto overview : ranking) {
+                overview.setFrom(from);
+                overview.setTo(to);
+                setConversion(overview, overview.getIssuedCodes(), overview.getUsedCodes());
+            }
+            return ranking;
+        });
+    }
+
+    @Override
+    public List<TopCodeDto> getTopCodes(String batchId, LocalDate from, LocalDate to, int limit) {
+        checkDays(from, to);
+        return statsWindowCache.get("top-codes|" + batchId + "|" + from + "|" + to + "|" + limit, isClosed(to),
+                () -> usageStatsRepository.findTopCodes(batchId, from.atStartOfDay(), to.plusDays(1).atStartOfDay(),
+                        limit));
+    }
+
+    private List<UsageBucketDto> findSeries(RollupGranularity granularity, String batchId, long inviteCodeId,
+                                            LocalDateTime start, LocalDateTime to) {
+        String key = "series|" + granularity + "|" + batchId + "|" + inviteCodeId + "|" + start + "|" + to;
+        boolean closed = to.isBefore(LocalDateTime.now().minus(CLOSED_WINDOW_LAG));
+        return statsWindowCache.get(key, closed,
+                () -> usageRollupRepository.findSeries(granularity, batchId, inviteCodeId, start, to));
+    }
+
+    private static void setConversion(UsageOverviewDto overview, long issuedCodes, long usedCodes) {
+        overview.setIssuedCodes(issuedCodes);
+        overview.setUsedCodes(usedCodes);
+        overview.setConversionRate(issuedCodes == 0 ? 0 : (double) usedCodes / issuedCodes);
+    }
+
+    private static boolean isClosed(LocalDate to) {
+        return to.plusDays(1).atStartOfDay().isBefore(LocalDateTime.now().minus(CLOSED_WINDOW_LAG));
+    }
+
+    private void checkDays(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("结束日期不能早于起始日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new IllegalArgumentException("日期范围过大，最多" + maxDays + "天");
+        }
+    }
+
+    /**
+     * @return 按粒度向下取整后的起始时间
+     */
+    private LocalDateTime checkRange(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = granularity.truncate(from);
+        if (!start.isBefore(to)) {
+            throw new IllegalArgumentException("结束时间必须晚于起始时间");
+        }
+        long buckets = Duration.between(start, to).toMinutes() / granularity.getDuration().toMinutes();
+        if (buckets >= maxBuckets) {
+            throw new IllegalArgumentException("时间范围过大，最多" + maxBuckets + "个时间桶，请使用更粗的粒度");
+        }
+        return start;
+    }
+}
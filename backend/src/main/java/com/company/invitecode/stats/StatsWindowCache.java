@@ -0,0 +1,70 @@
+package com.company.invitecode.stats;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 统计查询结果缓存
+ * 按查询与时间窗口缓存最近请求过的结果，LRU淘汰。窗口已经结束的结果不会再变化，缓存 closed-ttl-seconds；
+ * 包含当前时间的窗口仍在累加，只缓存 open-ttl-seconds。
+ * 同一个键同时未命中时各自查询，不合并请求。
+ */
+@Component
+public class StatsWindowCache {
+
+    @Value("${invite-code.stats.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${invite-code.stats.cache.open-ttl-seconds:30}")
+    private long openTtlSeconds;
+
+    @Value("${invite-code.stats.cache.closed-ttl-seconds:600}")
+    private long closedTtlSeconds;
+
+    private final Map<String, CachedValue> entries = new LinkedHashMap<String, CachedValue>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 读取缓存，未命中或已过期时查询并缓存
+     *
+     * @param key 查询与窗口组成的键
+     * @param closed 窗口是否已经结束
+     * @param loader 查询
+     * @return 查询结果，调用方不得修改
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, boolean closed, Supplier<T> loader) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedValue cached = entries.get(key);
+            if (cached != null && cached.expiresAt - now > 0) {
+                return (T) cached.value;
+            }
+        }
+        T value = loader.get();
+        long ttlNanos = TimeUnit.SECONDS.toNanos(closed ? closedTtlSeconds : openTtlSeconds);
+        synchronized (entries) {
+            entries.put(key, new CachedValue(value, now + ttlNanos));
+        }
+        return value;
+    }
+
+    private static final class CachedValue {
+        private final Object value;
+        private final long expiresAt;
+
+        private CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.invitecode.usage;
+
+import java.time.LocalDateTime;
+
+/**
+ * 归档文件中的一条使用记录，每行一个JSON对象
+ */
+public class ArchivedUsageRecord {
+    private long id;
+    private long inviteCodeId;
+    private String userId;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime usedAt;
+
+    public ArchivedUsageRecord() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getInviteCodeId() {
+        return inviteCodeId;
+    }
+
+    public void setInviteCodeId(long inviteCodeId) {
+        this.inviteCodeId = inviteCodeId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    public LocalDateTime getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(LocalDateTime usedAt) {
+        this.usedAt = usedAt;
+    }
+}
@@ -0,0 +1,66 @@
+package com.company.invitecode.usage;
+
+import java.time.LocalDateTime;
+
+/**
+ * 等待写入数据库的使用记录，只引用邀请码ID，不持有实体
+ */
+public class PendingUsageRecord {
+    private long inviteCodeId;
+    private String userId;
+    private String ipAddress;
+    private String userAgent;
+    private LocalDateTime usedAt;
+
+    public PendingUsageRecord() {
+    }
+
+    public PendingUsageRecord(long inviteCodeId, String userId, String ipAddress, String userAgent,
+                              LocalDateTime usedAt) {
+        this.inviteCodeId = inviteCodeId;
+        this.userId = userId;
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+        this.usedAt = usedAt;
+    }
+
+    public long getInviteCodeId() {
+        return inviteCodeId;
+    }
+
+    public void setInviteCodeId(long inviteCodeId) {
+        this.inviteCodeId = inviteCodeId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+
+    public String getUserAgent() {
+        return userAgent;
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    public LocalDateTime getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(LocalDateTime usedAt) {
+        this.usedAt = usedAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.model.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * 汇总行的唯一键，排序与 usage_rollups 唯一索引的列顺序一致
+ */
+public final class RollupKey implements Comparable<RollupKey> {
+
+    private static final Comparator<RollupKey> ORDER = Comparator
+            .comparing((RollupKey key) -> key.granularity)
+            .thenComparing(key -> key.batchId)
+            .thenComparingLong(key -> key.inviteCodeId)
+            .thenComparing(key -> key.bucketStart);
+
+    private final RollupGranularity granularity;
+    private final String batchId;
+    private final long inviteCodeId;
+    private final LocalDateTime bucketStart;
+
+    public RollupKey(RollupGranularity granularity, String batchId, long inviteCodeId, LocalDateTime bucketStart) {
+        this.granularity = granularity;
+        this.batchId = batchId;
+        this.inviteCodeId = inviteCodeId;
+        this.bucketStart = bucketStart;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public long getInviteCodeId() {
+        return inviteCodeId;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public int compareTo(RollupKey other) {
+        return ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RollupKey)) {
+            return false;
+        }
+        RollupKey other = (RollupKey) o;
+        return inviteCodeId == other.inviteCodeId && granularity == other.granularity
+                && batchId.equals(other.batchId) && bucketStart.equals(other.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(granularity, batchId, inviteCodeId, bucketStart);
+    }
+}
@@ -0,0 +1,149 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.model.UsageArchiveSegment;
+import com.company.invitecode.repository.UsageArchiveSegmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 已归档使用记录的查询
+ * 只打开与时间范围重叠的月份文件，且只读取已提交的长度，归档任务正在追加的部分不会被读到。
+ * 归档文件按使用时间排序，逐行解析后按邀请码和时间过滤。
+ */
+@Component
+public class UsageArchiveReader {
+
+    private final UsageArchiveSegmentRepository usageArchiveSegmentRepository;
+    private final UsageArchiver usageArchiver;
+    private final ObjectMapper objectMapper;
+
+    public UsageArchiveReader(UsageArchiveSegmentRepository usageArchiveSegmentRepository,
+                              UsageArchiver usageArchiver, ObjectMapper objectMapper) {
+        this.usageArchiveSegmentRepository = usageArchiveSegmentRepository;
+        this.usageArchiver = usageArchiver;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 逐条读取时间范围内的归档记录
+     *
+     * @param inviteCodeId 邀请码ID，为null时不过滤
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param handler 记录处理器，同时传入原始的JSON行
+     * @return 匹配的记录数量
+     */
+    public long read(Long inviteCodeId, LocalDateTime from, LocalDateTime to, RecordHandler handler)
+            throws IOException {
+        YearMonth firstMonth = YearMonth.from(from);
+        YearMonth lastMonth = YearMonth.from(to.minusNanos(1));
+        long matched = 0;
+        for (UsageArchiveSegment segment : usageArchiveSegmentRepository.findAllByOrderByMonthAsc()) {
+            YearMonth month = YearMonth.parse(segment.getMonth(), UsageArchiver.MONTH_FORMAT);
+            if (month.isBefore(firstMonth) || month.isAfter(lastMonth) || segment.getCommittedBytes() == 0) {
+                continue;
+            }
+            Path file = usageArchiver.getArchiveDir().resolve(segment.getFileName());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                    new CommittedInputStream(Files.newInputStream(file), segment.getCommittedBytes()), 64 * 1024),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    ArchivedUsageRecord record = objectMapper.readValue(line, ArchivedUsageRecord.class);
+                    if ((inviteCodeId == null || inviteCodeId == record.getInviteCodeId())
+                            && !record.getUsedAt().isBefore(from) && record.getUsedAt().isBefore(to)) {
+                        handler.handle(record, line);
+                        matched++;
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 以NDJSON写出时间范围内的归档记录
+     *
+     * @return 写出的记录数量
+     */
+    public long export(Long inviteCodeId, LocalDateTime from, LocalDateTime to, OutputStream outputStream)
+            throws IOException {
+        long written = read(inviteCodeId, from, to, (record, line) -> {
+            outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+            outputStream.write('\n');
+        });
+        outputStream.flush();
+        return written;
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(ArchivedUsageRecord record, String line) throws IOException;
+    }
+
+    /**
+     * 只读取文件的前 limit 个字节
+     */
+    private static final class CommittedInputStream extends FilterInputStream {
+        private long remaining;
+
+        private CommittedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.dto.UsageArchiveSegmentDto;
+import com.company.invitecode.model.UsageArchiveSegment;
+import com.company.invitecode.model.UsageArchiveStatus;
+import com.company.invitecode.repository.UsageArchiveRepository;
+import com.company.invitecode.repository.UsageArchiveSegmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 使用记录归档任务
+ * 将早于保留期（retention-months 个整月）的使用记录按月追加写入本地压缩文件 usage-records-yyyy-MM.ndjson.gz，
+ * 使 usage_records 只保留近期数据，索引可以常驻内存。已归档的数量累加到 invite_codes.archived_usage_count，
+ * 使用次数校正时计入，邀请码的使用次数不因归档而减少。
+ *
+ * <p>每个分块写成一个独立的gzip成员并fsync，然后在一个事务中累加归档数量、删除记录并推进
+ * {@link UsageArchiveSegment} 的进度。中断后从已提交的进度继续，文件中未提交的尾部先被截断。</p>
+ *
+ * <p>usage_records 已按月分区时不逐行删除：整月归档完成后删除对应分区，并提前建立未来月份的分区。</p>
+ */
+@Component
+public class UsageArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageArchiver.class);
+
+    static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private final UsageArchiveRepository usageArchiveRepository;
+    private final UsageArchiveSegmentRepository usageArchiveSegmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${invite-code.usage.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${invite-code.usage.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${invite-code.usage.archive.dir:data/usage-archive}")
+    private String archiveDir;
+
+    @Value("${invite-code.usage.archive.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${invite-code.usage.archive.premake-months:3}")
+    private int premakeMonths;
+
+    public UsageArchiver(UsageArchiveRepository usageArchiveRepository,
+                         UsageArchiveSegmentRepository usageArchiveSegmentRepository,
+                         TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.usageArchiveRepository = usageArchiveRepository;
+        this.usageArchiveSegmentRepository = usageArchiveSegmentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Scheduled(cron = "${invite-code.usage.archive.cron:0 0 5 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("归档使用记录失败", e);
+        }
+    }
+
+    /**
+     * 归档早于保留期的全部使用记录
+     *
+     * @return 本次归档的记录数量
+     */
+    public synchronized long archive() {
+        long startNanos = System.nanoTime();
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+        List<String> partitions = usageArchiveRepository.findPartitionNames();
+        boolean partitioned = !partitions.isEmpty();
+
+        long archived = 0;
+        LocalDateTime oldest = usageArchiveRepository.findOldestUsedAt();
+        if (oldest != null) {
+            for (YearMonth month = YearMonth.from(oldest); month.atDay(1).isBefore(cutoff); month = month.plusMonths(1)) {
+                archived += archiveMonth(month, partitioned);
+            }
+        }
+        if (partitioned) {
+            maintainPartitions(partitions, cutoff);
+        }
+        log.info("使用记录归档完成，早于: {}, 归档记录: {}, 分区表: {}, 耗时: {}ms",
+                cutoff, archived, partitioned, (System.nanoTime() - startNanos) / 1_000_000);
+        return archived;
+    }
+
+    /**
+     * @return 各月份的归档进度
+     */
+    public List<UsageArchiveSegmentDto> getSegments() {
+        List<UsageArchiveSegmentDto> segments = new ArrayList<>();
+        for (UsageArchiveSegment segment : usageArchiveSegmentRepository.findAllByOrderByMonthAsc()) {
+            UsageArchiveSegmentDto dto = new UsageArchiveSegmentDto();
+            dto.setMonth(segment.getMonth());
+            dto.setFileName(segment.getFileName());
+            dto.setArchivedRecords(segment.getArchivedRecords());
+            dto.setFileBytes(segment.getCommittedBytes());
+            dto.setStatus(segment.getStatus());
+            dto.setUpdatedAt(segment.getUpdatedAt());
+            segments.add(dto);
+        }
+        return segments;
+    }
+
+    public Path getArchiveDir() {
+        return Paths.get(archiveDir);
+    }
+
+    public static String fileName(String month) {
+        return "usage-records-" + month + ".ndjson.gz";
+    }
+
+    private long archiveMonth(YearMonth month, boolean partitioned) {
+        String key = month.format(MONTH_FORMAT);
+        UsageArchiveSegment existing = usageArchiveSegmentRepository.findById(key).orElse(null);
+        UsageArchiveSegment segment = existing == null ? newSegment(key) : existing;
+        if (segment.getStatus() == UsageArchiveStatus.COMPLETED && !partitioned) {
+            // 未分区时已归档的记录已删除，剩下的是之后补写的记录
+            segment.setLastUsedAt(null);
+            segment.setLastRecordId(null);
+        }
+
+        Path file = getArchiveDir().resolve(segment.getFileName());
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        long archived = 0;
+        while (true) {
+            LocalDateTime afterUsedAt = segment.getLastUsedAt() == null ? from : segment.getLastUsedAt();
+            long afterId = segment.getLastRecordId() == null ? 0 : segment.getLastRecordId();
+            List<ArchivedUsageRecord> chunk = usageArchiveRepository.findChunk(from, to, afterUsedAt, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            long committedBytes = append(file, segment.getCommittedBytes(), chunk);
+            ArchivedUsageRecord last = chunk.get(chunk.size() - 1);
+            segment.setArchivedRecords(segment.getArchivedRecords() + chunk.size());
+            segment.setCommittedBytes(committedBytes);
+            segment.setLastUsedAt(last.getUsedAt());
+            segment.setLastRecordId(last.getId());
+            segment.setStatus(UsageArchiveStatus.ARCHIVING);
+            Map<Long, Integer> counts = new TreeMap<>();
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (ArchivedUsageRecord record : chunk) {
+                counts.merge(record.getInviteCodeId(), 1, Integer::sum);
+                ids.add(record.getId());
+            }
+            UsageArchiveSegment current = segment;
+            segment = transactionTemplate.execute(status -> {
+                usageArchiveRepository.addArchivedCounts(counts);
+                if (!partitioned) {
+                    usageArchiveRepository.deleteByIds(ids);
+                }
+                return usageArchiveSegmentRepository.save(current);
+            });
+            archived += chunk.size();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (existing == null && archived == 0) {
+            return 0;
+        }
+        segment.setStatus(UsageArchiveStatus.COMPLETED);
+        usageArchiveSegmentRepository.save(segment);
+        if (archived > 0) {
+            log.info("月份使用记录已归档: {}, 本次: {}, 累计: {}, 文件: {}",
+                    key, archived, segment.getArchivedRecords(), file.toAbsolutePath());
+        }
+        return archived;
+    }
+
+    private static UsageArchiveSegment newSegment(String month) {
+        UsageArchiveSegment segment = new UsageArchiveSegment();
+        segment.setMonth(month);
+        segment.setFileName(fileName(month));
+        segment.setStatus(UsageArchiveStatus.ARCHIVING);
+        return segment;
+    }
+
+    /**
+     * 将一个分块作为独立的gzip成员追加到归档文件，写入前截断未提交的尾部
+     *
+     * @return 追加后的文件长度
+     */
+    private long append(Path file, long committedBytes, List<ArchivedUsageRecord> records) {
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(records.size() * 64);
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(compressed), StandardCharsets.UTF_8)) {
+                for (ArchivedUsageRecord record : records) {
+                    writer.write(objectMapper.writeValueAsString(record));
+                    writer.write('\n');
+                }
+            }
+
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                if (channel.size() < committedBytes) {
+                    throw new IOException("归档文件短于已提交的长度" + committedBytes + "，文件可能已被修改");
+                }
+                if (channel.size() > committedBytes) {
+                    log.warn("截断归档文件中未提交的部分: {}, {} -> {}", file, channel.size(), committedBytes);
+                    channel.truncate(committedBytes);
+                }
+                channel.position(committedBytes);
+                ByteBuffer buffer = ByteBuffer.wrap(compressed.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            return committedBytes + compressed.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入归档文件失败: " + file.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 删除已完整归档的月份分区，并提前建立未来 premake-months 个月的分区
+     */
+    private void maintainPartitions(List<String> partitions, LocalDate cutoff) {
+        YearMonth lastMonth = null;
+        for (String partition : partitions) {
+            YearMonth month = parsePartition(partition);
+            if (month == null) {
+                continue;
+            }
+            lastMonth = month;
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            // 分区中的记录数与该月的归档数量一致才删除，补写到游标之前或落入其他月份分区的记录不会随分区丢失
+            long archived = usageArchiveSegmentRepository.findById(month.format(MONTH_FORMAT))
+                    .map(UsageArchiveSegment::getArchivedRecords).orElse(0L);
+            long rows = usageArchiveRepository.countPartition(partition);
+            if (rows != archived) {
+                log.warn("分区{}中有{}条记录，已归档{}条，暂不删除", partition, rows, archived);
+                continue;
+            }
+            usageArchiveRepository.dropPartition(partition);
+            log.info("已删除归档完成的分区: {}", partition);
+        }
+
+        YearMonth target = YearMonth.now().plusMonths(premakeMonths);
+        YearMonth next = lastMonth == null ? YearMonth.now() : lastMonth.plusMonths(1);
+        for (; !next.isAfter(target); next = next.plusMonths(1)) {
+            String partition = next.format(PARTITION_FORMAT);
+            usageArchiveRepository.addPartition(partition, next.plusMonths(1).atDay(1));
+            log.info("已建立使用记录分区: {}", partition);
+        }
+    }
+
+    private static YearMonth parsePartition(String partition) {
+        try {
+            return YearMonth.parse(partition, PARTITION_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
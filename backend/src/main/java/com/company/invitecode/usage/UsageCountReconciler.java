@@ -0,0 +1,85 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.UsageRecordBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 使用次数校正任务
+ * 按ID区间分块，根据 usage_records 重新计算 invite_codes 上冗余的使用次数与最后使用时间，
+ * 每个分块在独立事务中提交，避免长时间锁定大量邀请码。
+ * 之后逐个批次重新计算已生成与已使用的邀请码数量，并为历史批次补建批次记录。
+ */
+@Component
+public class UsageCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageCountReconciler.class);
+
+    private final UsageRecordBulkRepository usageRecordBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @Value("${invite-code.usage.reconcile-chunk-size:5000}")
+    private int chunkSize;
+
+    public UsageCountReconciler(UsageRecordBulkRepository usageRecordBulkRepository,
+                                TransactionTemplate transactionTemplate,
+                                InviteCodeBatchRepository inviteCodeBatchRepository) {
+        this.usageRecordBulkRepository = usageRecordBulkRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.inviteCodeBatchRepository = inviteCodeBatchRepository;
+    }
+
+    @Scheduled(cron = "${invite-code.usage.reconcile-cron:0 30 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("校正邀请码使用次数失败", e);
+        }
+    }
+
+    /**
+     * 重新计算全部邀请码的使用次数
+     *
+     * @return 处理的邀请码数量
+     */
+    public synchronized int reconcile() {
+        long[] range = usageRecordBulkRepository.findInviteCodeIdRange();
+        if (range == null) {
+            return 0;
+        }
+
+        long startNanos = System.nanoTime();
+        int processed = 0;
+        for (long chunkStart = range[0]; chunkStart <= range[1]; chunkStart += chunkSize) {
+            long fromId = chunkStart;
+            long toId = Math.min(chunkStart + chunkSize - 1, range[1]);
+            Integer updated = transactionTemplate.execute(
+                    status -> usageRecordBulkRepository.recomputeUsageCounts(fromId, toId));
+            processed += updated == null ? 0 : updated;
+        }
+        log.info("邀请码使用次数校正完成，邀请码: {}, 耗时: {}ms", processed, (System.nanoTime() - startNanos) / 1_000_000);
+        reconcileBatchCounts();
+        return processed;
+    }
+
+    private void reconcileBatchCounts() {
+        Integer created = transactionTemplate.execute(status -> inviteCodeBatchRepository.insertMissingBatches());
+        if (created != null && created > 0) {
+            log.info("补建历史批次记录: {}", created);
+        }
+        List<String> batchIds = inviteCodeBatchRepository.findAllBatchIds();
+        for (String batchId : batchIds) {
+            transactionTemplate.executeWithoutResult(status -> inviteCodeBatchRepository.recomputeCounts(batchId));
+        }
+        log.info("批次邀请码数量校正完成，批次: {}", batchIds.size());
+    }
+}
@@ -0,0 +1,456 @@
+package com.company.invitecode.usage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 使用记录的预写日志
+ * 记录按追加顺序编号，逐行追加到分段文件，{@link #append} 在记录写入文件并刷盘之后才返回；
+ * 并发的追加由最先到达的线程合并为一次写入和一次刷盘，其余线程等待结果（group commit）。
+ * 分段文件以其中第一条记录的序号命名，达到 segmentBytes 后切换到新文件。
+ *
+ * <p>读取只能读到已刷盘的位置。目录中的 journal.id 标识这份日志，目录被删除重建后生成新的ID，
+ * 按ID保存的写库进度不会套用到新日志上。打开时截掉上次写入中断留下的不完整末行。</p>
+ *
+ * <p>追加可以由任意线程并发调用；读取、定位和删除分段只能由写库线程调用。</p>
+ */
+final class UsageJournal implements Closeable {
+
+    private static final String ID_FILE = "journal.id";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int READ_CHUNK_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final String id;
+    private final long segmentBytes;
+    private final boolean fsync;
+
+    private final Object lock = new Object();
+    private List<Ticket> pending = new ArrayList<>();
+    private boolean writing;
+    private boolean closed;
+
+    // 以下字段只由取得写入权（writing）的线程访问
+    private FileChannel channel;
+    private long segmentFirstSeq;
+    private long segmentSize;
+    private long nextSeq;
+
+    /** 已写入并刷盘的末尾 */
+    private volatile Position durable;
+
+    private UsageJournal(Path directory, String id, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.id = id;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * 打开日志目录，不存在时创建
+     *
+     * @param directory 日志目录
+     * @param segmentBytes 单个分段文件的大小上限
+     * @param fsync 是否在每次写入后刷盘；关闭后进程被终止不丢记录，但操作系统崩溃或断电时可能丢失
+     */
+    static UsageJournal open(Path directory, long segmentBytes, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        UsageJournal journal = new UsageJournal(directory, readOrCreateId(directory), segmentBytes, fsync);
+        journal.openLastSegment();
+        return journal;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * @return 下一条追加的记录的序号，即已刷盘的记录总数
+     */
+    long durableSeq() {
+        return durable.seq;
+    }
+
+    /**
+     * 追加一条记录，写入并刷盘后返回
+     *
+     * @param line 不含换行符的一行记录
+     * @throws IOException 写入失败，记录没有写入日志
+     */
+    void append(byte[] line) throws IOException {
+        Ticket ticket = new Ticket(line);
+        List<Ticket> batch;
+        synchronized (lock) {
+            if (closed) {
+                throw new IOException("使用记录日志已关闭");
+            }
+            pending.add(ticket);
+            boolean interrupted = false;
+            while (writing && !ticket.done) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (ticket.done) {
+                ticket.result();
+                return;
+            }
+            if (closed) {
+                pending.remove(ticket);
+                throw new IOException("使用记录日志已关闭");
+            }
+            writing = true;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        IOException error = null;
+        try {
+            write(batch);
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (lock) {
+            for (Ticket completed : batch) {
+                completed.done = true;
+                completed.error = error;
+            }
+            writing = false;
+            lock.notifyAll();
+        }
+        ticket.result();
+    }
+
+    /**
+     * 从指定位置读取至多 max 条已刷盘的记录
+     */
+    Read read(Cursor from, int max) throws IOException {
+        List<byte[]> lines = new ArrayList<>();
+        Cursor cursor = from;
+        Position end = durable;
+        while (lines.size() < max) {
+            boolean last = cursor.segmentFirstSeq == end.segmentFirstSeq;
+            long limit = last ? end.bytes : Files.size(segmentPath(cursor.segmentFirstSeq));
+            if (cursor.offset >= limit) {
+                if (last) {
+                    break;
+                }
+                // 切换分段前已写完旧分段，新分段从当前序号开始
+                cursor = new Cursor(cursor.seq, 0, cursor.seq);
+                continue;
+            }
+            cursor = readSegment(cursor, limit, max - lines.size(), lines);
+        }
+        return new Read(lines, cursor);
+    }
+
+    /**
+     * 定位到指定序号的记录
+     */
+    Cursor seek(long seq) throws IOException {
+        long[] segments = listSegments();
+        long first = segments[0];
+        for (long segment : segments) {
+            if (segment <= seq) {
+                first = segment;
+            }
+        }
+        Cursor cursor = new Cursor(first, 0, first);
+        while (cursor.seq < seq) {
+            Read skipped = read(cursor, (int) Math.min(seq - cursor.seq, 10_000));
+            if (skipped.lines.isEmpty()) {
+                break;
+            }
+            cursor = skipped.next;
+        }
+        return cursor;
+    }
+
+    /**
+     * 删除全部记录序号都小于 seq 的分段文件，正在写入的分段不删除
+     *
+     * @return 删除的文件数
+     */
+    int deleteSegmentsBefore(long seq) throws IOException {
+        long[] segments = listSegments();
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.length && segments[i + 1] <= seq; i++) {
+            Files.deleteIfExists(segmentPath(segments[i]));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    int segmentCount() throws IOException {
+        return listSegments().length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (writing) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (closed) {
+                return;
+            }
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private void write(List<Ticket> batch) throws IOException {
+        if (segmentSize >= segmentBytes) {
+            rotate();
+        }
+        int length = 0;
+        for (Ticket ticket : batch) {
+            length += ticket.line.length + 1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (Ticket ticket : batch) {
+            buffer.put(ticket.line).put((byte) '\n');
+        }
+        buffer.flip();
+
+        long before = segmentSize;
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // 截掉可能已部分写入的内容，保持文件只包含完整的已确认记录
+            try {
+                channel.truncate(before);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+        segmentSize += length;
+        nextSeq += batch.size();
+        durable = new Position(segmentFirstSeq, segmentSize, nextSeq);
+    }
+
+    private void rotate() throws IOException {
+        channel.force(true);
+        channel.close();
+        Path path = segmentPath(nextSeq);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        forceDirectory();
+        segmentFirstSeq = nextSeq;
+        segmentSize = 0;
+    }
+
+    private void openLastSegment() throws IOException {
+        long[] segments = listSegments();
+        if (segments.length == 0) {
+            segmentFirstSeq = 0;
+            channel = FileChannel.open(segmentPath(0), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            forceDirectory();
+        } else {
+            segmentFirstSeq = segments[segments.length - 1];
+            channel = FileChannel.open(segmentPath(segmentFirstSeq), StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        long lines = 0;
+        long complete = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK_BYTES);
+        long position = 0;
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++) {
+                if (buffer.get(i) == '\n') {
+                    lines++;
+                    complete = position + i + 1;
+                }
+            }
+            position += buffer.limit();
+            buffer.clear();
+        }
+        if (complete < channel.size()) {
+            channel.truncate(complete);
+            channel.force(true);
+        }
+        channel.position(complete);
+        segmentSize = complete;
+        nextSeq = segmentFirstSeq + lines;
+        durable = new Position(segmentFirstSeq, segmentSize, nextSeq);
+    }
+
+    private Cursor readSegment(Cursor cursor, long limit, int max, List<byte[]> lines) throws IOException {
+        try (FileChannel reader = FileChannel.open(segmentPath(cursor.segmentFirstSeq), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(limit - cursor.offset, READ_CHUNK_BYTES));
+            while (buffer.hasRemaining()) {
+                if (reader.read(buffer, cursor.offset + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            byte[] content = buffer.array();
+            int length = buffer.position();
+            int start = 0;
+            int count = 0;
+            for (int i = 0; i < length && count < max; i++) {
+                if (content[i] == '\n') {
+                    lines.add(Arrays.copyOfRange(content, start, i));
+                    start = i + 1;
+                    count++;
+                }
+            }
+            if (count == 0) {
+                throw new IOException("使用记录日志中的记录超过" + READ_CHUNK_BYTES + "字节或不完整: "
+                        + segmentPath(cursor.segmentFirstSeq) + "@" + cursor.offset);
+            }
+            return new Cursor(cursor.segmentFirstSeq, cursor.offset + start, cursor.seq + count);
+        }
+    }
+
+    private long[] listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        return segments.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return directory.resolve(String.format("%020d%s", firstSeq, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 新建的分段文件在目录刷盘后才能在崩溃后可见，不支持目录刷盘的文件系统忽略
+     */
+    private void forceDirectory() {
+        if (!fsync) {
+            return;
+        }
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Windows等平台无法以通道打开目录
+        }
+    }
+
+    private static String readOrCreateId(Path directory) throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            return new String(Files.readAllBytes(idFile), StandardCharsets.UTF_8).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Path temp = directory.resolve(ID_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(id.getBytes(StandardCharsets.UTF_8)));
+            channel.force(true);
+        }
+        Files.move(temp, idFile, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    /**
+     * 日志中的读取位置
+     */
+    static final class Cursor {
+        private final long segmentFirstSeq;
+        private final long offset;
+        private final long seq;
+
+        Cursor(long segmentFirstSeq, long offset, long seq) {
+            this.segmentFirstSeq = segmentFirstSeq;
+            this.offset = offset;
+            this.seq = seq;
+        }
+
+        long getSegmentFirstSeq() {
+            return segmentFirstSeq;
+        }
+
+        /**
+         * @return 此位置上的记录序号，即之前已读取的记录总数
+         */
+        long getSeq() {
+            return seq;
+        }
+    }
+
+    /**
+     * 一次读取的结果
+     */
+    static final class Read {
+        private final List<byte[]> lines;
+        private final Cursor next;
+
+        private Read(List<byte[]> lines, Cursor next) {
+            this.lines = lines;
+            this.next = next;
+        }
+
+        List<byte[]> getLines() {
+            return lines;
+        }
+
+        Cursor getNext() {
+            return next;
+        }
+    }
+
+    private static final class Position {
+        private final long segmentFirstSeq;
+        private final long bytes;
+        private final long seq;
+
+        private Position(long segmentFirstSeq, long bytes, long seq) {
+            this.segmentFirstSeq = segmentFirstSeq;
+            this.bytes = bytes;
+            this.seq = seq;
+        }
+    }
+
+    private static final class Ticket {
+        private final byte[] line;
+        private boolean done;
+        private IOException error;
+
+        private Ticket(byte[] line) {
+            this.line = line;
+        }
+
+        private void result() throws IOException {
+            if (error != null) {
+                throw new IOException("写入使用记录日志失败", error);
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.dto.UsageWriterStatsDto;
+import com.company.invitecode.model.UsageJournalProgress;
+import com.company.invitecode.repository.UsageJournalProgressRepository;
+import com.company.invitecode.repository.UsageRecordBulkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 使用记录异步批量写入器（write-behind）
+ * 校验成功后使用记录先追加到本地预写日志 {@link UsageJournal}，刷盘后 {@link #record} 才返回；
+ * 单个后台线程按顺序读取日志，在积累到 batch-size 条或等待 flush-interval-ms 后批量写入数据库。
+ * 并发请求的日志写入合并为一次刷盘，请求线程只等待本地磁盘，不等待数据库。
+ *
+ * <p>日志的写库进度（已写入的记录数）保存在 usage_journal_progress 中，与对应批次在同一事务中提交。
+ * 进程崩溃或被强制终止后重启，从已提交的位置继续读取日志：已确认的记录不会丢失，也不会重复写入、
+ * 重复累加 usage_count。数据库不可用时记录留在日志中，恢复后按原顺序重试。</p>
+ *
+ * <p>日志中尚未写库的记录超过 max-backlog 条、日志不可写或写入器已关闭时，{@link #record}
+ * 在调用方的事务中同步写入数据库，请求速度因此受数据库写入速度限制。</p>
+ *
+ * <p>每批记录在同一事务中按邀请码汇总累加 invite_codes.usage_count，使用次数与已写入的记录保持一致；
+ * 偏差（例如日志损坏）由 {@link UsageCountReconciler} 定期校正。
+ * 写入成功的记录交给 {@link UsageRollupAggregator} 累加到按时间汇总的使用统计。</p>
+ */
+@Component
+public class UsageRecordWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageRecordWriter.class);
+
+    /** 写入数据库失败后的重试间隔 */
+    private static final long RETRY_MILLIS = 5_000;
+
+    private final UsageRecordBulkRepository usageRecordBulkRepository;
+    private final UsageJournalProgressRepository usageJournalProgressRepository;
+    private final UsageRollupAggregator usageRollupAggregator;
+    private final UserAgentDictionary userAgentDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder journaled = new LongAdder();
+    private final LongAdder synchronousWrites = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final LongAdder lostRecords = new LongAdder();
+
+    @Value("${invite-code.usage.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invite-code.usage.write-behind.max-backlog:1000000}")
+    private long maxBacklog;
+
+    @Value("${invite-code.usage.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${invite-code.usage.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${invite-code.usage.write-behind.journal-dir:data/usage-journal}")
+    private String journalDir;
+
+    @Value("${invite-code.usage.write-behind.journal-segment-bytes:67108864}")
+    private long journalSegmentBytes;
+
+    @Value("${invite-code.usage.write-behind.journal-fsync:true}")
+    private boolean journalFsync;
+
+    private volatile UsageJournal journal;
+    private volatile Thread writerThread;
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile long committedSeq;
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+
+    // 以下字段只由写入线程访问（关闭时在写入线程结束后访问）
+    private UsageJournal.Cursor cursor;
+    private PendingBatch retry;
+    private long nextAttempt;
+
+    public UsageRecordWriter(UsageRecordBulkRepository usageRecordBulkRepository,
+                             UsageJournalProgressRepository usageJournalProgressRepository,
+                             UsageRollupAggregator usageRollupAggregator, UserAgentDictionary userAgentDictionary,
+                             TransactionTemplate transactionTemplate, ObjectMapper objectMapper) {
+        this.usageRecordBulkRepository = usageRecordBulkRepository;
+        this.usageJournalProgressRepository = usageJournalProgressRepository;
+        this.usageRollupAggregator = usageRollupAggregator;
+        this.userAgentDictionary = userAgentDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            openJournal();
+        } catch (IOException e) {
+            log.error("打开使用记录日志失败，使用记录改为同步写入: {}", Paths.get(journalDir).toAbsolutePath(), e);
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "usage-record-writer");
+        thread.setDaemon(true);
+        writerThread = thread;
+        thread.start();
+        log.info("使用记录异步写入已启动，日志: {}, 批量: {}, 刷新间隔: {}ms, 积压上限: {}",
+                Paths.get(journalDir).toAbsolutePath(), batchSize, flushIntervalMillis, maxBacklog);
+    }
+
+    void openJournal() throws IOException {
+        UsageJournal opened = UsageJournal.open(Paths.get(journalDir), journalSegmentBytes, journalFsync);
+        // 写库进度从数据库读取之前，按日志中最早的记录估算积压
+        committedSeq = opened.seek(0).getSeq();
+        journal = opened;
+    }
+
+    /**
+     * 是否启用异步写入，未启用时 {@link #record} 在调用线程中同步写入数据库
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次邀请码使用，返回时记录已写入本地日志或数据库
+     *
+     * @param record 使用记录
+     */
+    public void record(PendingUsageRecord record) {
+        UsageJournal target = journal;
+        if (enabled && !closed && target != null) {
+            long backlog = target.durableSeq() - committedSeq;
+            if (backlog < maxBacklog) {
+                try {
+                    target.append(objectMapper.writeValueAsBytes(record));
+                    journaled.increment();
+                    if (backlog + 1 >= batchSize) {
+                        Thread thread = writerThread;
+                        if (thread != null) {
+                            LockSupport.unpark(thread);
+                        }
+                    }
+                    return;
+                } catch (IOException e) {
+                    log.error("写入使用记录日志失败，改为同步写入", e);
+                }
+            }
+        }
+        synchronousWrites.increment();
+        List<PendingUsageRecord> records = Collections.singletonList(record);
+        // 有调用方事务时加入该事务，与兑换一起提交或回滚
+        transactionTemplate.executeWithoutResult(status -> persist(records));
+        usageRollupAggregator.add(records);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        Thread thread = writerThread;
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        UsageJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        // 关闭前尽量写完日志，写不完的记录留在日志中，下次启动继续写入
+        nextAttempt = 0;
+        flush();
+        try {
+            current.close();
+        } catch (IOException e) {
+            log.error("关闭使用记录日志失败", e);
+        }
+        long backlog = current.durableSeq() - committedSeq;
+        if (backlog > 0) {
+            log.warn("关闭时仍有{}条使用记录未写入数据库，已保存在日志中，下次启动后写入", backlog);
+        }
+    }
+
+    public UsageWriterStatsDto getStats() {
+        UsageWriterStatsDto stats = new UsageWriterStatsDto();
+        long flushCount = flushes.sum();
+        UsageJournal current = journal;
+        stats.setEnabled(enabled);
+        stats.setRunning(running);
+        stats.setBacklog(current == null ? 0 : current.durableSeq() - committedSeq);
+        stats.setMaxBacklog(maxBacklog);
+        stats.setBatchSize(batchSize);
+        stats.setJournaled(journaled.sum());
+        stats.setSynchronousWrites(synchronousWrites.sum());
+        stats.setWritten(written.sum());
+        stats.setFlushes(flushCount);
+        stats.setFailedFlushes(failedFlushes.sum());
+        stats.setLastFlushMillis(lastFlushMillis);
+        stats.setMaxFlushMillis(maxFlushMillis);
+        stats.setAverageFlushMillis(flushCount == 0 ? 0 : totalFlushNanos.sum() / 1_000_000.0 / flushCount);
+        stats.setLostRecords(lostRecords.sum());
+        if (current != null) {
+            try {
+                stats.setJournalSegments(current.segmentCount());
+            } catch (IOException e) {
+                log.warn("读取使用记录日志目录失败", e);
+            }
+        }
+        return stats;
+    }
+
+    private void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (running) {
+            if (journal.durableSeq() - committedSeq < batchSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("使用记录写入线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 按顺序把日志中已刷盘的记录批量写入数据库，写入失败的批次在重试间隔后原样重试
+     * 只能由写入线程调用（关闭时在写入线程结束后调用）。
+     */
+    void flush() {
+        UsageJournal current = journal;
+        if (current == null || System.currentTimeMillis() < nextAttempt) {
+            return;
+        }
+        if (cursor == null && !position(current)) {
+            return;
+        }
+        while (true) {
+            if (retry == null) {
+                UsageJournal.Read read;
+                try {
+                    read = current.read(cursor, batchSize);
+                } catch (IOException e) {
+                    nextAttempt = System.currentTimeMillis() + RETRY_MILLIS;
+                    log.error("读取使用记录日志失败", e);
+                    return;
+                }
+                if (read.getLines().isEmpty()) {
+                    cursor = read.getNext();
+                    return;
+                }
+                retry = parse(read);
+            }
+            if (!writeBatch(current, retry)) {
+                nextAttempt = System.currentTimeMillis() + RETRY_MILLIS;
+                return;
+            }
+            lostRecords.add(retry.unreadable);
+            boolean segmentDone = retry.end.getSegmentFirstSeq() != cursor.getSegmentFirstSeq();
+            cursor = retry.end;
+            committedSeq = cursor.getSeq();
+            retry = null;
+            if (segmentDone) {
+                deleteCommittedSegments(current);
+            }
+        }
+    }
+
+    /**
+     * 从数据库读取写库进度并定位日志
+     */
+    private boolean position(UsageJournal current) {
+        try {
+            long committed = usageJournalProgressRepository.findById(current.getId())
+                    .map(UsageJournalProgress::getCommittedRecords)
+                    .orElse(0L);
+            cursor = current.seek(committed);
+            if (cursor.getSeq() != committed) {
+                log.error("使用记录日志与写库进度不一致，进度: {}, 从日志位置{}继续", committed, cursor.getSeq());
+            }
+            committedSeq = cursor.getSeq();
+            log.info("使用记录日志{}从第{}条继续写入，待写入: {}", current.getId(), committedSeq,
+                    current.durableSeq() - committedSeq);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            nextAttempt = System.currentTimeMillis() + RETRY_MILLIS;
+            log.error("读取使用记录日志写库进度失败", e);
+            return false;
+        }
+    }
+
+    private PendingBatch parse(UsageJournal.Read read) {
+        List<PendingUsageRecord> records = new ArrayList<>(read.getLines().size());
+        int unreadable = 0;
+        for (byte[] line : read.getLines()) {
+            try {
+                records.add(objectMapper.readValue(line, PendingUsageRecord.class));
+            } catch (IOException e) {
+                unreadable++;
+                log.warn("跳过无法解析的使用记录日志: {}", new String(line, StandardCharsets.UTF_8));
+            }
+        }
+        return new PendingBatch(records, unreadable, read.getNext());
+    }
+
+    private boolean writeBatch(UsageJournal current, PendingBatch batch) {
+        long startNanos = System.nanoTime();
+        UsageJournalProgress progress = new UsageJournalProgress(current.getId(), batch.end.getSeq());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                persist(batch.records);
+                usageJournalProgressRepository.save(progress);
+            });
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            log.error("批量写入使用记录失败，数量: {}，{}ms后重试", batch.records.size(), RETRY_MILLIS, e);
+            return false;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        lastFlushMillis = elapsedMillis;
+        if (elapsedMillis > maxFlushMillis) {
+            maxFlushMillis = elapsedMillis;
+        }
+        totalFlushNanos.add(elapsedNanos);
+        flushes.increment();
+        written.add(batch.records.size());
+        usageRollupAggregator.add(batch.records);
+        return true;
+    }
+
+    private void persist(List<PendingUsageRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        usageRecordBulkRepository.insertBatch(records, userAgentDictionary.resolve(records));
+        usageRecordBulkRepository.incrementUsageCounts(records);
+    }
+
+    private void deleteCommittedSegments(UsageJournal current) {
+        try {
+            int deleted = current.deleteSegmentsBefore(committedSeq);
+            if (deleted > 0) {
+                log.debug("删除已写入数据库的使用记录日志分段: {}", deleted);
+            }
+        } catch (IOException e) {
+            log.warn("删除使用记录日志分段失败", e);
+        }
+    }
+
+    /**
+     * 从日志读出、尚未提交的一批记录
+     */
+    private static final class PendingBatch {
+        private final List<PendingUsageRecord> records;
+        private final int unreadable;
+        private final UsageJournal.Cursor end;
+
+        private PendingBatch(List<PendingUsageRecord> records, int unreadable, UsageJournal.Cursor end) {
+            this.records = records;
+            this.unreadable = unreadable;
+            this.end = end;
+        }
+    }
+}
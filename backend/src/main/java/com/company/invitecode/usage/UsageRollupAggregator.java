@@ -0,0 +1,296 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.index.HyperLogLog;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.company.invitecode.repository.UsageRollupBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 使用统计增量汇总器
+ * 使用记录写入数据库后，按（邀请码, 分钟）在内存中累加；定时刷新时换算出全部批次合计与各批次的分钟/小时/天汇总
+ * 和邀请码的小时/天汇总，以合并UPSERT写入 usage_rollups。统计图表只读取预汇总的行，不再扫描原始记录。
+ * 带用户ID的记录同时按（批次, 天）计入HyperLogLog草图，用于估计独立用户数。
+ *
+ * <p>汇总滞后最多一个刷新间隔。刷新失败的增量放回内存，下次刷新重试；
+ * 进程被强制终止时丢失尚未刷新的增量，原始使用记录不受影响。</p>
+ */
+@Component
+public class UsageRollupAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageRollupAggregator.class);
+
+    /** 批次合计行的邀请码ID */
+    public static final long BATCH_TOTAL = 0L;
+    /** 没有批次的邀请码汇总到的批次ID */
+    public static final String NO_BATCH = "";
+    /** 全部批次合计使用的批次ID */
+    public static final String ALL_BATCHES = "*";
+
+    private static final int PURGE_CHUNK_SIZE = 5000;
+
+    private final UsageRollupBulkRepository usageRollupBulkRepository;
+    private final InviteCodeBulkRepository inviteCodeBulkRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** (邀请码ID, 分钟) 到尚未刷新的使用次数 */
+    private final ConcurrentHashMap<MinuteKey, Long> pending = new ConcurrentHashMap<>();
+    /** 尚未计入草图的使用用户 */
+    private final ConcurrentLinkedQueue<UserHit> pendingUsers = new ConcurrentLinkedQueue<>();
+    /** 邀请码所属批次不会变化，缓存后刷新时不必重复查询；超过上限时逐个淘汰最久未用的条目，只在 flush 中访问 */
+    private final Map<Long, String> batchIds = new LinkedHashMap<Long, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > batchCacheSize;
+        }
+    };
+
+    @Value("${invite-code.usage.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${invite-code.usage.rollup.lookup-chunk-size:1000}")
+    private int lookupChunkSize;
+
+    @Value("${invite-code.usage.rollup.batch-cache-size:100000}")
+    private int batchCacheSize;
+
+    @Value("${invite-code.usage.rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    public UsageRollupAggregator(UsageRollupBulkRepository usageRollupBulkRepository,
+                                 InviteCodeBulkRepository inviteCodeBulkRepository,
+                                 TransactionTemplate transactionTemplate) {
+        this.usageRollupBulkRepository = usageRollupBulkRepository;
+        this.inviteCodeBulkRepository = inviteCodeBulkRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * 累加已写入数据库的使用记录
+     *
+     * @param records 使用记录
+     */
+    public void add(List<PendingUsageRecord> records) {
+        if (!enabled) {
+            return;
+        }
+        for (PendingUsageRecord record : records) {
+            long minute = record.getUsedAt().toEpochSecond(ZoneOffset.UTC) / 60;
+            pending.merge(new MinuteKey(record.getInviteCodeId(), minute), 1L, Long::sum);
+            String userId = record.getUserId();
+            if (userId != null && !userId.isEmpty()) {
+                pendingUsers.offer(new UserHit(record.getInviteCodeId(), minute, userId));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invite-code.usage.rollup.flush-interval-ms:10000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("刷新使用统计汇总失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("关闭前刷新使用统计汇总失败，未刷新的增量: {}", pending.size(), e);
+        }
+    }
+
+    /**
+     * 将内存中的增量合并写入汇总表
+     * 逐个移除键再写入，刷新期间新到的使用记录进入新的键，不会丢失。
+     *
+     * @return 写入的汇总行数
+     */
+    public synchronized int flush() {
+        if (pending.isEmpty() && pendingUsers.isEmpty()) {
+            return 0;
+        }
+        Map<MinuteKey, Long> drained = new HashMap<>(pending.size() * 2);
+        for (MinuteKey key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count != null) {
+                drained.put(key, count);
+            }
+        }
+        List<UserHit> users = new ArrayList<>();
+        UserHit user;
+        while ((user = pendingUsers.poll()) != null) {
+            users.add(user);
+        }
+
+        long startNanos = System.nanoTime();
+        SortedMap<RollupKey, Long> deltas;
+        try {
+            Map<Long, String> batches = resolveBatchIds(drained.keySet(), users);
+            deltas = rollUp(drained, batches);
+            SortedMap<RollupKey, HyperLogLog> sketches = sketch(users, batches);
+            transactionTemplate.executeWithoutResult(status -> {
+                usageRollupBulkRepository.upsert(deltas);
+                usageRollupBulkRepository.mergeSketches(sketches);
+            });
+        } catch (RuntimeException e) {
+            drained.forEach((key, count) -> pending.merge(key, count, Long::sum));
+            pendingUsers.addAll(users);
+            throw e;
+        }
+        log.debug("使用统计汇总已刷新，增量: {}, 汇总行: {}, 耗时: {}ms",
+                drained.size(), deltas.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        return deltas.size();
+    }
+
+    /**
+     * 删除超过保留期的分钟汇总，小时和天汇总长期保留
+     */
+    @Scheduled(cron = "${invite-code.usage.rollup.purge-cron:0 15 4 * * *}")
+    public void purgeMinuteRollups() {
+        LocalDateTime before = LocalDateTime.now().minusDays(minuteRetentionDays);
+        int purged = 0;
+        try {
+            int deleted;
+            do {
+                deleted = usageRollupBulkRepository.purge(RollupGranularity.MINUTE, before, PURGE_CHUNK_SIZE);
+                purged += deleted;
+            } while (deleted == PURGE_CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            log.error("清理分钟使用统计汇总失败", e);
+        }
+        log.info("已清理{}之前的分钟使用统计汇总: {}", before, purged);
+    }
+
+    private SortedMap<RollupKey, Long> rollUp(Map<MinuteKey, Long> drained, Map<Long, String> batches) {
+        SortedMap<RollupKey, Long> deltas = new TreeMap<>();
+        for (Map.Entry<MinuteKey, Long> entry : drained.entrySet()) {
+            long inviteCodeId = entry.getKey().inviteCodeId;
+            String batchId = batches.getOrDefault(inviteCodeId, NO_BATCH);
+            LocalDateTime minute = LocalDateTime.ofEpochSecond(entry.getKey().minute * 60, 0, ZoneOffset.UTC);
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                LocalDateTime bucketStart = granularity.truncate(minute);
+                deltas.merge(new RollupKey(granularity, ALL_BATCHES, BATCH_TOTAL, bucketStart),
+                        entry.getValue(), Long::sum);
+                deltas.merge(new RollupKey(granularity, batchId, BATCH_TOTAL, bucketStart),
+                        entry.getValue(), Long::sum);
+                if (granularity.isCodeLevel()) {
+                    deltas.merge(new RollupKey(granularity, batchId, inviteCodeId, bucketStart),
+                            entry.getValue(), Long::sum);
+                }
+            }
+        }
+        return deltas;
+    }
+
+    private SortedMap<RollupKey, HyperLogLog> sketch(List<UserHit> users, Map<Long, String> batches) {
+        SortedMap<RollupKey, HyperLogLog> sketches = new TreeMap<>();
+        for (UserHit user : users) {
+            LocalDateTime day = RollupGranularity.DAY.truncate(
+                    LocalDateTime.ofEpochSecond(user.minute * 60, 0, ZoneOffset.UTC));
+            String batchId = batches.getOrDefault(user.inviteCodeId, NO_BATCH);
+            sketches.computeIfAbsent(new RollupKey(RollupGranularity.DAY, ALL_BATCHES, BATCH_TOTAL, day),
+                    key -> new HyperLogLog()).add(user.userId);
+            sketches.computeIfAbsent(new RollupKey(RollupGranularity.DAY, batchId, BATCH_TOTAL, day),
+                    key -> new HyperLogLog()).add(user.userId);
+        }
+        return sketches;
+    }
+
+    private Map<Long, String> resolveBatchIds(Iterable<MinuteKey> keys, List<UserHit> users) {
+        Map<Long, String> resolved = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (MinuteKey key : keys) {
+            resolveCached(key.inviteCodeId, resolved, missing);
+        }
+        for (UserHit user : users) {
+            resolveCached(user.inviteCodeId, resolved, missing);
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        for (int from = 0; from < missing.size(); from += lookupChunkSize) {
+            List<Long> chunk = missing.subList(from, Math.min(from + lookupChunkSize, missing.size()));
+            inviteCodeBulkRepository.findBatchIds(chunk).forEach((id, batchId) -> {
+                String value = batchId == null ? NO_BATCH : batchId;
+                resolved.put(id, value);
+                batchIds.put(id, value);
+            });
+        }
+        return resolved;
+    }
+
+    private void resolveCached(long inviteCodeId, Map<Long, String> resolved, List<Long> missing) {
+        if (resolved.containsKey(inviteCodeId)) {
+            return;
+        }
+        String batchId = batchIds.get(inviteCodeId);
+        if (batchId == null) {
+            missing.add(inviteCodeId);
+            resolved.put(inviteCodeId, NO_BATCH);
+        } else {
+            resolved.put(inviteCodeId, batchId);
+        }
+    }
+
+    private static final class UserHit {
+        private final long inviteCodeId;
+        private final long minute;
+        private final String userId;
+
+        private UserHit(long inviteCodeId, long minute, String userId) {
+            this.inviteCodeId = inviteCodeId;
+            this.minute = minute;
+            this.userId = userId;
+        }
+    }
+
+    private static final class MinuteKey {
+        private final long inviteCodeId;
+        private final long minute;
+
+        private MinuteKey(long inviteCodeId, long minute) {
+            this.inviteCodeId = inviteCodeId;
+            this.minute = minute;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MinuteKey)) {
+                return false;
+            }
+            MinuteKey other = (MinuteKey) o;
+            return inviteCodeId == other.inviteCodeId && minute == other.minute;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(inviteCodeId, minute);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.repository.UserAgentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * User-Agent字典的进程内缓存
+ * 最近使用的User-Agent到字典ID的映射保存在有界LRU缓存中，命中时写入使用记录不需要查询字典表。
+ * 未命中的值在独立事务中登记并提交，即使使用记录的事务回滚，缓存中的ID也始终有效。
+ */
+@Component
+public class UserAgentDictionary {
+
+    private final UserAgentRepository userAgentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${invite-code.usage.user-agent-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Long> cache = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    public UserAgentDictionary(UserAgentRepository userAgentRepository, PlatformTransactionManager transactionManager) {
+        this.userAgentRepository = userAgentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 查询一批使用记录的User-Agent字典ID，字典中没有的值先登记
+     *
+     * @param records 使用记录
+     * @return User-Agent到字典ID的映射，不包含空值
+     */
+    public Map<String, Long> resolve(Collection<PendingUsageRecord> records) {
+        Map<String, Long> ids = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        synchronized (cache) {
+            for (PendingUsageRecord record : records) {
+                String userAgent = record.getUserAgent();
+                if (userAgent == null || ids.containsKey(userAgent) || missing.contains(userAgent)) {
+                    continue;
+                }
+                Long id = cache.get(userAgent);
+                if (id != null) {
+                    ids.put(userAgent, id);
+                } else {
+                    missing.add(userAgent);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        List<Map.Entry<byte[], String>> entries = new ArrayList<>(missing.size());
+        for (String userAgent : missing) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(digest(userAgent), userAgent));
+        }
+        entries.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        List<byte[]> hashes = new ArrayList<>(entries.size());
+        entries.forEach(entry -> hashes.add(entry.getKey()));
+        Map<String, Long> loaded = transactionTemplate.execute(status -> {
+            userAgentRepository.insertIgnoringDuplicates(entries);
+            return userAgentRepository.findIdsByHash(hashes);
+        });
+        if (loaded != null) {
+            synchronized (cache) {
+                cache.putAll(loaded);
+            }
+            ids.putAll(loaded);
+        }
+        return ids;
+    }
+
+    /**
+     * @return 与MySQL的 UNHEX(SHA2(user_agent, 256)) 相同的摘要
+     */
+    static byte[] digest(String userAgent) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(userAgent.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.company.invitecode.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * IP地址文本与二进制形式的转换
+ * IPv4保存为4字节，IPv6保存为16字节，与MySQL的 INET6_ATON / INET6_NTOA 一致。
+ * 只解析IP字面量，不会触发DNS查询。
+ */
+public final class IpAddressCodec {
+
+    /** 二进制形式的最大长度 */
+    public static final int MAX_LENGTH = 16;
+
+    private IpAddressCodec() {
+    }
+
+    /**
+     * @param address IP地址文本
+     * @return 4或16字节的地址，为空或不是IP字面量时返回null
+     */
+    public static byte[] encode(String address) {
+        if (address == null || address.isEmpty()) {
+            return null;
+        }
+        if (address.indexOf(':') < 0) {
+            return encodeIpv4(address);
+        }
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        if (address.charAt(0) == '.') {
+            return null;
+        }
+        try {
+            // 包含冒号且以十六进制数字或冒号开头时，InetAddress只按IPv6字面量解析
+            return InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param address 4或16字节的地址
+     * @return IP地址文本，地址为null或长度不正确时返回null
+     */
+    public static String decode(byte[] address) {
+        if (address == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(address).getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    private static byte[] encodeIpv4(String address) {
+        byte[] bytes = new byte[4];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i <= address.length(); i++) {
+            char c = i < address.length() ? address.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || part == 4) {
+                    return null;
+                }
+                bytes[part++] = (byte) value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return part == 4 ? bytes : null;
+    }
+}
@@ -0,0 +1,22 @@
+-- usage_records 紧凑存储迁移（MySQL 5.7）
+-- 应用启动后 ddl-auto 会新增 user_agents 表以及 usage_records.ip、usage_records.user_agent_id 列，
+-- 新写入的记录只使用新列。本脚本把历史记录的 ip_address、user_agent 文本迁移到新列后删除旧列。
+-- 表较大时按ID区间分批执行两条UPDATE（在WHERE中追加 AND r.id BETWEEN ? AND ?）。
+
+INSERT IGNORE INTO user_agents (value_hash, user_agent)
+SELECT DISTINCT UNHEX(SHA2(LEFT(user_agent, 512), 256)), LEFT(user_agent, 512)
+FROM usage_records
+WHERE user_agent IS NOT NULL;
+
+UPDATE usage_records r
+    JOIN user_agents a ON a.value_hash = UNHEX(SHA2(LEFT(r.user_agent, 512), 256))
+SET r.user_agent_id = a.id
+WHERE r.user_agent IS NOT NULL AND r.user_agent_id IS NULL;
+
+UPDATE usage_records r
+SET r.ip = INET6_ATON(r.ip_address)
+WHERE r.ip_address IS NOT NULL AND r.ip IS NULL;
+
+ALTER TABLE usage_records
+    DROP COLUMN ip_address,
+    DROP COLUMN user_agent;
@@ -0,0 +1,19 @@
+-- usage_records 按月分区（MySQL 5.7，可选）
+-- 分区后归档任务整月删除已归档的分区，不再逐行DELETE；未执行本脚本时归档任务按ID分块删除。
+-- 分区键必须包含在每个唯一键中，因此主键改为 (id, used_at)，并去掉分区表不支持的外键。
+-- 执行前先停止应用，按实际的最早月份调整第一个分区；表较大时使用 pt-online-schema-change 等在线变更工具。
+-- 历史数据需先执行 db/usage_records_compact.sql，分区重建时只复制紧凑后的行。
+
+ALTER TABLE usage_records DROP FOREIGN KEY FKjs0ub6xyh09fx59694echi03a;
+
+ALTER TABLE usage_records
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, used_at);
+
+-- 每个分区 pYYYYMM 容纳该月的记录，pmax 容纳尚未建立分区的月份；归档任务会提前建立之后 premake-months 个月的分区
+ALTER TABLE usage_records PARTITION BY RANGE (TO_DAYS(used_at)) (
+    PARTITION p202401 VALUES LESS THAN (TO_DAYS('2024-02-01')),
+    PARTITION p202402 VALUES LESS THAN (TO_DAYS('2024-03-01')),
+    PARTITION p202403 VALUES LESS THAN (TO_DAYS('2024-04-01')),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
@@ -0,0 +1,82 @@
+package com.company.invitecode.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secretKey", "testSecretKey");
+        ReflectionTestUtils.setField(jwtTokenProvider, "validityInMilliseconds", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "cacheMaxSize", 2);
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void authenticate_ShouldReuseVerifiedTokenFromCache() {
+        // Arrange
+        String token = jwtTokenProvider.createToken("admin", Collections.singletonList("ROLE_ADMIN"));
+
+        // Act
+        Authentication first = jwtTokenProvider.authenticate(token);
+        Authentication second = jwtTokenProvider.authenticate(token);
+
+        // Assert
+        assertThat(first.getName()).isEqualTo("admin");
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void authenticate_ShouldRejectTamperedAndExpiredTokens() {
+        // Arrange
+        String token = jwtTokenProvider.createToken("admin", Collections.singletonList("ROLE_ADMIN"));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        ReflectionTestUtils.setField(jwtTokenProvider, "validityInMilliseconds", -1_000L);
+        String expired = jwtTokenProvider.createToken("admin", Collections.singletonList("ROLE_ADMIN"));
+
+        // Act
+        Authentication tamperedResult = jwtTokenProvider.authenticate(tampered);
+        Authentication expiredResult = jwtTokenProvider.authenticate(expired);
+        Authentication malformedResult = jwtTokenProvider.authenticate("not-a-token");
+
+        // Assert
+        assertThat(tamperedResult).isNull();
+        assertThat(expiredResult).isNull();
+        assertThat(malformedResult).isNull();
+    }
+
+    @Test
+    void authenticate_WhenCacheFull_ShouldEvictExpiredTokensFirst() {
+        // Arrange: 缓存上限为2，其中一个缓存的令牌已过期
+        String first = jwtTokenProvider.createToken("user1", Collections.singletonList("ROLE_USER"));
+        String second = jwtTokenProvider.createToken("user2", Collections.singletonList("ROLE_USER"));
+        String third = jwtTokenProvider.createToken("user3", Collections.singletonList("ROLE_USER"));
+        Authentication firstResult = jwtTokenProvider.authenticate(first);
+        jwtTokenProvider.authenticate(second);
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(jwtTokenProvider, "verifiedTokens");
+        Object expiring = cache.values().stream()
+                .filter(token -> ReflectionTestUtils.getField(token, "authentication") != firstResult)
+                .findFirst().orElseThrow();
+        ReflectionTestUtils.setField(expiring, "expiresAt", 0L);
+
+        // Act
+        jwtTokenProvider.authenticate(third);
+
+        // Assert
+        assertThat(cache).hasSize(2);
+        assertThat(jwtTokenProvider.authenticate(first)).isSameAs(firstResult);
+    }
+}
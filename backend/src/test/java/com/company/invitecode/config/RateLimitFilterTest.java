@@ -0,0 +1,26 @@
+package com.company.invitecode.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+
+    @Test
+    void resolveClientKey_ShouldUseEntryAppendedByTrustedProxy() {
+        // Arrange: 客户端自行填写了 X-Forwarded-For 的左侧条目
+        String forwardedFor = "1.2.3.4, 5.6.7.8, 203.0.113.7";
+
+        // Act
+        String oneProxy = RateLimitFilter.resolveClientKey("10.0.0.1", forwardedFor, 1);
+        String twoProxies = RateLimitFilter.resolveClientKey("10.0.0.1", forwardedFor, 2);
+        String untrusted = RateLimitFilter.resolveClientKey("10.0.0.1", forwardedFor, 0);
+        String missingHeader = RateLimitFilter.resolveClientKey("10.0.0.1", null, 1);
+
+        // Assert
+        assertThat(oneProxy).isEqualTo("203.0.113.7");
+        assertThat(twoProxies).isEqualTo("5.6.7.8");
+        assertThat(untrusted).isEqualTo("10.0.0.1");
+        assertThat(missingHeader).isEqualTo("10.0.0.1");
+    }
+}
@@ -2,7 +2,10 @@ package com.company.invitecode.controller;
 
 import com.company.invitecode.dto.InviteCodeDto;
 import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
 import com.company.invitecode.dto.response.ApiResponse;
+import com.company.invitecode.service.ExportFormat;
+import com.company.invitecode.service.InviteCodeExportService;
 import com.company.invitecode.service.InviteCodeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -13,17 +16,28 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +53,9 @@ public class InviteCodeControllerTest {
     @MockBean
     private InviteCodeService inviteCodeService;
 
+    @MockBean
+    private InviteCodeExportService inviteCodeExportService;
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     public void generateInviteCodes_ShouldReturnGeneratedCodes() throws Exception {
@@ -103,4 +120,78 @@ public class InviteCodeControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isForbidden());
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void searchAndUsageEndpoints_WithoutAuth_ShouldReturn401() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/invite-codes/search").param("batchId", "batch-1"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/invite-codes/scroll"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/invite-codes/1/usage-stats").param("from", "2024-01-01T00:00:00"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/invite-codes/1/usage-records/scroll"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(username = "user", roles = {"USER"})
+    public void searchInviteCodes_WithoutAdminRole_ShouldReturn403() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/invite-codes/search").param("batchId", "batch-1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void verifyInviteCodeAsync_ShouldCompleteAsynchronously() throws Exception {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode("ABCD2345");
+        request.setUserId("user-1");
+        when(inviteCodeService.verifyInviteCodeAsync(any(VerifyInviteCodeRequest.class), anyString(), any()))
+                .thenReturn(CompletableFuture.supplyAsync(() -> true));
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/invite-codes/verify-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data").value(true));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void exportBatch_ShouldStreamCodesAsynchronously() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("code\nABCD2345\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(inviteCodeExportService).exportBatch(eq("batch-1"), eq(ExportFormat.CSV), any(OutputStream.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/invite-codes/batches/batch-1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"invite-codes-batch-1.csv\""))
+                .andExpect(content().string("code\nABCD2345\n"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    public void exportBatch_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/invite-codes/batches/batch-1/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}
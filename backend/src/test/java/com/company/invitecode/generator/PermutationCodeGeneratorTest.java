@@ -0,0 +1,65 @@
+package com.company.invitecode.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class PermutationCodeGeneratorTest {
+
+    @Mock
+    private CounterBlockAllocator counterBlockAllocator;
+
+    @Test
+    void nextCode_ShouldProduceUniqueCrockfordCodesAcrossBlocks() {
+        // Arrange
+        when(counterBlockAllocator.allocate(anyString(), anyInt())).thenReturn(0L, 1000L, 2000L);
+        PermutationCodeGenerator generator = new PermutationCodeGenerator(counterBlockAllocator, "secret", 1000);
+
+        // Act
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            codes.add(generator.nextCode());
+        }
+
+        // Assert
+        assertThat(codes).hasSize(3000);
+        assertThat(codes).allMatch(code -> code.matches("[0-9A-HJKMNP-TV-Z]{10}"));
+        verify(counterBlockAllocator, times(3)).allocate(anyString(), anyInt());
+    }
+
+    @Test
+    void nextCode_WithDifferentSecrets_ShouldProduceDifferentCodes() {
+        // Arrange
+        when(counterBlockAllocator.allocate(anyString(), anyInt())).thenReturn(0L);
+        PermutationCodeGenerator first = new PermutationCodeGenerator(counterBlockAllocator, "secret-a", 100);
+        PermutationCodeGenerator second = new PermutationCodeGenerator(counterBlockAllocator, "secret-b", 100);
+
+        // Act & Assert
+        assertThat(first.nextCode()).isNotEqualTo(second.nextCode());
+    }
+
+    @Test
+    void permutation_ShouldBeInvertible() {
+        // Arrange
+        FeistelPermutation permutation = new FeistelPermutation(50, new long[]{1L, 2L, 3L, 4L});
+
+        // Act & Assert
+        for (long value = 0; value < 10_000; value++) {
+            long permuted = permutation.permute(value);
+            assertThat(permuted).isBetween(0L, (1L << 50) - 1);
+            assertThat(permutation.inverse(permuted)).isEqualTo(value);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.company.invitecode.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverReturnFalseForInsertedCodes() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("CODE" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("CODE" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearConfiguredFalsePositiveRate() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("CODE" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("MISS" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.estimateFalsePositiveRate()).isBetween(0.005, 0.02);
+    }
+}
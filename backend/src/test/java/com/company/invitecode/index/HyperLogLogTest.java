@@ -0,0 +1,48 @@
+package com.company.invitecode.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldStayWithinStandardError() {
+        // Arrange
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+
+        // Act: 重复添加不影响估计
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100; i++) {
+                small.add("user" + i);
+            }
+        }
+        for (int i = 0; i < 200_000; i++) {
+            large.add("user" + i);
+        }
+
+        // Assert
+        assertThat(small.estimate()).isCloseTo(100, within(3L));
+        assertThat((double) large.estimate()).isCloseTo(200_000, within(200_000 * 0.05));
+    }
+
+    @Test
+    void merge_ShouldEstimateUnionOfOverlappingSketches() {
+        // Arrange: 两天各5万用户，其中2万重叠
+        HyperLogLog dayOne = new HyperLogLog();
+        HyperLogLog dayTwo = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            dayOne.add("user" + i);
+            dayTwo.add("user" + (i + 30_000));
+        }
+
+        // Act
+        HyperLogLog merged = HyperLogLog.fromBytes(dayOne.toBytes());
+        merged.merge(dayTwo);
+
+        // Assert
+        assertThat((double) merged.estimate()).isCloseTo(80_000, within(80_000 * 0.05));
+    }
+}
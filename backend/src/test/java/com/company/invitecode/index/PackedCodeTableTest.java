@@ -0,0 +1,50 @@
+package com.company.invitecode.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PackedCodeTableTest {
+
+    @Test
+    void put_ShouldKeepAllEntriesAcrossResizes() {
+        // Arrange
+        PackedCodeTable table = new PackedCodeTable(16);
+
+        // Act
+        for (long key = 1; key <= 100_000; key++) {
+            table.put(key << 20, key * 2);
+        }
+
+        // Assert
+        assertThat(table.size()).isEqualTo(100_000);
+        assertThat(table.capacity()).isGreaterThan(100_000);
+        for (long key = 1; key <= 100_000; key++) {
+            assertThat(table.get(key << 20)).isEqualTo(key * 2);
+        }
+        assertThat(table.get(123)).isEqualTo(PackedCodeTable.NO_VALUE);
+    }
+
+    @Test
+    void put_WithExistingKey_ShouldOverwriteValue() {
+        // Arrange
+        PackedCodeTable table = new PackedCodeTable(16);
+        table.put(42, 3);
+
+        // Act
+        table.put(42, 2);
+
+        // Assert
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.get(42)).isEqualTo(2);
+    }
+
+    @Test
+    void pack_ShouldDistinguishLengthAndIgnoreCase() {
+        assertThat(CodeVerificationIndex.pack("00000000")).isNotEqualTo(CodeVerificationIndex.pack("000000000"));
+        assertThat(CodeVerificationIndex.pack("abcdef12")).isEqualTo(CodeVerificationIndex.pack("ABCDEF12"));
+        assertThat(CodeVerificationIndex.pack("A1B2C3D4E5")).isNotZero();
+        assertThat(CodeVerificationIndex.pack("TEST-123")).isZero();
+        assertThat(CodeVerificationIndex.pack("0123456789ABC")).isZero();
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.invitecode.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RejectedCodeCacheTest {
+
+    private RejectedCodeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RejectedCodeCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 4);
+        cache.init();
+    }
+
+    @Test
+    void contains_ShouldHitRejectedCodeIgnoringCase() {
+        // Arrange
+        cache.put("abc123", cache.stamp());
+
+        // Act
+        boolean hit = cache.contains("ABC123");
+        boolean miss = cache.contains("XYZ789");
+
+        // Assert
+        assertThat(hit).isTrue();
+        assertThat(miss).isFalse();
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidateAfterCommit_ShouldRemoveCodeAndDiscardStalePut() {
+        // Arrange
+        cache.put("ENABLED", cache.stamp());
+        long staleStamp = cache.stamp();
+
+        // Act: 没有事务时立即失效
+        cache.invalidateAfterCommit(Collections.singletonList("enabled"));
+        cache.put("ENABLED", staleStamp);
+
+        // Assert
+        assertThat(cache.contains("ENABLED")).isFalse();
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldKeepSizeWithinTwoGenerations() {
+        // Arrange & Act: 每代容量为max-size的一半
+        for (int i = 0; i < 10; i++) {
+            cache.put("CODE" + i, cache.stamp());
+        }
+
+        // Assert: 只保留最近两代
+        assertThat(cache.getStats().getSize()).isLessThanOrEqualTo(4);
+        assertThat(cache.contains("CODE9")).isTrue();
+        assertThat(cache.contains("CODE0")).isFalse();
+        assertThat(cache.getStats().getRotations()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,86 @@
+package com.company.invitecode.quota;
+
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 配额租借在独立事务中提交，测试本身不包在事务里
+ */
+@DataJpaTest(properties = {"invite-code.quota.lease-size=4", "invite-code.quota.stripes=2"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BatchQuotaManager.class, CodeVerificationIndex.class, InviteCodeBulkRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BatchQuotaManagerTest {
+
+    @Autowired
+    private BatchQuotaManager batchQuotaManager;
+
+    @Autowired
+    private InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @SpyBean
+    private CodeVerificationIndex codeVerificationIndex;
+
+    @Test
+    void tryAcquire_ShouldStopAtQuota() {
+        // Arrange
+        batchQuotaManager.setQuota("quota-batch", 10);
+
+        // Act
+        int acquired = 0;
+        for (int i = 0; i < 15; i++) {
+            if (batchQuotaManager.tryAcquire("quota-batch")) {
+                acquired++;
+            }
+        }
+
+        // Assert
+        assertThat(acquired).isEqualTo(10);
+        assertThat(inviteCodeBatchRepository.findById("quota-batch").get().getLeasedRedemptions()).isEqualTo(10);
+        assertThat(batchQuotaManager.tryAcquire("no-quota-batch")).isTrue();
+    }
+
+    @Test
+    void returnUnusedLeases_ShouldGiveBackLocalPermits() {
+        // Arrange: 租借一块4个，只使用1个
+        batchQuotaManager.setQuota("return-batch", 10);
+        batchQuotaManager.tryAcquire("return-batch");
+
+        // Act
+        batchQuotaManager.returnUnusedLeases();
+
+        // Assert
+        assertThat(inviteCodeBatchRepository.findById("return-batch").get().getLeasedRedemptions()).isEqualTo(1);
+        assertThat(batchQuotaManager.hasQuota("return-batch")).isFalse();
+    }
+
+    @Test
+    void refresh_WhenAnotherInstanceSetsQuota_ShouldRestrictBatchInIndex() {
+        // Arrange: 配额由其他实例写入数据库
+        InviteCodeBatch batch = new InviteCodeBatch("remote-batch", null, null);
+        batch.setRedemptionQuota(5);
+        inviteCodeBatchRepository.save(batch);
+
+        // Act
+        batchQuotaManager.refresh();
+        batchQuotaManager.refresh();
+
+        // Assert: 只在首次发现配额时标记一次
+        assertThat(batchQuotaManager.hasQuota("remote-batch")).isTrue();
+        verify(codeVerificationIndex, times(1)).restrictBatch("remote-batch");
+    }
+}
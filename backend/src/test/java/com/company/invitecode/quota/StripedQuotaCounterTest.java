@@ -0,0 +1,97 @@
+package com.company.invitecode.quota;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedQuotaCounterTest {
+
+    @Test
+    void tryAcquire_ShouldNeverExceedLeasedCapacityUnderContention() throws Exception {
+        // Arrange: 数据库配额1000，每次租借64
+        AtomicInteger remainingInDatabase = new AtomicInteger(1000);
+        AtomicInteger leaseCalls = new AtomicInteger();
+        StripedQuotaCounter counter = new StripedQuotaCounter(4, 64, requested -> {
+            leaseCalls.incrementAndGet();
+            int granted = Math.min(requested, remainingInDatabase.get());
+            remainingInDatabase.addAndGet(-granted);
+            return granted;
+        });
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int acquired = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (counter.tryAcquire()) {
+                        acquired++;
+                    }
+                }
+                return acquired;
+            }));
+        }
+        start.countDown();
+        int total = 0;
+        for (Future<Integer> result : results) {
+            total += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(total).isEqualTo(1000);
+        assertThat(counter.isExhausted()).isTrue();
+        assertThat(counter.available()).isZero();
+        assertThat(leaseCalls.get()).isLessThanOrEqualTo(1000 / 64 + 2);
+    }
+
+    @Test
+    void tryAcquire_WhenExhausted_ShouldNotLeaseAgainUntilReset() {
+        // Arrange
+        AtomicInteger leaseCalls = new AtomicInteger();
+        StripedQuotaCounter counter = new StripedQuotaCounter(2, 10, requested -> {
+            leaseCalls.incrementAndGet();
+            return 0;
+        });
+
+        // Act
+        boolean first = counter.tryAcquire();
+        boolean second = counter.tryAcquire();
+        counter.resetExhausted();
+        counter.tryAcquire();
+
+        // Assert
+        assertThat(first).isFalse();
+        assertThat(second).isFalse();
+        assertThat(leaseCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void drain_ShouldReturnReleasedAndUnusedPermits() {
+        // Arrange
+        StripedQuotaCounter counter = new StripedQuotaCounter(2, 10, requested -> requested);
+        counter.tryAcquire();
+        counter.tryAcquire();
+        counter.release();
+
+        // Act
+        int drained = counter.drain();
+
+        // Assert
+        assertThat(drained).isEqualTo(9);
+        assertThat(counter.available()).isZero();
+    }
+}
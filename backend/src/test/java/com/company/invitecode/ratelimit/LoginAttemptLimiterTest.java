@@ -0,0 +1,100 @@
+package com.company.invitecode.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginAttemptLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginAttemptLimiter();
+        ReflectionTestUtils.setField(limiter, "maxFailures", 3);
+        ReflectionTestUtils.setField(limiter, "failureWindowSeconds", 60L);
+        ReflectionTestUtils.setField(limiter, "lockoutSeconds", 30L);
+        ReflectionTestUtils.setField(limiter, "maxUsers", 2);
+    }
+
+    @Test
+    void recordFailure_ShouldLockAfterMaxFailuresWithinWindow() {
+        // Arrange
+        long now = 10 * SECOND;
+        limiter.recordFailure("admin", now);
+        limiter.recordFailure("Admin", now + SECOND);
+
+        // Act
+        long beforeLock = limiter.lockedNanos("admin", now + SECOND);
+        limiter.recordFailure("ADMIN", now + 2 * SECOND);
+        long afterLock = limiter.lockedNanos("admin", now + 2 * SECOND);
+        long afterLockout = limiter.lockedNanos("admin", now + 32 * SECOND);
+
+        // Assert
+        assertThat(beforeLock).isZero();
+        assertThat(afterLock).isEqualTo(30 * SECOND);
+        assertThat(afterLockout).isZero();
+    }
+
+    @Test
+    void recordFailure_ShouldRestartCountingAfterWindowOrSuccess() {
+        // Arrange
+        long now = 10 * SECOND;
+        limiter.recordFailure("admin", now);
+        limiter.recordFailure("admin", now);
+        limiter.recordFailure("admin", now + 61 * SECOND);
+        limiter.recordFailure("admin", now + 61 * SECOND);
+        limiter.recordSuccess("admin");
+
+        // Act
+        limiter.recordFailure("admin", now + 62 * SECOND);
+        limiter.recordFailure("admin", now + 62 * SECOND);
+
+        // Assert
+        assertThat(limiter.lockedNanos("admin", now + 62 * SECOND)).isZero();
+    }
+
+    @Test
+    void recordFailure_WhenFull_ShouldNotLockOtherUsernames() {
+        // Arrange: 两个虚构用户名占满记录后，继续用其他用户名失败
+        long now = 10 * SECOND;
+        limiter.recordFailure("spray-1", now);
+        limiter.recordFailure("spray-2", now);
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("spray-" + (i + 3), now);
+            limiter.recordFailure("admin", now);
+        }
+
+        // Act
+        long adminLocked = limiter.lockedNanos("admin", now);
+        long otherLocked = limiter.lockedNanos("spray-99", now);
+
+        // Assert
+        assertThat(adminLocked).isZero();
+        assertThat(otherLocked).isZero();
+    }
+
+    @Test
+    void recordFailure_WhenFull_ShouldEvictExpiredEntriesAndTrackNewUsername() {
+        // Arrange
+        long now = 10 * SECOND;
+        limiter.recordFailure("spray-1", now);
+        limiter.recordFailure("spray-2", now);
+
+        // Act: 窗口过期后admin可以占用被清理的位置
+        long later = now + 61 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("admin", later);
+        }
+
+        // Assert
+        assertThat(limiter.lockedNanos("admin", later)).isEqualTo(30 * SECOND);
+        assertThat(limiter.lockedNanos("spray-1", later)).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.company.invitecode.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new TokenBucketRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "permitsPerSecond", 2.0);
+        ReflectionTestUtils.setField(rateLimiter, "burst", 3);
+        ReflectionTestUtils.setField(rateLimiter, "maxClients", 2);
+        rateLimiter.init();
+    }
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenRejectWithWaitTime() {
+        // Arrange
+        long now = 10 * SECOND;
+
+        // Act
+        long first = rateLimiter.tryAcquire("1.1.1.1", now);
+        long second = rateLimiter.tryAcquire("1.1.1.1", now);
+        long third = rateLimiter.tryAcquire("1.1.1.1", now);
+        long fourth = rateLimiter.tryAcquire("1.1.1.1", now);
+
+        // Assert
+        assertThat(new long[]{first, second, third}).containsOnly(0L);
+        assertThat(fourth).isEqualTo(SECOND / 2);
+        assertThat(rateLimiter.getStats().getAllowed()).isEqualTo(3);
+        assertThat(rateLimiter.getStats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_ShouldRefillAtConfiguredRate() {
+        // Arrange
+        long now = 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("1.1.1.1", now);
+        }
+
+        // Act
+        long afterHalfSecond = rateLimiter.tryAcquire("1.1.1.1", now + SECOND / 2);
+        long immediatelyAfter = rateLimiter.tryAcquire("1.1.1.1", now + SECOND / 2);
+
+        // Assert
+        assertThat(afterHalfSecond).isZero();
+        assertThat(immediatelyAfter).isPositive();
+    }
+
+    @Test
+    void tryAcquire_WhenTableFull_ShouldGiveNewClientsTheirOwnBucket() {
+        // Arrange
+        long now = 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("1.1.1.1", now);
+        }
+        rateLimiter.tryAcquire("2.2.2.2", now);
+
+        // Act: 超过max-clients后的新客户端不共用桶，都不会被限流
+        long[] newClients = new long[4];
+        for (int i = 0; i < newClients.length; i++) {
+            newClients[i] = rateLimiter.tryAcquire("3.3.3." + i, now);
+        }
+
+        // Assert
+        assertThat(newClients).containsOnly(0L);
+        assertThat(rateLimiter.getStats().getTrackedClients()).isEqualTo(2);
+        assertThat(rateLimiter.getStats().getDisplaced()).isEqualTo(4);
+    }
+
+    @Test
+    void tryAcquire_WhenTableFull_ShouldEvictRefilledBucketsFirst() {
+        // Arrange
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("idle", now);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("busy", now + SECOND);
+        }
+
+        // Act
+        long newClient = rateLimiter.tryAcquire("new", now + SECOND);
+        long busy = rateLimiter.tryAcquire("busy", now + SECOND);
+
+        // Assert
+        assertThat(newClient).isZero();
+        assertThat(busy).isPositive();
+        assertThat(rateLimiter.getStats().getEvicted()).isEqualTo(1);
+        assertThat(rateLimiter.getStats().getDisplaced()).isZero();
+    }
+
+    @Test
+    void evictIdle_ShouldRemoveOnlyFullyRefilledBuckets() {
+        // Arrange
+        long now = 10 * SECOND;
+        rateLimiter.tryAcquire("idle", now);
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("busy", now + SECOND);
+        }
+
+        // Act
+        int removed = rateLimiter.evictIdle(now + SECOND);
+
+        // Assert
+        assertThat(removed).isEqualTo(1);
+        assertThat(rateLimiter.getStats().getTrackedClients()).isEqualTo(1);
+        assertThat(rateLimiter.tryAcquire("busy", now + SECOND)).isPositive();
+    }
+}
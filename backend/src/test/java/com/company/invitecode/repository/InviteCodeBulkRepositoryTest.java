@@ -0,0 +1,108 @@
+package com.company.invitecode.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InviteCodeBulkRepository.class)
+public class InviteCodeBulkRepositoryTest {
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Test
+    void insertIgnoringDuplicates_ShouldInsertAllNewCodes() {
+        // Act
+        Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "batch-1", "测试批次", "admin", LocalDateTime.now(), null, null,
+                Arrays.asList("AAAA0001", "AAAA0002", "AAAA0003"));
+
+        // Assert
+        assertThat(inserted).containsOnlyKeys("AAAA0001", "AAAA0002", "AAAA0003");
+        assertThat(inviteCodeRepository.findByCode("AAAA0002")).isPresent()
+                .get().satisfies(code -> {
+                    assertThat(code.getId()).isEqualTo(inserted.get("AAAA0002"));
+                    assertThat(code.getBatchId()).isEqualTo("batch-1");
+                    assertThat(code.isActive()).isTrue();
+                });
+    }
+
+    @Test
+    void insertIgnoringDuplicates_ShouldSkipOnlyConflictingCodes() {
+        // Arrange
+        inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "batch-1", null, "admin", LocalDateTime.now(), null, null, Collections.singletonList("BBBB0001"));
+
+        // Act
+        Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "batch-2", null, "admin", LocalDateTime.now(), null, null, Arrays.asList("BBBB0001", "BBBB0002"));
+
+        // Assert
+        assertThat(inserted).containsOnlyKeys("BBBB0002");
+        assertThat(inviteCodeRepository.findByCode("BBBB0001").get().getBatchId()).isEqualTo("batch-1");
+    }
+
+    @Test
+    void insertIgnoringDuplicates_ShouldNotReportEarlierRowsOfSameBatch() {
+        // Arrange
+        inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "batch-3", null, "admin", LocalDateTime.now(), null, null, Collections.singletonList("CCCC0001"));
+
+        // Act
+        Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "batch-3", null, "admin", LocalDateTime.now(), null, null, Arrays.asList("CCCC0001", "CCCC0002"));
+
+        // Assert
+        assertThat(inserted).containsOnlyKeys("CCCC0002");
+    }
+
+    @Test
+    void redeem_ShouldNotExceedMaxUses() {
+        // Arrange
+        Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "limited", null, "admin", LocalDateTime.now(), 2, null, Collections.singletonList("DDDD0001"));
+        long id = inserted.get("DDDD0001");
+
+        // Act
+        boolean first = inviteCodeBulkRepository.redeem(id, LocalDateTime.now());
+        boolean second = inviteCodeBulkRepository.redeem(id, LocalDateTime.now());
+        boolean third = inviteCodeBulkRepository.redeem(id, LocalDateTime.now());
+
+        // Assert
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(inviteCodeRepository.findByCode("DDDD0001").get().getRemainingUses()).isZero();
+    }
+
+    @Test
+    void redeem_ShouldRejectExpiredCode() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1);
+        Map<String, Long> inserted = inviteCodeBulkRepository.insertIgnoringDuplicates(
+                "expiring", null, "admin", LocalDateTime.now(), null, expiresAt, Collections.singletonList("EEEE0001"));
+        long id = inserted.get("EEEE0001");
+
+        // Act
+        boolean beforeExpiry = inviteCodeBulkRepository.redeem(id, expiresAt.minusHours(1));
+        boolean afterExpiry = inviteCodeBulkRepository.redeem(id, expiresAt.plusSeconds(1));
+
+        // Assert
+        assertThat(beforeExpiry).isTrue();
+        assertThat(afterExpiry).isFalse();
+    }
+}
@@ -0,0 +1,134 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.model.InviteCode;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(InviteCodeBulkRepository.class)
+public class InviteCodeRepositoryTest {
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            codes.add(String.format("LIST%04d", i));
+        }
+        inviteCodeBulkRepository.insertIgnoringDuplicates("batch-1", "列表测试", "admin", LocalDateTime.now(),
+                null, null, codes);
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllAsDto_ShouldCostConstantStatementsRegardlessOfPageSize() {
+        // Act
+        long smallPageStatements = countStatements(5);
+        long largePageStatements = countStatements(50);
+
+        // Assert: 一条分页查询加一条总数查询
+        assertThat(smallPageStatements).isEqualTo(2);
+        assertThat(largePageStatements).isEqualTo(2);
+    }
+
+    @Test
+    void findAllAsDto_ShouldProjectAllFields() {
+        // Act
+        Page<InviteCodeDto> page = inviteCodeRepository.findAllAsDto(
+                PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, "code")));
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(60);
+        assertThat(page.getContent()).extracting(InviteCodeDto::getCode)
+                .containsExactly("LIST0000", "LIST0001", "LIST0002", "LIST0003", "LIST0004");
+        assertThat(page.getContent().get(0)).satisfies(dto -> {
+            assertThat(dto.getId()).isNotNull();
+            assertThat(dto.getBatchId()).isEqualTo("batch-1");
+            assertThat(dto.getDescription()).isEqualTo("列表测试");
+            assertThat(dto.isActive()).isTrue();
+            assertThat(dto.getUsageCount()).isZero();
+        });
+    }
+
+    @Test
+    void findPageAfterAsDto_ShouldVisitEveryCodeOnceInKeyOrder() {
+        // Arrange: 所有邀请码创建时间相同，翻页完全依赖ID作为次序
+        Pageable limit = PageRequest.of(0, 7);
+        List<InviteCodeDto> visited = new ArrayList<>();
+
+        // Act
+        List<InviteCodeDto> page = inviteCodeRepository.findFirstPageAsDto(limit);
+        while (!page.isEmpty()) {
+            visited.addAll(page);
+            InviteCodeDto last = page.get(page.size() - 1);
+            page = inviteCodeRepository.findPageAfterAsDto(last.getCreatedAt(), last.getId(), limit);
+        }
+
+        // Assert
+        assertThat(visited).hasSize(60);
+        assertThat(visited).extracting(InviteCodeDto::getId).doesNotHaveDuplicates()
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void save_WithStaleEntity_ShouldNotUndoBulkExpire() {
+        // Arrange: 禁用前读取的实体，读取后批量过期已提交
+        InviteCode stale = inviteCodeRepository.findByCode("LIST0000").orElseThrow();
+        LocalDateTime expiredAt = LocalDateTime.now().withNano(0);
+        entityManager.createNativeQuery("UPDATE invite_codes SET expires_at = ? WHERE code = ?")
+                .setParameter(1, expiredAt)
+                .setParameter(2, "LIST0000")
+                .executeUpdate();
+
+        // Act
+        stale.setActive(false);
+        inviteCodeRepository.saveAndFlush(stale);
+        entityManager.clear();
+
+        // Assert
+        InviteCode reloaded = inviteCodeRepository.findByCode("LIST0000").orElseThrow();
+        assertThat(reloaded.isActive()).isFalse();
+        assertThat(reloaded.getExpiresAt()).isEqualTo(expiredAt);
+    }
+
+    private long countStatements(int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Page<InviteCodeDto> page = inviteCodeRepository.findAllAsDto(
+                PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt")));
+        assertThat(page.getContent()).hasSize(pageSize);
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,116 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
+import com.company.invitecode.util.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InviteCodeBulkRepository.class, InviteCodeSearchRepository.class})
+public class InviteCodeSearchRepositoryTest {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime DAY_TWO = LocalDateTime.of(2024, 3, 2, 10, 0);
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Autowired
+    private InviteCodeSearchRepository inviteCodeSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        inviteCodeBulkRepository.insertIgnoringDuplicates("spring", "春季活动_100%", "alice", DAY_ONE, null, null,
+                Arrays.asList("SPR00001", "SPR00002", "SPR00003"));
+        inviteCodeBulkRepository.insertIgnoringDuplicates("summer", "夏季活动", "bob", DAY_TWO, null, null,
+                Arrays.asList("SUM00001", "SUM00002"));
+        jdbcTemplate.update("UPDATE invite_codes SET is_active = FALSE WHERE code = 'SPR00002'");
+    }
+
+    @Test
+    void search_ShouldCombineAllPredicates() {
+        // Arrange
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        criteria.setBatchId("spring");
+        criteria.setActive(true);
+        criteria.setCreatedBy("alice");
+        criteria.setCreatedFrom(DAY_ONE);
+        criteria.setCreatedTo(DAY_TWO);
+        criteria.setCodePrefix("SPR");
+
+        // Act
+        List<InviteCodeDto> result = inviteCodeSearchRepository.search(criteria, null, 10);
+
+        // Assert
+        assertThat(result).extracting(InviteCodeDto::getCode).containsExactly("SPR00003", "SPR00001");
+        assertThat(inviteCodeSearchRepository.count(criteria)).isEqualTo(2);
+    }
+
+    @Test
+    void search_ShouldTreatLikeWildcardsLiterally() {
+        // Arrange
+        InviteCodeSearchRequest literal = new InviteCodeSearchRequest();
+        literal.setDescription("_100%");
+        InviteCodeSearchRequest wildcardPrefix = new InviteCodeSearchRequest();
+        wildcardPrefix.setCodePrefix("S_M");
+
+        // Act & Assert
+        assertThat(inviteCodeSearchRepository.search(literal, null, 10)).hasSize(3);
+        assertThat(inviteCodeSearchRepository.search(wildcardPrefix, null, 10)).isEmpty();
+    }
+
+    @Test
+    void search_WithCursor_ShouldContinueAfterLastRow() {
+        // Arrange
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        List<InviteCodeDto> firstPage = inviteCodeSearchRepository.search(criteria, null, 3);
+        InviteCodeDto last = firstPage.get(firstPage.size() - 1);
+
+        // Act
+        List<InviteCodeDto> secondPage = inviteCodeSearchRepository.search(
+                criteria, new PageCursor(last.getCreatedAt(), last.getId()), 3);
+
+        // Assert
+        assertThat(firstPage).extracting(InviteCodeDto::getCode).containsExactly("SUM00002", "SUM00001", "SPR00003");
+        assertThat(secondPage).extracting(InviteCodeDto::getCode).containsExactly("SPR00002", "SPR00001");
+    }
+
+    @Test
+    void chooseIndex_ShouldPreferMostSelectivePredicate() {
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria)).isEqualTo(InviteCodeSearchRepository.INDEX_CREATED);
+
+        criteria.setActive(false);
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria)).isEqualTo(InviteCodeSearchRepository.INDEX_ACTIVE);
+
+        criteria.setCodePrefix("SPR");
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria)).isNull();
+
+        criteria.setCreatedBy("alice");
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria)).isEqualTo(InviteCodeSearchRepository.INDEX_CREATOR);
+
+        criteria.setBatchId("spring");
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria))
+                .isEqualTo(InviteCodeSearchRepository.INDEX_BATCH_ACTIVE);
+
+        // 只按批次时 (batch_id, is_active, created_at) 无法提供排序
+        criteria.setActive(null);
+        assertThat(InviteCodeSearchRepository.chooseIndex(criteria)).isEqualTo(InviteCodeSearchRepository.INDEX_BATCH);
+    }
+}
@@ -0,0 +1,159 @@
+package com.company.invitecode.repository;
+
+import com.company.invitecode.model.InviteCode;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.dto.UsageRecordDto;
+import com.company.invitecode.usage.PendingUsageRecord;
+import com.company.invitecode.usage.UserAgentDictionary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsageRecordBulkRepository.class, UserAgentDictionary.class, UserAgentRepository.class})
+public class UsageRecordBulkRepositoryTest {
+
+    @Autowired
+    private UsageRecordBulkRepository usageRecordBulkRepository;
+
+    @Autowired
+    private UserAgentDictionary userAgentDictionary;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Autowired
+    private UsageRecordRepository usageRecordRepository;
+
+    @Autowired
+    private InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void incrementUsageCounts_ShouldAggregatePerCode() {
+        // Arrange
+        Long id = saveInviteCode("USED0001");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<PendingUsageRecord> records = Arrays.asList(
+                new PendingUsageRecord(id, "user1", null, null, now.minusMinutes(5)),
+                new PendingUsageRecord(id, "user2", null, null, now));
+
+        // Act
+        usageRecordBulkRepository.insertBatch(records, Collections.emptyMap());
+        usageRecordBulkRepository.incrementUsageCounts(records);
+
+        // Assert
+        InviteCode inviteCode = reload(id);
+        assertThat(inviteCode.getUsageCount()).isEqualTo(2);
+        assertThat(inviteCode.getLastUsedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void recomputeUsageCounts_ShouldRestoreCountsFromUsageRecords() {
+        // Arrange
+        Long id = saveInviteCode("USED0002");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        usageRecordBulkRepository.insertBatch(Arrays.asList(
+                new PendingUsageRecord(id, "user1", null, null, now),
+                new PendingUsageRecord(id, "user2", null, null, now)), Collections.emptyMap());
+        jdbcTemplate.update("UPDATE invite_codes SET usage_count = 7 WHERE id = ?", id);
+
+        // Act
+        long[] range = usageRecordBulkRepository.findInviteCodeIdRange();
+        usageRecordBulkRepository.recomputeUsageCounts(range[0], range[1]);
+
+        // Assert
+        InviteCode inviteCode = reload(id);
+        assertThat(inviteCode.getUsageCount()).isEqualTo(2);
+        assertThat(inviteCode.getLastUsedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void incrementUsageCounts_ShouldCountFirstUsesPerBatch() {
+        // Arrange: 一个邀请码此前已使用过
+        inviteCodeBatchRepository.saveAndFlush(new InviteCodeBatch("first-use-batch", null, "admin"));
+        Long fresh = saveInviteCode("USED0003", "first-use-batch");
+        Long used = saveInviteCode("USED0004", "first-use-batch");
+        jdbcTemplate.update("UPDATE invite_codes SET usage_count = 1 WHERE id = ?", used);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        // Act
+        usageRecordBulkRepository.incrementUsageCounts(Arrays.asList(
+                new PendingUsageRecord(fresh, "user1", null, null, now),
+                new PendingUsageRecord(fresh, "user2", null, null, now),
+                new PendingUsageRecord(used, "user3", null, null, now)));
+
+        // Assert
+        entityManager.clear();
+        assertThat(inviteCodeBatchRepository.findById("first-use-batch").get().getUsedCodes()).isEqualTo(1);
+    }
+
+    @Test
+    void insertBatch_ShouldStoreIpAsBinaryAndUserAgentAsDictionaryId() {
+        // Arrange
+        Long id = saveInviteCode("USED0005");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<PendingUsageRecord> records = Arrays.asList(
+                new PendingUsageRecord(id, "user1", "192.168.1.20", "Mozilla/5.0 (Test)", now.minusMinutes(1)),
+                new PendingUsageRecord(id, "user2", "2001:db8::1", "Mozilla/5.0 (Test)", now),
+                new PendingUsageRecord(id, "user3", "unknown", null, now.plusMinutes(1)));
+
+        // Act: 第二次解析命中缓存，返回相同的字典ID
+        Map<String, Long> userAgentIds = userAgentDictionary.resolve(records);
+        assertThat(userAgentDictionary.resolve(records)).isEqualTo(userAgentIds);
+        usageRecordBulkRepository.insertBatch(records, userAgentIds);
+
+        // Assert
+        assertThat(userAgentIds).hasSize(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usage_records WHERE invite_code_id = ? AND user_agent_id IS NOT NULL",
+                Long.class, id)).isEqualTo(2);
+        assertThat(usageRecordRepository.findPageAsDto(id, PageRequest.of(0, 10, Sort.by("usedAt"))))
+                .extracting(UsageRecordDto::getIpAddress, UsageRecordDto::getUserAgent)
+                .containsExactly(
+                        tuple("192.168.1.20", "Mozilla/5.0 (Test)"),
+                        tuple("2001:db8:0:0:0:0:0:1", "Mozilla/5.0 (Test)"),
+                        tuple(null, null));
+    }
+
+    private Long saveInviteCode(String code) {
+        return saveInviteCode(code, null);
+    }
+
+    private Long saveInviteCode(String code, String batchId) {
+        InviteCode inviteCode = new InviteCode();
+        inviteCode.setCode(code);
+        inviteCode.setBatchId(batchId);
+        inviteCode.setCreatedBy("admin");
+        inviteCode.setActive(true);
+        Long id = inviteCodeRepository.saveAndFlush(inviteCode).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    private InviteCode reload(Long id) {
+        entityManager.clear();
+        return inviteCodeRepository.findById(id).orElseThrow();
+    }
+}
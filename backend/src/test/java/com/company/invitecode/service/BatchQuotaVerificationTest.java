@@ -0,0 +1,75 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
+import com.company.invitecode.quota.BatchQuotaManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 启用内存索引和布隆过滤器时的邀请码校验：批次配额与状态变更的配合、邀请码大小写
+ */
+@SpringBootTest(properties = "invite-code.index.enabled=true")
+public class BatchQuotaVerificationTest {
+
+    @Autowired
+    private InviteCodeService inviteCodeService;
+
+    @Autowired
+    private BatchQuotaManager batchQuotaManager;
+
+    @Test
+    void verifyInviteCode_AfterDisableAndEnable_ShouldStillStopAtBatchQuota() {
+        // Arrange
+        GenerateInviteCodeRequest request = new GenerateInviteCodeRequest();
+        request.setCount(3);
+        request.setDescription("配额批次");
+        List<InviteCodeDto> codes = inviteCodeService.generateInviteCodes(request, "admin");
+        InviteCodeDto code = codes.get(0);
+        batchQuotaManager.setQuota(code.getBatchId(), 2);
+        inviteCodeService.disableInviteCode(code.getId());
+        inviteCodeService.enableInviteCode(code.getId());
+
+        // Act
+        int redeemed = 0;
+        for (int i = 0; i < 5; i++) {
+            VerifyInviteCodeRequest verifyRequest = new VerifyInviteCodeRequest();
+            verifyRequest.setCode(code.getCode());
+            verifyRequest.setUserId("user-" + i);
+            if (inviteCodeService.verifyInviteCode(verifyRequest, "127.0.0.1", "JUnit")) {
+                redeemed++;
+            }
+        }
+
+        // Assert
+        assertThat(redeemed).isEqualTo(2);
+    }
+
+    @Test
+    void verifyInviteCode_WithLowerCaseCode_ShouldMatchExistingCode() {
+        // Arrange: 数据库比较不区分大小写，布隆过滤器和内存索引也不能区分
+        GenerateInviteCodeRequest request = new GenerateInviteCodeRequest();
+        request.setCount(1);
+        request.setDescription("大小写批次");
+        InviteCodeDto code = inviteCodeService.generateInviteCodes(request, "admin").get(0);
+        String lowerCaseCode = code.getCode().toLowerCase(Locale.ROOT);
+        VerifyInviteCodeRequest verifyRequest = new VerifyInviteCodeRequest();
+        verifyRequest.setCode(lowerCaseCode);
+        verifyRequest.setUserId("user-lower");
+
+        // Act
+        boolean found = inviteCodeService.getInviteCodeByCode(lowerCaseCode).isPresent();
+        boolean verified = inviteCodeService.verifyInviteCode(verifyRequest, "127.0.0.1", "JUnit");
+
+        // Assert
+        assertThat(found).isTrue();
+        assertThat(verified).isTrue();
+    }
+}
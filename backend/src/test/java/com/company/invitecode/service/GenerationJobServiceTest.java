@@ -0,0 +1,49 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.GenerationJobDto;
+import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
+import com.company.invitecode.model.GenerationJobStatus;
+import com.company.invitecode.repository.InviteCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "invite-code.generation.chunk-size=3")
+public class GenerationJobServiceTest {
+
+    @Autowired
+    private GenerationJobService generationJobService;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Test
+    void submitJob_ShouldGenerateCodesInChunksInBackground() throws Exception {
+        // Arrange
+        GenerateInviteCodeRequest request = new GenerateInviteCodeRequest();
+        request.setCount(10);
+        request.setDescription("后台批次");
+
+        // Act
+        GenerationJobDto submitted = generationJobService.submitJob(request, "admin");
+
+        // Assert
+        assertThat(submitted.getId()).isNotNull();
+        assertThat(submitted.getBatchId()).isNotBlank();
+
+        GenerationJobDto job = submitted;
+        for (int i = 0; i < 100 && job.getStatus() != GenerationJobStatus.COMPLETED; i++) {
+            Thread.sleep(50);
+            job = generationJobService.getJob(submitted.getId()).orElseThrow();
+        }
+
+        assertThat(job.getStatus()).isEqualTo(GenerationJobStatus.COMPLETED);
+        assertThat(job.getGeneratedCount()).isEqualTo(10);
+        assertThat(job.getProgress()).isEqualTo(100.0);
+        assertThat(inviteCodeRepository.findByBatchId(job.getBatchId(), PageRequest.of(0, 20)).getTotalElements())
+                .isEqualTo(10);
+    }
+}
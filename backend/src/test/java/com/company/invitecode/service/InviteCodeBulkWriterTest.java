@@ -0,0 +1,90 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.generator.CodeGenerator;
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
+import com.company.invitecode.quota.BatchQuotaManager;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InviteCodeBulkWriterTest {
+
+    @Mock
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Mock
+    private CodeGenerator codeGenerator;
+
+    @Mock
+    private CodeBloomFilter codeBloomFilter;
+
+    @Mock
+    private CodeVerificationIndex codeVerificationIndex;
+
+    @Mock
+    private RejectedCodeCache rejectedCodeCache;
+
+    @Mock
+    private BatchQuotaManager batchQuotaManager;
+
+    @Mock
+    private InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @InjectMocks
+    private InviteCodeBulkWriter inviteCodeBulkWriter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_ShouldRetryOnlyConflictingCodes() {
+        // Arrange: 第一轮只写入前3个，剩余2个冲突；第二轮全部写入
+        AtomicInteger sequence = new AtomicInteger();
+        when(codeGenerator.nextCode()).thenAnswer(invocation -> "CODE" + sequence.incrementAndGet());
+        List<Integer> roundSizes = new ArrayList<>();
+        when(inviteCodeBulkRepository.insertIgnoringDuplicates(
+                eq("batch-1"), any(), eq("admin"), any(), any(), any(), anyList()))
+                .thenAnswer(invocation -> {
+                    List<String> codes = invocation.getArgument(6);
+                    roundSizes.add(codes.size());
+                    int accepted = roundSizes.size() == 1 ? 3 : codes.size();
+                    Map<String, Long> inserted = new LinkedHashMap<>();
+                    for (int i = 0; i < accepted; i++) {
+                        inserted.put(codes.get(i), (long) (roundSizes.size() * 100 + i));
+                    }
+                    return inserted;
+                });
+
+        // Act
+        List<InviteCodeDto> result = inviteCodeBulkWriter.write("batch-1", "测试批次", "admin", null, null, 5);
+
+        // Assert
+        assertThat(result).hasSize(5);
+        assertThat(result).extracting(InviteCodeDto::getCode).doesNotHaveDuplicates();
+        assertThat(result).allMatch(dto -> dto.isActive() && "batch-1".equals(dto.getBatchId()));
+        assertThat(roundSizes).containsExactly(5, 2);
+        verify(inviteCodeBulkRepository, times(2))
+                .insertIgnoringDuplicates(eq("batch-1"), any(), eq("admin"), any(), any(), any(), anyList());
+        verify(inviteCodeBatchRepository).addIssuedCount("batch-1", 5);
+    }
+}
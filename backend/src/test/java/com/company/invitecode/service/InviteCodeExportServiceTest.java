@@ -0,0 +1,58 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class InviteCodeExportServiceTest {
+
+    @Autowired
+    private InviteCodeExportService inviteCodeExportService;
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Test
+    void exportBatch_AsCsv_ShouldEscapeFields() throws Exception {
+        // Arrange
+        inviteCodeBulkRepository.insertIgnoringDuplicates("export-csv", "双11, \"限量\"", "admin",
+                LocalDateTime.of(2024, 11, 11, 0, 0), null, null, Arrays.asList("EXPCSV01", "EXPCSV02"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = inviteCodeExportService.exportBatch("export-csv", ExportFormat.CSV, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,code,batchId,description,createdAt,createdBy,active");
+        assertThat(lines[1]).endsWith(",EXPCSV01,export-csv,\"双11, \"\"限量\"\"\",2024-11-11T00:00,admin,true");
+    }
+
+    @Test
+    void exportBatch_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        // Arrange
+        inviteCodeBulkRepository.insertIgnoringDuplicates("export-json", null, "admin",
+                LocalDateTime.of(2024, 11, 11, 0, 0), null, null, Arrays.asList("EXPJSN01", "EXPJSN02", "EXPJSN03"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long rows = inviteCodeExportService.exportBatch("export-json", ExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).startsWith("{\"id\":").contains("\"code\":\"EXPJSN03\"", "\"active\":true");
+    }
+}
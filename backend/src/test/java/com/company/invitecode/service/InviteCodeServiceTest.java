@@ -1,30 +1,48 @@
 package com.company.invitecode.service;
 
+import com.company.invitecode.dto.CursorPage;
 import com.company.invitecode.dto.InviteCodeDto;
+import com.company.invitecode.dto.UsageRecordDto;
 import com.company.invitecode.dto.request.GenerateInviteCodeRequest;
 import com.company.invitecode.dto.request.VerifyInviteCodeRequest;
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
 import com.company.invitecode.model.InviteCode;
 import com.company.invitecode.model.UsageRecord;
+import com.company.invitecode.quota.BatchQuotaManager;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
 import com.company.invitecode.repository.InviteCodeRepository;
 import com.company.invitecode.repository.UsageRecordRepository;
+import com.company.invitecode.usage.PendingUsageRecord;
+import com.company.invitecode.usage.UsageRecordWriter;
+import com.company.invitecode.util.IpAddressCodec;
+import com.company.invitecode.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -37,6 +55,36 @@ public class InviteCodeServiceTest {
     @Mock
     private UsageRecordRepository usageRecordRepository;
 
+    @Mock
+    private InviteCodeBulkWriter inviteCodeBulkWriter;
+
+    @Mock
+    private CodeBloomFilter codeBloomFilter;
+
+    @Mock
+    private CodeVerificationIndex codeVerificationIndex;
+
+    @Mock
+    private UsageRecordWriter usageRecordWriter;
+
+    @Mock
+    private RejectedCodeCache rejectedCodeCache;
+
+    @Mock
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Mock
+    private InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @Mock
+    private BatchQuotaManager batchQuotaManager;
+
+    @Mock
+    private ExecutorService verificationExecutor;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private InviteCodeServiceImpl inviteCodeService;
 
@@ -53,15 +101,18 @@ public class InviteCodeServiceTest {
         inviteCode.setCreatedAt(LocalDateTime.now());
         inviteCode.setCreatedBy("admin");
         inviteCode.setActive(true);
+        inviteCode.setUsageCount(1);
         inviteCode.setUsageRecords(new ArrayList<>());
 
         usageRecord = new UsageRecord();
         usageRecord.setId(1L);
         usageRecord.setInviteCode(inviteCode);
         usageRecord.setUserId("user123");
-        usageRecord.setIpAddress("127.0.0.1");
-        usageRecord.setUserAgent("Mozilla/5.0");
+        usageRecord.setIpAddress(IpAddressCodec.encode("127.0.0.1"));
         usageRecord.setUsedAt(LocalDateTime.now());
+
+        lenient().when(codeVerificationIndex.lookup(anyString())).thenReturn(CodeVerificationIndex.NOT_INDEXED);
+        lenient().when(batchQuotaManager.tryAcquire(any())).thenReturn(true);
     }
 
     @Test
@@ -71,26 +122,26 @@ public class InviteCodeServiceTest {
         request.setCount(5);
         request.setDescription("测试批次");
         
-        List<InviteCode> inviteCodes = new ArrayList<>();
+        List<InviteCodeDto> inviteCodes = new ArrayList<>();
         for (int i = 0; i < 5; i++) {
-            InviteCode code = new InviteCode();
+            InviteCodeDto code = new InviteCodeDto();
             code.setId((long) i);
             code.setCode("TEST" + i);
-            code.setBatchId(UUID.randomUUID().toString());
-            code.setCreatedAt(LocalDateTime.now());
             code.setCreatedBy("admin");
             code.setActive(true);
             inviteCodes.add(code);
         }
         
-        when(inviteCodeRepository.saveAll(anyList())).thenReturn(inviteCodes);
+        when(inviteCodeBulkWriter.write(anyString(), eq("测试批次"), eq("admin"), isNull(), isNull(), eq(5)))
+                .thenReturn(inviteCodes);
 
         // Act
         List<InviteCodeDto> result = inviteCodeService.generateInviteCodes(request, "admin");
 
         // Assert
         assertThat(result).hasSize(5);
-        verify(inviteCodeRepository, times(1)).saveAll(anyList());
+        verify(inviteCodeBulkWriter, times(1)).write(anyString(), eq("测试批次"), eq("admin"), isNull(), isNull(), eq(5));
+        verify(inviteCodeRepository, never()).existsByCode(anyString());
     }
 
     @Test
@@ -100,8 +151,8 @@ public class InviteCodeServiceTest {
         request.setCode(testCode);
         request.setUserId("user123");
         
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
         when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
-        when(usageRecordRepository.save(any(UsageRecord.class))).thenReturn(usageRecord);
 
         // Act
         boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
@@ -109,7 +160,54 @@ public class InviteCodeServiceTest {
         // Assert
         assertThat(result).isTrue();
         verify(inviteCodeRepository, times(1)).findByCode(testCode);
-        verify(usageRecordRepository, times(1)).save(any(UsageRecord.class));
+        verify(usageRecordWriter, times(1)).record(any(PendingUsageRecord.class));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void verifyInviteCodeAsync_WhenDatabaseNeeded_ShouldLookUpIndexOnceAndQueryOnExecutor() throws Exception {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(usageRecordWriter.isEnabled()).thenReturn(true);
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
+        when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(verificationExecutor).execute(any(Runnable.class));
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCodeAsync(request, "127.0.0.1", "Mozilla/5.0").get();
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(codeVerificationIndex, times(1)).lookup(testCode);
+        verify(codeBloomFilter, times(1)).mightContain(testCode);
+        verify(rejectedCodeCache, times(1)).contains(testCode);
+        verify(verificationExecutor, times(1)).execute(any(Runnable.class));
+        verify(usageRecordWriter, times(1)).record(any(PendingUsageRecord.class));
+    }
+
+    @Test
+    void verifyInviteCodeAsync_WithBloomFilterMiss_ShouldCompleteWithoutExecutor() throws Exception {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode("GUESSED");
+        request.setUserId("user123");
+        
+        when(usageRecordWriter.isEnabled()).thenReturn(true);
+        when(codeBloomFilter.mightContain("GUESSED")).thenReturn(false);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCodeAsync(request, "127.0.0.1", "Mozilla/5.0").get();
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(verificationExecutor, never()).execute(any(Runnable.class));
+        verify(inviteCodeRepository, never()).findByCode(anyString());
     }
 
     @Test
@@ -119,6 +217,7 @@ public class InviteCodeServiceTest {
         request.setCode("INVALID");
         request.setUserId("user123");
         
+        when(codeBloomFilter.mightContain("INVALID")).thenReturn(true);
         when(inviteCodeRepository.findByCode("INVALID")).thenReturn(Optional.empty());
 
         // Act
@@ -127,7 +226,150 @@ public class InviteCodeServiceTest {
         // Assert
         assertThat(result).isFalse();
         verify(inviteCodeRepository, times(1)).findByCode("INVALID");
-        verify(usageRecordRepository, never()).save(any(UsageRecord.class));
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
+    }
+
+    @Test
+    void verifyInviteCode_WithBloomFilterMiss_ShouldNotQueryDatabase() {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode("GUESSED");
+        request.setUserId("user123");
+        
+        when(codeBloomFilter.mightContain("GUESSED")).thenReturn(false);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(inviteCodeRepository, never()).findByCode(anyString());
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void verifyInviteCode_WithIndexedCode_ShouldNotQueryDatabase() {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(codeVerificationIndex.lookup(testCode)).thenReturn((1L << 2) | 1);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(inviteCodeRepository, never()).findByCode(anyString());
+        verify(usageRecordWriter, times(1)).record(any(PendingUsageRecord.class));
+    }
+
+    @Test
+    void verifyInviteCode_WithExhaustedRestrictedCode_ShouldReturnFalse() {
+        // Arrange
+        inviteCode.setMaxUses(1);
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
+        when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
+        when(inviteCodeBulkRepository.redeem(eq(1L), any(LocalDateTime.class))).thenReturn(false);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
+        verify(rejectedCodeCache, times(1)).put(eq(testCode), anyLong());
+        verify(batchQuotaManager, times(1)).release(inviteCode.getBatchId());
+    }
+
+    @Test
+    void verifyInviteCode_WithIndexedUnrestrictedCode_ShouldNotRedeemInDatabase() {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(codeVerificationIndex.lookup(testCode)).thenReturn((1L << 2) | 1);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(inviteCodeBulkRepository, never()).redeem(anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void verifyInviteCode_WithIndexedRestrictedCode_ShouldRedeemInDatabase() {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        inviteCode.setMaxUses(10);
+        when(codeVerificationIndex.lookup(testCode)).thenReturn((1L << 2) | 2 | 1);
+        when(inviteCodeRepository.findById(1L)).thenReturn(Optional.of(inviteCode));
+        when(inviteCodeBulkRepository.redeem(eq(1L), any(LocalDateTime.class))).thenReturn(true);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(inviteCodeRepository, never()).findByCode(anyString());
+        verify(usageRecordWriter, times(1)).record(any(PendingUsageRecord.class));
+    }
+
+    @Test
+    void verifyInviteCode_WithBatchQuotaExhausted_ShouldReturnFalseWithoutRedeeming() {
+        // Arrange
+        inviteCode.setMaxUses(10);
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
+        when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
+        when(batchQuotaManager.tryAcquire(inviteCode.getBatchId())).thenReturn(false);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(transactionTemplate, never()).execute(any());
+        verify(inviteCodeBulkRepository, never()).redeem(anyLong(), any(LocalDateTime.class));
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
+    }
+
+    @Test
+    void verifyInviteCode_WithBatchQuota_ShouldAcquirePermitBeforeOpeningTransaction() {
+        // Arrange: 租借配额需要另一个连接，不能在兑换事务中进行
+        inviteCode.setMaxUses(10);
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode(testCode);
+        request.setUserId("user123");
+        
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
+        when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
+        when(inviteCodeBulkRepository.redeem(eq(inviteCode.getId()), any(LocalDateTime.class))).thenReturn(true);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isTrue();
+        InOrder inOrder = inOrder(batchQuotaManager, transactionTemplate, inviteCodeBulkRepository);
+        inOrder.verify(batchQuotaManager).tryAcquire(inviteCode.getBatchId());
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(inviteCodeBulkRepository).redeem(eq(inviteCode.getId()), any(LocalDateTime.class));
+        verify(batchQuotaManager, never()).release(any());
     }
 
     @Test
@@ -138,6 +380,7 @@ public class InviteCodeServiceTest {
         request.setCode(testCode);
         request.setUserId("user123");
         
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
         when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
 
         // Act
@@ -146,14 +389,33 @@ public class InviteCodeServiceTest {
         // Assert
         assertThat(result).isFalse();
         verify(inviteCodeRepository, times(1)).findByCode(testCode);
-        verify(usageRecordRepository, never()).save(any(UsageRecord.class));
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
+        verify(rejectedCodeCache, times(1)).put(eq(testCode), anyLong());
+    }
+
+    @Test
+    void verifyInviteCode_WithRecentlyRejectedCode_ShouldNotQueryDatabase() {
+        // Arrange
+        VerifyInviteCodeRequest request = new VerifyInviteCodeRequest();
+        request.setCode("RETRIED");
+        request.setUserId("user123");
+        
+        when(codeBloomFilter.mightContain("RETRIED")).thenReturn(true);
+        when(rejectedCodeCache.contains("RETRIED")).thenReturn(true);
+
+        // Act
+        boolean result = inviteCodeService.verifyInviteCode(request, "127.0.0.1", "Mozilla/5.0");
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(inviteCodeRepository, never()).findByCode(anyString());
+        verify(usageRecordWriter, never()).record(any(PendingUsageRecord.class));
     }
 
     @Test
     void getInviteCode_ShouldReturnInviteCodeDto() {
         // Arrange
         when(inviteCodeRepository.findById(1L)).thenReturn(Optional.of(inviteCode));
-        when(usageRecordRepository.countByInviteCode(inviteCode)).thenReturn(1);
 
         // Act
         Optional<InviteCodeDto> result = inviteCodeService.getInviteCode(1L);
@@ -163,19 +425,19 @@ public class InviteCodeServiceTest {
         assertThat(result.get().getCode()).isEqualTo(testCode);
         assertThat(result.get().getUsageCount()).isEqualTo(1);
         verify(inviteCodeRepository, times(1)).findById(1L);
-        verify(usageRecordRepository, times(1)).countByInviteCode(inviteCode);
+        verify(usageRecordRepository, never()).countByInviteCode(any(InviteCode.class));
     }
 
     @Test
     void getAllInviteCodes_ShouldReturnPageOfInviteCodeDtos() {
         // Arrange
-        List<InviteCode> inviteCodes = new ArrayList<>();
-        inviteCodes.add(inviteCode);
-        Page<InviteCode> page = new PageImpl<>(inviteCodes);
+        List<InviteCodeDto> inviteCodeDtos = new ArrayList<>();
+        inviteCodeDtos.add(new InviteCodeDto(1L, testCode, inviteCode.getBatchId(), null, inviteCode.getCreatedAt(),
+                "admin", true, 1, null, null, null, null));
+        Page<InviteCodeDto> page = new PageImpl<>(inviteCodeDtos);
         Pageable pageable = PageRequest.of(0, 10);
         
-        when(inviteCodeRepository.findAll(pageable)).thenReturn(page);
-        when(usageRecordRepository.countByInviteCode(any(InviteCode.class))).thenReturn(1);
+        when(inviteCodeRepository.findAllAsDto(pageable)).thenReturn(page);
 
         // Act
         Page<InviteCodeDto> result = inviteCodeService.getAllInviteCodes(pageable);
@@ -183,14 +445,65 @@ public class InviteCodeServiceTest {
         // Assert
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getCode()).isEqualTo(testCode);
-        verify(inviteCodeRepository, times(1)).findAll(pageable);
+        verify(inviteCodeRepository, times(1)).findAllAsDto(pageable);
+        verify(usageRecordRepository, never()).countByInviteCode(any(InviteCode.class));
+    }
+
+    @Test
+    void scrollInviteCodes_ShouldReturnCursorOfLastRowWithoutCount() {
+        // Arrange: 每页2条，查询多取的第3条表示还有下一页
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<InviteCodeDto> rows = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            rows.add(new InviteCodeDto(id, "CODE" + id, "batch-1", null, createdAt, "admin", true, 0, null,
+                    null, null, null));
+        }
+        PageCursor cursor = new PageCursor(createdAt, 10L);
+        when(inviteCodeRepository.findPageAfterAsDto(createdAt, 10L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        // Act
+        CursorPage<InviteCodeDto> result = inviteCodeService.scrollInviteCodes(cursor.encode(), 2, false);
+
+        // Assert
+        assertThat(result.getContent()).extracting(InviteCodeDto::getId).containsExactly(3L, 2L);
+        assertThat(result.isHasMore()).isTrue();
+        assertThat(result.getTotalElements()).isNull();
+        PageCursor next = PageCursor.decode(result.getNextCursor());
+        assertThat(next.getTimestamp()).isEqualTo(createdAt);
+        assertThat(next.getId()).isEqualTo(2L);
+        verify(inviteCodeRepository, never()).count();
+    }
+
+    @Test
+    void scrollUsageRecords_WithTotal_ShouldCountUsageRecordRows() {
+        // Arrange: 使用次数包含已归档的记录，总数应与可翻页的记录数一致
+        inviteCode.setUsageCount(5);
+        List<UsageRecordDto> rows = new ArrayList<>();
+        rows.add(new UsageRecordDto(1L, "user123", IpAddressCodec.encode("127.0.0.1"), null, LocalDateTime.now()));
+        when(inviteCodeRepository.findById(1L)).thenReturn(Optional.of(inviteCode));
+        when(usageRecordRepository.findFirstPageAsDto(1L, PageRequest.of(0, 11))).thenReturn(rows);
+        when(usageRecordRepository.countByCodeId(1L)).thenReturn(1L);
+
+        // Act
+        Optional<CursorPage<UsageRecordDto>> result = inviteCodeService.scrollUsageRecords(1L, null, 10, true);
+
+        // Assert
+        assertThat(result).isPresent();
+        assertThat(result.get().getContent()).extracting(UsageRecordDto::getInviteCode).containsExactly(testCode);
+        assertThat(result.get().getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    void scrollInviteCodes_WithMalformedCursor_ShouldThrow() {
+        assertThatThrownBy(() -> inviteCodeService.scrollInviteCodes("not-a-cursor", 10, false))
+                .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
     void getInviteCodeByCode_ShouldReturnInviteCodeDto() {
         // Arrange
+        when(codeBloomFilter.mightContain(testCode)).thenReturn(true);
         when(inviteCodeRepository.findByCode(testCode)).thenReturn(Optional.of(inviteCode));
-        when(usageRecordRepository.countByInviteCode(inviteCode)).thenReturn(1);
 
         // Act
         Optional<InviteCodeDto> result = inviteCodeService.getInviteCodeByCode(testCode);
@@ -200,6 +513,6 @@ public class InviteCodeServiceTest {
         assertThat(result.get().getCode()).isEqualTo(testCode);
         assertThat(result.get().getUsageCount()).isEqualTo(1);
         verify(inviteCodeRepository, times(1)).findByCode(testCode);
-        verify(usageRecordRepository, times(1)).countByInviteCode(inviteCode);
+        verify(usageRecordRepository, never()).countByInviteCode(any(InviteCode.class));
     }
 } 
\ No newline at end of file
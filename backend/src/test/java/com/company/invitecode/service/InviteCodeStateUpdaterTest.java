@@ -0,0 +1,100 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.dto.request.InviteCodeSearchRequest;
+import com.company.invitecode.index.CodeVerificationIndex;
+import com.company.invitecode.index.RejectedCodeCache;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.company.invitecode.repository.InviteCodeRepository;
+import com.company.invitecode.repository.InviteCodeSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "invite-code.bulk-state.chunk-size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({InviteCodeStateUpdater.class, InviteCodeSearchRepository.class, InviteCodeBulkRepository.class,
+        CodeVerificationIndex.class, RejectedCodeCache.class})
+public class InviteCodeStateUpdaterTest {
+
+    @Autowired
+    private InviteCodeStateUpdater inviteCodeStateUpdater;
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        inviteCodeBulkRepository.insertIgnoringDuplicates("leaked", null, "admin", LocalDateTime.now(), null, null,
+                Arrays.asList("LEAK0001", "LEAK0002", "LEAK0003", "LEAK0004", "LEAK0005"));
+        inviteCodeBulkRepository.insertIgnoringDuplicates("other", null, "admin", LocalDateTime.now(), null, null,
+                Arrays.asList("KEEP0001", "KEEP0002"));
+    }
+
+    @Test
+    void setActive_ShouldUpdateWholeBatchAcrossChunks() {
+        // Arrange
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        criteria.setBatchId("leaked");
+
+        // Act
+        int disabled = inviteCodeStateUpdater.setActive(criteria, false);
+        int disabledAgain = inviteCodeStateUpdater.setActive(criteria, false);
+
+        // Assert
+        assertThat(disabled).isEqualTo(5);
+        assertThat(disabledAgain).isZero();
+        entityManager.clear();
+        assertThat(inviteCodeRepository.findByCode("LEAK0003").get().isActive()).isFalse();
+        assertThat(inviteCodeRepository.findByCode("KEEP0001").get().isActive()).isTrue();
+    }
+
+    @Test
+    void setActive_ShouldOnlyCountCodesWhoseStateChanged() {
+        // Arrange
+        InviteCodeSearchRequest onePrefix = new InviteCodeSearchRequest();
+        onePrefix.setCodePrefix("LEAK000");
+        InviteCodeSearchRequest oneCode = new InviteCodeSearchRequest();
+        oneCode.setCodePrefix("LEAK0001");
+        inviteCodeStateUpdater.setActive(onePrefix, false);
+
+        // Act
+        int enabled = inviteCodeStateUpdater.setActive(oneCode, true);
+
+        // Assert
+        assertThat(enabled).isEqualTo(1);
+    }
+
+    @Test
+    void expire_ShouldExpireMatchingCodesOnce() {
+        // Arrange
+        InviteCodeSearchRequest criteria = new InviteCodeSearchRequest();
+        criteria.setBatchId("leaked");
+
+        // Act
+        int expired = inviteCodeStateUpdater.expire(criteria);
+        int expiredAgain = inviteCodeStateUpdater.expire(criteria);
+
+        // Assert
+        assertThat(expired).isEqualTo(5);
+        assertThat(expiredAgain).isZero();
+        entityManager.clear();
+        long leakedId = inviteCodeRepository.findByCode("LEAK0002").get().getId();
+        assertThat(inviteCodeBulkRepository.redeem(leakedId, LocalDateTime.now().plusSeconds(1))).isFalse();
+        assertThat(inviteCodeRepository.findByCode("KEEP0002").get().getExpiresAt()).isNull();
+    }
+}
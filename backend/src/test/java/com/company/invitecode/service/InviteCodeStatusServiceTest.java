@@ -0,0 +1,53 @@
+package com.company.invitecode.service;
+
+import com.company.invitecode.index.CodeBloomFilter;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "invite-code.status-lookup.chunk-size=2")
+public class InviteCodeStatusServiceTest {
+
+    @Autowired
+    private InviteCodeStatusService inviteCodeStatusService;
+
+    @Autowired
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Autowired
+    private CodeBloomFilter codeBloomFilter;
+
+    @Test
+    void lookupStatuses_ShouldWriteOneLinePerInputCodeInOrder() throws Exception {
+        // Arrange
+        List<String> existing = Arrays.asList("STATUS01", "STATUS02", "STATUS03");
+        inviteCodeBulkRepository.insertIgnoringDuplicates("status-batch", null, "admin", LocalDateTime.now(),
+                null, null, existing);
+        codeBloomFilter.putAll(existing);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long found = inviteCodeStatusService.lookupStatuses(
+                Arrays.asList("STATUS03", "MISSING1", "STATUS01", "", "STATUS02"), out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(found).isEqualTo(3);
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).contains("\"code\":\"STATUS03\"", "\"found\":true", "\"batchId\":\"status-batch\"",
+                "\"active\":true", "\"usageCount\":0");
+        assertThat(lines[1]).isEqualTo("{\"code\":\"MISSING1\",\"found\":false}");
+        assertThat(lines[2]).contains("\"code\":\"STATUS01\"", "\"found\":true");
+        assertThat(lines[3]).isEqualTo("{\"code\":\"\",\"found\":false}");
+        assertThat(lines[4]).contains("\"code\":\"STATUS02\"", "\"found\":true");
+    }
+}
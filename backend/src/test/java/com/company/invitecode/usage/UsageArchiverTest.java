@@ -0,0 +1,172 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.dto.UsageArchiveSegmentDto;
+import com.company.invitecode.model.InviteCode;
+import com.company.invitecode.model.UsageArchiveStatus;
+import com.company.invitecode.repository.InviteCodeRepository;
+import com.company.invitecode.repository.UsageArchiveRepository;
+import com.company.invitecode.repository.UsageArchiveSegmentRepository;
+import com.company.invitecode.repository.UsageRecordBulkRepository;
+import com.company.invitecode.repository.UserAgentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsageArchiveRepository.class, UsageRecordBulkRepository.class, UserAgentDictionary.class,
+        UserAgentRepository.class})
+public class UsageArchiverTest {
+
+    @Autowired
+    private UsageArchiveRepository usageArchiveRepository;
+
+    @Autowired
+    private UsageArchiveSegmentRepository usageArchiveSegmentRepository;
+
+    @Autowired
+    private UsageRecordBulkRepository usageRecordBulkRepository;
+
+    @Autowired
+    private UserAgentDictionary userAgentDictionary;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TempDir
+    Path tempDir;
+
+    private UsageArchiver usageArchiver;
+    private UsageArchiveReader usageArchiveReader;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        usageArchiver = new UsageArchiver(usageArchiveRepository, usageArchiveSegmentRepository,
+                new TransactionTemplate(transactionManager), objectMapper);
+        ReflectionTestUtils.setField(usageArchiver, "retentionMonths", 6);
+        ReflectionTestUtils.setField(usageArchiver, "archiveDir", tempDir.toString());
+        ReflectionTestUtils.setField(usageArchiver, "chunkSize", 2);
+        usageArchiveReader = new UsageArchiveReader(usageArchiveSegmentRepository, usageArchiver, objectMapper);
+    }
+
+    @Test
+    void archive_ShouldMoveExpiredRecordsToArchiveFiles() throws Exception {
+        // Arrange: 8个月前3条、9个月前1条，本月1条
+        Long first = saveInviteCode("ARCHIVE01");
+        Long second = saveInviteCode("ARCHIVE02");
+        LocalDateTime eightMonthsAgo = YearMonth.now().minusMonths(8).atDay(10).atTime(12, 0);
+        LocalDateTime nineMonthsAgo = YearMonth.now().minusMonths(9).atDay(3).atTime(8, 30);
+        LocalDateTime recent = LocalDateTime.now().withNano(0);
+        List<PendingUsageRecord> records = Arrays.asList(
+                new PendingUsageRecord(first, "user1", "10.0.0.1", "agent", eightMonthsAgo),
+                new PendingUsageRecord(first, "user2", null, null, eightMonthsAgo.plusDays(1)),
+                new PendingUsageRecord(second, "user3", null, null, eightMonthsAgo.plusDays(2)),
+                new PendingUsageRecord(second, "user4", null, null, nineMonthsAgo),
+                new PendingUsageRecord(first, "user5", null, null, recent));
+        usageRecordBulkRepository.insertBatch(records, userAgentDictionary.resolve(records));
+        usageRecordBulkRepository.incrementUsageCounts(records);
+
+        // Act
+        long archived = usageArchiver.archive();
+
+        // Assert
+        assertThat(archived).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM usage_records", Long.class)).isEqualTo(1);
+        assertThat(usageArchiver.getSegments())
+                .extracting(UsageArchiveSegmentDto::getArchivedRecords, UsageArchiveSegmentDto::getStatus)
+                .containsExactly(
+                        tuple(1L, UsageArchiveStatus.COMPLETED),
+                        tuple(3L, UsageArchiveStatus.COMPLETED));
+
+        List<ArchivedUsageRecord> firstCodeRecords = new ArrayList<>();
+        usageArchiveReader.read(first, nineMonthsAgo.minusDays(1), recent,
+                (record, line) -> firstCodeRecords.add(record));
+        assertThat(firstCodeRecords).extracting(ArchivedUsageRecord::getUserId).containsExactly("user1", "user2");
+        assertThat(firstCodeRecords.get(0).getIpAddress()).isEqualTo("10.0.0.1");
+        assertThat(firstCodeRecords.get(0).getUserAgent()).isEqualTo("agent");
+        assertThat(firstCodeRecords.get(0).getUsedAt()).isEqualTo(eightMonthsAgo);
+
+        // 校正使用次数时计入已归档的记录
+        usageRecordBulkRepository.recomputeUsageCounts(first, second);
+        assertThat(reload(first).getUsageCount()).isEqualTo(3);
+        assertThat(reload(first).getArchivedUsageCount()).isEqualTo(2);
+        assertThat(reload(second).getUsageCount()).isEqualTo(2);
+        assertThat(reload(second).getLastUsedAt()).isEqualTo(eightMonthsAgo.plusDays(2));
+    }
+
+    @Test
+    void archive_ShouldTruncateUncommittedTailBeforeAppending() throws Exception {
+        // Arrange: 第一次归档后文件末尾残留未提交的数据，之后又补写了同月的记录
+        Long id = saveInviteCode("ARCHIVE03");
+        LocalDateTime usedAt = YearMonth.now().minusMonths(7).atDay(5).atTime(9, 0);
+        usageRecordBulkRepository.insertBatch(Collections.singletonList(
+                new PendingUsageRecord(id, "user1", null, null, usedAt)), Collections.emptyMap());
+        usageArchiver.archive();
+        String month = YearMonth.from(usedAt).format(UsageArchiver.MONTH_FORMAT);
+        Files.write(tempDir.resolve(UsageArchiver.fileName(month)), new byte[]{0x1f, (byte) 0x8b, 8, 0},
+                StandardOpenOption.APPEND);
+        usageRecordBulkRepository.insertBatch(Collections.singletonList(
+                new PendingUsageRecord(id, "user2", null, null, usedAt.minusDays(1))), Collections.emptyMap());
+
+        // Act
+        long archived = usageArchiver.archive();
+
+        // Assert
+        assertThat(archived).isEqualTo(1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = usageArchiveReader.export(id, usedAt.minusMonths(1), usedAt.plusMonths(1), output);
+        assertThat(exported).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8.name()).split("\n")).hasSize(2);
+        assertThat(usageArchiveSegmentRepository.findById(month).get().getArchivedRecords()).isEqualTo(2);
+    }
+
+    private Long saveInviteCode(String code) {
+        InviteCode inviteCode = new InviteCode();
+        inviteCode.setCode(code);
+        inviteCode.setCreatedBy("admin");
+        inviteCode.setActive(true);
+        Long id = inviteCodeRepository.saveAndFlush(inviteCode).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    private InviteCode reload(Long id) {
+        entityManager.clear();
+        return inviteCodeRepository.findById(id).orElseThrow();
+    }
+}
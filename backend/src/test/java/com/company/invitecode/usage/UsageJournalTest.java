@@ -0,0 +1,94 @@
+package com.company.invitecode.usage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UsageJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_ShouldContinueAcrossSegments() throws IOException {
+        // Arrange: 每个分段超过8字节即切换，每条记录单独成段
+        try (UsageJournal journal = UsageJournal.open(tempDir, 8, true)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(line("record-" + i));
+            }
+
+            // Act
+            UsageJournal.Read read = journal.read(journal.seek(0), 10);
+
+            // Assert
+            assertThat(journal.segmentCount()).isEqualTo(3);
+            assertThat(text(read.getLines())).containsExactly("record-0", "record-1", "record-2");
+            assertThat(read.getNext().getSeq()).isEqualTo(3);
+            assertThat(journal.durableSeq()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void deleteSegmentsBefore_ShouldKeepUncommittedAndActiveSegments() throws IOException {
+        // Arrange
+        try (UsageJournal journal = UsageJournal.open(tempDir, 8, true)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(line("record-" + i));
+            }
+
+            // Act
+            int deleted = journal.deleteSegmentsBefore(2);
+
+            // Assert
+            assertThat(deleted).isEqualTo(2);
+            UsageJournal.Cursor cursor = journal.seek(2);
+            assertThat(cursor.getSeq()).isEqualTo(2);
+            assertThat(text(journal.read(cursor, 10).getLines())).containsExactly("record-2");
+            assertThat(journal.deleteSegmentsBefore(3)).isZero();
+        }
+    }
+
+    @Test
+    void open_WithIncompleteLastLine_ShouldTruncateIt() throws IOException {
+        // Arrange: 模拟进程在写入一半时崩溃
+        String id;
+        try (UsageJournal journal = UsageJournal.open(tempDir, 1 << 20, true)) {
+            journal.append(line("record-0"));
+            id = journal.getId();
+        }
+        Path segment = Files.list(tempDir)
+                .filter(path -> path.getFileName().toString().endsWith(".journal"))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        Files.write(segment, line("rec"), StandardOpenOption.APPEND);
+
+        // Act
+        try (UsageJournal journal = UsageJournal.open(tempDir, 1 << 20, true)) {
+            journal.append(line("record-1"));
+
+            // Assert
+            assertThat(journal.getId()).isEqualTo(id);
+            assertThat(journal.durableSeq()).isEqualTo(2);
+            assertThat(text(journal.read(journal.seek(0), 10).getLines())).containsExactly("record-0", "record-1");
+        }
+    }
+
+    private static byte[] line(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> text(List<byte[]> lines) {
+        return lines.stream()
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,201 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.model.UsageJournalProgress;
+import com.company.invitecode.repository.UsageJournalProgressRepository;
+import com.company.invitecode.repository.UsageRecordBulkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UsageRecordWriterTest {
+
+    @Mock
+    private UsageRecordBulkRepository usageRecordBulkRepository;
+
+    @Mock
+    private UsageJournalProgressRepository usageJournalProgressRepository;
+
+    @Mock
+    private UsageRollupAggregator usageRollupAggregator;
+
+    @Mock
+    private UserAgentDictionary userAgentDictionary;
+
+    @TempDir
+    Path tempDir;
+
+    private final List<UsageRecordWriter> writers = new ArrayList<>();
+    private UsageRecordWriter usageRecordWriter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        usageRecordWriter = newWriter();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writers.forEach(UsageRecordWriter::shutdown);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteJournaledRecordsInBatches() {
+        // Arrange
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> batchSizes.add(((List<PendingUsageRecord>) invocation.getArgument(0)).size()))
+                .when(usageRecordBulkRepository).insertBatch(anyList(), anyMap());
+        for (int i = 0; i < 3; i++) {
+            usageRecordWriter.record(newRecord(i));
+        }
+
+        // Act
+        usageRecordWriter.flush();
+
+        // Assert: 每批提交的进度与记录在同一事务中
+        assertThat(batchSizes).containsExactly(2, 1);
+        assertThat(usageRecordWriter.getStats().getBacklog()).isZero();
+        assertThat(usageRecordWriter.getStats().getWritten()).isEqualTo(3);
+        verify(usageJournalProgressRepository).save(argThat((UsageJournalProgress progress) -> progress.getCommittedRecords() == 2));
+        verify(usageJournalProgressRepository).save(argThat((UsageJournalProgress progress) -> progress.getCommittedRecords() == 3));
+    }
+
+    @Test
+    void record_WhenBacklogFull_ShouldWriteSynchronously() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            usageRecordWriter.record(newRecord(i));
+        }
+
+        // Act
+        usageRecordWriter.record(newRecord(3));
+
+        // Assert
+        verify(usageRecordBulkRepository, times(1)).insertBatch(anyList(), anyMap());
+        assertThat(usageRecordWriter.getStats().getBacklog()).isEqualTo(3);
+        assertThat(usageRecordWriter.getStats().getSynchronousWrites()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WhenDatabaseFails_ShouldRetryFromJournal() {
+        // Arrange: 数据库不可用时批次留在日志中，恢复后按原顺序重试
+        List<Long> writtenIds = new ArrayList<>();
+        doThrow(new DataAccessResourceFailureException("数据库不可用"))
+                .doAnswer(invocation -> {
+                    for (PendingUsageRecord record : (List<PendingUsageRecord>) invocation.getArgument(0)) {
+                        writtenIds.add(record.getInviteCodeId());
+                    }
+                    return null;
+                })
+                .when(usageRecordBulkRepository).insertBatch(anyList(), anyMap());
+        for (int i = 0; i < 3; i++) {
+            usageRecordWriter.record(newRecord(i));
+        }
+
+        // Act
+        usageRecordWriter.flush();
+        long backlogAfterFailure = usageRecordWriter.getStats().getBacklog();
+        ReflectionTestUtils.setField(usageRecordWriter, "nextAttempt", 0L);
+        usageRecordWriter.flush();
+
+        // Assert
+        assertThat(backlogAfterFailure).isEqualTo(3);
+        assertThat(writtenIds).containsExactly(0L, 1L, 2L);
+        assertThat(usageRecordWriter.getStats().getFailedFlushes()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_AfterRestart_ShouldResumeFromCommittedProgress() throws Exception {
+        // Arrange: 上次运行写入了日志中的前两条记录后进程终止
+        for (int i = 0; i < 3; i++) {
+            usageRecordWriter.record(newRecord(i));
+        }
+        UsageJournal journal = (UsageJournal) ReflectionTestUtils.getField(usageRecordWriter, "journal");
+        String journalId = journal.getId();
+        journal.close();
+        writers.remove(usageRecordWriter);
+        when(usageJournalProgressRepository.findById(journalId))
+                .thenReturn(Optional.of(new UsageJournalProgress(journalId, 2)));
+        List<Long> writtenIds = new ArrayList<>();
+        doAnswer(invocation -> {
+            for (PendingUsageRecord record : (List<PendingUsageRecord>) invocation.getArgument(0)) {
+                writtenIds.add(record.getInviteCodeId());
+            }
+            return null;
+        }).when(usageRecordBulkRepository).insertBatch(anyList(), anyMap());
+        UsageRecordWriter restarted = newWriter();
+
+        // Act
+        restarted.flush();
+
+        // Assert
+        assertThat(writtenIds).containsExactly(2L);
+        assertThat(restarted.getStats().getBacklog()).isZero();
+    }
+
+    @Test
+    void record_WhenJournalClosed_ShouldWriteSynchronouslyInCallerTransaction() throws Exception {
+        // Arrange
+        ((UsageJournal) ReflectionTestUtils.getField(usageRecordWriter, "journal")).close();
+
+        // Act
+        usageRecordWriter.record(newRecord(0));
+
+        // Assert
+        verify(usageRecordBulkRepository, times(1)).insertBatch(anyList(), anyMap());
+        verify(usageRecordBulkRepository, times(1)).incrementUsageCounts(anyList());
+        verify(usageJournalProgressRepository, never()).save(any());
+        assertThat(usageRecordWriter.getStats().getSynchronousWrites()).isEqualTo(1);
+    }
+
+    private UsageRecordWriter newWriter() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        UsageRecordWriter writer = new UsageRecordWriter(usageRecordBulkRepository, usageJournalProgressRepository,
+                usageRollupAggregator, userAgentDictionary, transactionTemplate,
+                new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(writer, "enabled", true);
+        ReflectionTestUtils.setField(writer, "maxBacklog", 3L);
+        ReflectionTestUtils.setField(writer, "batchSize", 2);
+        ReflectionTestUtils.setField(writer, "journalDir", tempDir.resolve("journal").toString());
+        ReflectionTestUtils.setField(writer, "journalSegmentBytes", 1L << 20);
+        ReflectionTestUtils.setField(writer, "journalFsync", true);
+        writer.openJournal();
+        writers.add(writer);
+        return writer;
+    }
+
+    private PendingUsageRecord newRecord(long inviteCodeId) {
+        return new PendingUsageRecord(inviteCodeId, "user" + inviteCodeId, "127.0.0.1", "Mozilla/5.0",
+                LocalDateTime.now());
+    }
+}
@@ -0,0 +1,185 @@
+package com.company.invitecode.usage;
+
+import com.company.invitecode.dto.UsageBucketDto;
+import com.company.invitecode.model.InviteCode;
+import com.company.invitecode.model.RollupGranularity;
+import com.company.invitecode.dto.TopCodeDto;
+import com.company.invitecode.dto.UsageOverviewDto;
+import com.company.invitecode.model.InviteCodeBatch;
+import com.company.invitecode.repository.InviteCodeBatchRepository;
+import com.company.invitecode.repository.InviteCodeBulkRepository;
+import com.company.invitecode.repository.InviteCodeRepository;
+import com.company.invitecode.repository.UsageRollupBulkRepository;
+import com.company.invitecode.repository.UsageStatsRepository;
+import com.company.invitecode.service.UsageStatsService;
+import com.company.invitecode.service.UsageStatsServiceImpl;
+import com.company.invitecode.stats.StatsWindowCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsageRollupAggregator.class, UsageRollupBulkRepository.class, InviteCodeBulkRepository.class,
+        UsageStatsServiceImpl.class, UsageStatsRepository.class, StatsWindowCache.class})
+public class UsageRollupAggregatorTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @Autowired
+    private UsageRollupAggregator usageRollupAggregator;
+
+    @Autowired
+    private UsageStatsService usageStatsService;
+
+    @Autowired
+    private InviteCodeRepository inviteCodeRepository;
+
+    @Autowired
+    private InviteCodeBatchRepository inviteCodeBatchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private InviteCodeBulkRepository inviteCodeBulkRepository;
+
+    @Test
+    void flush_ShouldMergeIncrementsIntoRollups() {
+        // Arrange
+        long id = saveInviteCode("ROLLUP01", "rollup-batch");
+        usageRollupAggregator.add(Arrays.asList(
+                new PendingUsageRecord(id, "user1", null, null, DAY.plusHours(10).plusMinutes(5).plusSeconds(12)),
+                new PendingUsageRecord(id, "user2", null, null, DAY.plusHours(10).plusMinutes(40))));
+        usageRollupAggregator.flush();
+
+        // Act: 第二次刷新在已有汇总行上累加
+        usageRollupAggregator.add(Collections.singletonList(
+                new PendingUsageRecord(id, "user3", null, null, DAY.plusHours(10).plusMinutes(5).plusSeconds(50))));
+        usageRollupAggregator.flush();
+
+        // Assert
+        assertThat(usageStatsService.getBatchUsage("rollup-batch", RollupGranularity.MINUTE, DAY, DAY.plusDays(1)))
+                .extracting(UsageBucketDto::getBucketStart, UsageBucketDto::getCount)
+                .containsExactly(
+                        tuple(DAY.plusHours(10).plusMinutes(5), 2L),
+                        tuple(DAY.plusHours(10).plusMinutes(40), 1L));
+        assertThat(usageStatsService.getBatchUsage("rollup-batch", RollupGranularity.HOUR, DAY, DAY.plusDays(1)))
+                .extracting(UsageBucketDto::getCount).containsExactly(3L);
+        assertThat(usageStatsService.getCodeUsage(id, RollupGranularity.DAY, DAY.plusHours(12), DAY.plusDays(2)))
+                .hasValueSatisfying(buckets -> assertThat(buckets)
+                        .extracting(UsageBucketDto::getBucketStart, UsageBucketDto::getCount)
+                        .containsExactly(tuple(DAY, 3L)));
+    }
+
+    @Test
+    void getCodeUsage_ShouldRejectMinuteGranularityAndOversizedRanges() {
+        // Arrange
+        long id = saveInviteCode("ROLLUP02", "rollup-batch");
+
+        // Act & Assert
+        assertThatThrownBy(() -> usageStatsService.getCodeUsage(id, RollupGranularity.MINUTE, DAY, DAY.plusHours(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> usageStatsService.getCodeUsage(id, RollupGranularity.HOUR, DAY, DAY.plusYears(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(usageStatsService.getCodeUsage(-1L, RollupGranularity.HOUR, DAY, DAY.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void getOverview_ShouldCombineRollupsSketchesAndBatchCounts() {
+        // Arrange: 批次生成4个邀请码，其中2个被使用；3个用户共使用5次
+        inviteCodeBatchRepository.saveAndFlush(new InviteCodeBatch("stats-batch", null, "admin"));
+        inviteCodeBatchRepository.addIssuedCount("stats-batch", 4);
+        long hot = saveInviteCode("ROLLUP03", "stats-batch");
+        long cold = saveInviteCode("ROLLUP04", "stats-batch");
+        List<PendingUsageRecord> records = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            records.add(new PendingUsageRecord(hot, "user" + (i % 2), null, null, DAY.plusHours(i)));
+        }
+        records.add(new PendingUsageRecord(cold, "user9", null, null, DAY.plusDays(1)));
+        usageRollupAggregator.add(records);
+        usageRollupAggregator.flush();
+        jdbcTemplate.update("UPDATE invite_code_batches SET used_codes = 2 WHERE batch_id = ?", "stats-batch");
+
+        // Act
+        UsageOverviewDto overview = usageStatsService.getOverview("stats-batch",
+                DAY.toLocalDate(), DAY.toLocalDate().plusDays(1));
+        List<TopCodeDto> topCodes = usageStatsService.getTopCodes("stats-batch",
+                DAY.toLocalDate(), DAY.toLocalDate().plusDays(1), 1);
+        List<UsageOverviewDto> ranking = usageStatsService.getBatchRanking(
+                DAY.toLocalDate(), DAY.toLocalDate(), 10);
+
+        // Assert
+        assertThat(overview.getRedemptions()).isEqualTo(5);
+        assertThat(overview.getUniqueUsers()).isEqualTo(3);
+        assertThat(overview.getIssuedCodes()).isEqualTo(4);
+        assertThat(overview.getUsedCodes()).isEqualTo(2);
+        assertThat(overview.getConversionRate()).isEqualTo(0.5);
+        assertThat(topCodes).extracting(TopCodeDto::getCode, TopCodeDto::getRedemptions)
+                .containsExactly(tuple("ROLLUP03", 4L));
+        assertThat(ranking).extracting(UsageOverviewDto::getBatchId, UsageOverviewDto::getRedemptions)
+                .contains(tuple("stats-batch", 4L));
+        assertThat(usageStatsService.getOverview(null, DAY.toLocalDate(), DAY.toLocalDate()).getRedemptions())
+                .isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    void flush_WhenBatchCacheFull_ShouldEvictLeastRecentlyUsedCode() {
+        // Arrange: 缓存上限为2，第三个邀请码只淘汰最久未用的一个
+        ReflectionTestUtils.setField(usageRollupAggregator, "batchCacheSize", 2);
+        try {
+            long first = saveInviteCode("ROLLUP10", "rollup-batch");
+            long second = saveInviteCode("ROLLUP11", "rollup-batch");
+            long third = saveInviteCode("ROLLUP12", "rollup-batch");
+            flushUse(first);
+            flushUse(second);
+            flushUse(third);
+            clearInvocations(inviteCodeBulkRepository);
+
+            // Act
+            flushUse(second);
+            flushUse(third);
+            flushUse(first);
+
+            // Assert
+            verify(inviteCodeBulkRepository, times(1)).findBatchIds(anyCollection());
+            verify(inviteCodeBulkRepository).findBatchIds(Collections.singletonList(first));
+        } finally {
+            ReflectionTestUtils.setField(usageRollupAggregator, "batchCacheSize", 100000);
+        }
+    }
+
+    private void flushUse(long inviteCodeId) {
+        usageRollupAggregator.add(Collections.singletonList(
+                new PendingUsageRecord(inviteCodeId, "user1", null, null, DAY.plusHours(1))));
+        usageRollupAggregator.flush();
+    }
+
+    private long saveInviteCode(String code, String batchId) {
+        InviteCode inviteCode = new InviteCode();
+        inviteCode.setCode(code);
+        inviteCode.setBatchId(batchId);
+        inviteCode.setCreatedBy("admin");
+        inviteCode.setActive(true);
+        return inviteCodeRepository.saveAndFlush(inviteCode).getId();
+    }
+}
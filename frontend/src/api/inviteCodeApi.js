@@ -48,10 +48,25 @@ export const verifyInviteCode = (code, userId = '') => {
   return api.post('/invite-codes/verify', { code, userId });
 };
 
-// 生成邀请码
-export const generateInviteCodes = (count, description = '') => {
-  console.log('调用生成邀请码API，参数:', { count, description });
-  return api.post('/invite-codes/generate', { count, description });
+// 异步验证邀请码（结果与verifyInviteCode相同，适合高并发场景）
+export const verifyInviteCodeAsync = (code, userId = '') => {
+  return api.post('/invite-codes/verify-async', { code, userId });
+};
+
+// 生成邀请码（maxUses为每个邀请码的最大使用次数，expiresAt为过期时间，不填表示不限）
+export const generateInviteCodes = (count, description = '', maxUses = null, expiresAt = null) => {
+  console.log('调用生成邀请码API，参数:', { count, description, maxUses, expiresAt });
+  return api.post('/invite-codes/generate', { count, description, maxUses, expiresAt });
+};
+
+// 提交后台生成任务（适用于大批量生成）
+export const submitGenerationJob = (count, description = '', maxUses = null, expiresAt = null) => {
+  return api.post('/invite-codes/generation-jobs', { count, description, maxUses, expiresAt });
+};
+
+// 查询后台生成任务进度
+export const getGenerationJob = (jobId) => {
+  return api.get(`/invite-codes/generation-jobs/${jobId}`);
 };
 
 // 获取所有邀请码（分页）
@@ -59,6 +74,16 @@ export const getAllInviteCodes = (page = 0, size = 10, sortBy = 'createdAt', dir
   return api.get(`/invite-codes?page=${page}&size=${size}&sortBy=${sortBy}&direction=${direction}`);
 };
 
+// 游标分页获取邀请码（cursor为上一页返回的nextCursor，第一页不传）
+export const scrollInviteCodes = (cursor = '', size = 50, withTotal = false) => {
+  return api.get('/invite-codes/scroll', { params: { cursor: cursor || undefined, size, withTotal } });
+};
+
+// 多条件搜索邀请码（criteria可包含batchId、active、createdBy、createdFrom、createdTo、description、codePrefix）
+export const searchInviteCodes = (criteria = {}, cursor = '', size = 50, withTotal = false) => {
+  return api.get('/invite-codes/search', { params: { ...criteria, cursor: cursor || undefined, size, withTotal } });
+};
+
 // 获取邀请码详情
 export const getInviteCode = (id) => {
   return api.get(`/invite-codes/${id}`);
@@ -69,6 +94,51 @@ export const getInviteCodeUsageRecords = (id, page = 0, size = 10) => {
   return api.get(`/invite-codes/${id}/usage-records?page=${page}&size=${size}`);
 };
 
+// 游标分页获取邀请码使用记录
+export const scrollInviteCodeUsageRecords = (id, cursor = '', size = 50, withTotal = false) => {
+  return api.get(`/invite-codes/${id}/usage-records/scroll`, { params: { cursor: cursor || undefined, size, withTotal } });
+};
+
+// 按时间桶统计邀请码使用次数（granularity为HOUR或DAY，from/to为ISO时间）
+export const getInviteCodeUsageStats = (id, from, to = undefined, granularity = 'HOUR') => {
+  return api.get(`/invite-codes/${id}/usage-stats`, { params: { granularity, from, to } });
+};
+
+// 按时间桶统计批次使用次数（granularity为MINUTE、HOUR或DAY）
+export const getBatchUsageStats = (batchId, from, to = undefined, granularity = 'HOUR') => {
+  return api.get(`/invite-codes/batches/${batchId}/usage-stats`, { params: { granularity, from, to } });
+};
+
+// 使用概况（batchId为空表示全部批次，from/to为YYYY-MM-DD，默认最近7天）
+export const getUsageOverview = (batchId = undefined, from = undefined, to = undefined) => {
+  return api.get('/admin/stats/overview', { params: { batchId, from, to } });
+};
+
+// 全部批次的使用趋势
+export const getRedemptionTrend = (from, to = undefined, granularity = 'HOUR') => {
+  return api.get('/admin/stats/redemptions', { params: { granularity, from, to } });
+};
+
+// 使用次数最多的批次
+export const getBatchRanking = (from = undefined, to = undefined, limit = 20) => {
+  return api.get('/admin/stats/batches', { params: { from, to, limit } });
+};
+
+// 使用次数最多的邀请码
+export const getTopCodes = (batchId = undefined, from = undefined, to = undefined, limit = 20) => {
+  return api.get('/admin/stats/top-codes', { params: { batchId, from, to, limit } });
+};
+
+// 使用记录按月归档进度
+export const getUsageArchiveSegments = () => {
+  return api.get('/admin/usage-archive');
+};
+
+// 查询已归档的使用记录（返回NDJSON文本，from/to为ISO时间）
+export const getArchivedUsageRecords = (inviteCodeId, from, to) => {
+  return api.get('/admin/usage-archive/records', { params: { inviteCodeId, from, to }, responseType: 'text', timeout: 120000 });
+};
+
 // 禁用邀请码
 export const disableInviteCode = (id) => {
   return api.put(`/invite-codes/${id}/disable`);
@@ -79,6 +149,41 @@ export const enableInviteCode = (id) => {
   return api.put(`/invite-codes/${id}/enable`);
 };
 
+// 批量禁用/启用批次内的邀请码
+export const setBatchActive = (batchId, active) => {
+  return api.put(`/invite-codes/batches/${batchId}/${active ? 'enable' : 'disable'}`);
+};
+
+// 按筛选条件批量禁用/启用邀请码
+export const setActiveInBulk = (criteria, active) => {
+  return api.put(`/invite-codes/bulk/${active ? 'enable' : 'disable'}`, criteria);
+};
+
+// 获取批次兑换配额
+export const getBatchQuota = (batchId) => {
+  return api.get(`/invite-codes/batches/${batchId}/quota`);
+};
+
+// 设置批次兑换配额（quota为null表示取消配额）
+export const setBatchQuota = (batchId, quota) => {
+  return api.put(`/invite-codes/batches/${batchId}/quota`, { quota });
+};
+
+// 使批次内的邀请码立即过期
+export const expireBatch = (batchId) => {
+  return api.put(`/invite-codes/batches/${batchId}/expire`);
+};
+
+// 按筛选条件使邀请码立即过期
+export const expireInBulk = (criteria) => {
+  return api.put('/invite-codes/bulk/expire', criteria);
+};
+
+// 批量查询邀请码状态（返回NDJSON文本，每行对应一个输入邀请码）
+export const lookupCodeStatuses = (codes) => {
+  return api.post('/invite-codes/bulk/status', codes, { responseType: 'text', timeout: 120000 });
+};
+
 // 管理员登录
 export const adminLogin = (username, password) => {
   // 调用后端登录接口
@@ -1,8 +1,8 @@
 import React, { useState, useEffect } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
-import { Table, Button, Card, Typography, Space, Tag, Spin, Modal, message } from 'antd';
+import { Table, Button, Card, Typography, Space, Tag, Spin, Modal, Row, Col, Statistic, message } from 'antd';
 import { PlusOutlined, ExclamationCircleOutlined, PoweroffOutlined, CheckCircleOutlined } from '@ant-design/icons';
-import { getAllInviteCodes, disableInviteCode, enableInviteCode } from '../api/inviteCodeApi';
+import { getAllInviteCodes, disableInviteCode, enableInviteCode, getUsageOverview } from '../api/inviteCodeApi';
 
 const { Title } = Typography;
 const { confirm } = Modal;
@@ -11,6 +11,7 @@ const AdminDashboard = () => {
   const navigate = useNavigate();
   const [loading, setLoading] = useState(true);
   const [inviteCodes, setInviteCodes] = useState([]);
+  const [overview, setOverview] = useState(null);
   const [pagination, setPagination] = useState({
     current: 1,
     pageSize: 10,
@@ -26,8 +27,20 @@ const AdminDashboard = () => {
     }
     
     fetchInviteCodes();
+    fetchOverview();
   }, [navigate]);
 
+  const fetchOverview = async () => {
+    try {
+      const response = await getUsageOverview();
+      if (response.data.success) {
+        setOverview(response.data.data);
+      }
+    } catch (error) {
+      console.error('获取使用概况失败', error);
+    }
+  };
+
   const fetchInviteCodes = async (page = 0, size = 10) => {
     setLoading(true);
     try {
@@ -166,6 +179,18 @@ const AdminDashboard = () => {
           </Space>
         </div>
 
+        {overview && (
+          <Row gutter={16} style={{ marginBottom: 20 }}>
+            <Col span={5}><Statistic title="近7天使用次数" value={overview.redemptions} /></Col>
+            <Col span={5}><Statistic title="近7天独立用户（估计）" value={overview.uniqueUsers} /></Col>
+            <Col span={5}><Statistic title="已生成邀请码" value={overview.issuedCodes} /></Col>
+            <Col span={5}><Statistic title="已使用邀请码" value={overview.usedCodes} /></Col>
+            <Col span={4}>
+              <Statistic title="转化率" value={overview.conversionRate * 100} precision={1} suffix="%" />
+            </Col>
+          </Row>
+        )}
+
         <Spin spinning={loading}>
           <Table 
             columns={columns} 